@@ -0,0 +1,77 @@
+package org.example.ruleengine.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.example.ruleengine.engine.CompiledRule;
+import org.example.ruleengine.engine.RuleCompiler;
+import org.example.ruleengine.engine.SlotRecord;
+import org.example.ruleengine.model.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compiling and evaluating rules of each {@link Workloads.Shape} and size, without the service layer.
+ * Records rotate through a fixed set so that branches are not trivially predicted.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+
+    private static final int RECORDS = 1024;
+
+    @Param({"FLAT", "BALANCED", "LEFT_DEEP"})
+    private Workloads.Shape shape;
+
+    @Param({"8", "64", "512", "4096"})
+    private int conditions;
+
+    private Node rootNode;
+    private CompiledRule rule;
+    private List<Map<String, Object>> records;
+    private SlotRecord[] slotRecords;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        rootNode = Workloads.rule(shape, conditions);
+        rule = RuleCompiler.compile(1L, rootNode);
+        records = Workloads.records(RECORDS);
+        slotRecords = new SlotRecord[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            slotRecords[i] = rule.newRecord();
+            rule.load(records.get(i), slotRecords[i]);
+        }
+    }
+
+    @Benchmark
+    public CompiledRule compile() {
+        return RuleCompiler.compile(1L, rootNode);
+    }
+
+    // Evaluation of a record already loaded into slots
+    @Benchmark
+    public boolean evaluateSlots() {
+        return rule.evaluate(slotRecords[next++ & (RECORDS - 1)]);
+    }
+
+    // Evaluation of a record map, including checking it and loading it into slots
+    @Benchmark
+    public boolean evaluateMap() {
+        return rule.evaluate(records.get(next++ & (RECORDS - 1)));
+    }
+}
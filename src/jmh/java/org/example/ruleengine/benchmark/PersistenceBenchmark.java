@@ -0,0 +1,141 @@
+package org.example.ruleengine.benchmark;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.example.ruleengine.RuleEngineApplication;
+import org.example.ruleengine.model.Node;
+import org.example.ruleengine.model.Rule;
+import org.example.ruleengine.repository.RuleRepository;
+import org.example.ruleengine.service.RuleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The service layer against an in-memory H2 database, in both storage modes. Each trial starts its own
+ * application context and database, which grows by one rule per create.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    @Param({"BLOB", "NODES"})
+    private String storage;
+
+    @Param({"8", "512"})
+    private int conditions;
+
+    private ConfigurableApplicationContext context;
+    private RuleService ruleService;
+    private RuleRepository ruleRepository;
+    private TransactionTemplate transactionTemplate;
+    private Long evaluatedId;
+    private Map<String, Object> record;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(RuleEngineApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark" + DATABASES.incrementAndGet()
+                                + ";DB_CLOSE_DELAY=-1",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "ruleengine.storage.mode=" + storage)
+                .run();
+        ruleService = context.getBean(RuleService.class);
+        ruleRepository = context.getBean(RuleRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        evaluatedId = createRule().getId();
+        record = Workloads.records(1).get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // Includes generating the rule, as a saved rule's nodes cannot be saved again
+    @Benchmark
+    public Rule createRule() {
+        Rule rule = new Rule();
+        rule.setName("benchmark");
+        rule.setRootNode(Workloads.rule(Workloads.Shape.BALANCED, conditions));
+        return ruleService.createRule(rule);
+    }
+
+    // Creates a rule, then reads it back in a new transaction and walks the whole tree
+    @Benchmark
+    public int createAndLoad() {
+        Long ruleId = createRule().getId();
+        return transactionTemplate.execute(status -> countNodes(ruleRepository.findById(ruleId)
+                .orElseThrow().getRootNode()));
+    }
+
+    @Benchmark
+    public Rule combineRules(SourceRules sourceRules) {
+        return ruleService.combineRules(sourceRules.ids);
+    }
+
+    // The full service path for a rule that is already compiled and cached
+    @Benchmark
+    public boolean evaluateRule() {
+        return ruleService.evaluateRule(evaluatedId, record);
+    }
+
+    /**
+     * Two rules created before each combination, since node rows can belong to only one combined tree.
+     */
+    @State(Scope.Thread)
+    public static class SourceRules {
+
+        private List<Long> ids;
+
+        @Setup(Level.Invocation)
+        public void create(PersistenceBenchmark benchmark) {
+            ids = List.of(benchmark.createRule().getId(), benchmark.createRule().getId());
+        }
+    }
+
+    private static int countNodes(Node rootNode) {
+        int count = 0;
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(rootNode);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            count++;
+            if (node.getLeft() != null) {
+                pending.push(node.getLeft());
+            }
+            if (node.getRight() != null) {
+                pending.push(node.getRight());
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.ruleengine.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.example.ruleengine.model.Node;
+
+/**
+ * Generated rules and records for the benchmarks. Everything is derived from a fixed seed, so runs of
+ * different releases measure the same workload.
+ */
+public final class Workloads {
+
+    public static final int ATTRIBUTES = 50;
+    private static final int VALUES = 1000;
+    private static final long SEED = 42;
+
+    public enum Shape {
+        // One operator over every condition, which the compiler turns into a single n-ary junction
+        FLAT,
+        // A complete binary tree with AND and OR alternating by level
+        BALANCED,
+        // AND and OR alternating down the left spine, so nothing can be flattened
+        LEFT_DEEP
+    }
+
+    private Workloads() {
+    }
+
+    /**
+     * A rule of the given shape with the given number of conditions. Half of the conditions compare a
+     * number and half a string, with literals chosen so that roughly half of them hold for a record.
+     */
+    public static Node rule(Shape shape, int conditions) {
+        Random random = new Random(SEED);
+        List<Node> leaves = new ArrayList<>(conditions);
+        for (int i = 0; i < conditions; i++) {
+            leaves.add(condition(i, random));
+        }
+        switch (shape) {
+            case FLAT: {
+                Node root = leaves.get(0);
+                for (int i = 1; i < conditions; i++) {
+                    root = operator("AND", root, leaves.get(i));
+                }
+                return root;
+            }
+            case LEFT_DEEP: {
+                Node root = leaves.get(0);
+                for (int i = 1; i < conditions; i++) {
+                    root = operator(i % 2 == 0 ? "AND" : "OR", root, leaves.get(i));
+                }
+                return root;
+            }
+            case BALANCED: {
+                List<Node> level = leaves;
+                for (int depth = 0; level.size() > 1; depth++) {
+                    List<Node> parents = new ArrayList<>((level.size() + 1) / 2);
+                    for (int i = 0; i + 1 < level.size(); i += 2) {
+                        parents.add(operator(depth % 2 == 0 ? "AND" : "OR", level.get(i), level.get(i + 1)));
+                    }
+                    if (level.size() % 2 == 1) {
+                        parents.add(level.get(level.size() - 1));
+                    }
+                    level = parents;
+                }
+                return level.get(0);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+    }
+
+    /**
+     * Records carrying every attribute the generated rules read.
+     */
+    public static List<Map<String, Object>> records(int count) {
+        Random random = new Random(SEED + 1);
+        List<Map<String, Object>> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> record = new HashMap<>();
+            for (int attribute = 0; attribute < ATTRIBUTES; attribute++) {
+                record.put("amount" + attribute, random.nextInt(VALUES));
+                record.put("category" + attribute, "c" + random.nextInt(2));
+            }
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static Node condition(int index, Random random) {
+        Node node = new Node();
+        node.setType("condition");
+        int attribute = index % ATTRIBUTES;
+        if (index % 2 == 0) {
+            node.setNodeValue("amount" + attribute + " > " + random.nextInt(VALUES));
+        } else {
+            node.setNodeValue("category" + attribute + " = 'c" + random.nextInt(2) + "'");
+        }
+        return node;
+    }
+
+    private static Node operator(String value, Node left, Node right) {
+        Node node = new Node();
+        node.setType("operator");
+        node.setNodeValue(value);
+        node.setLeft(left);
+        node.setRight(right);
+        return node;
+    }
+}
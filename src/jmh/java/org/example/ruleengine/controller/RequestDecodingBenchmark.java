@@ -0,0 +1,92 @@
+package org.example.ruleengine.controller;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.example.ruleengine.benchmark.Workloads;
+import org.example.ruleengine.engine.CompiledRule;
+import org.example.ruleengine.engine.RuleCompiler;
+import org.example.ruleengine.engine.SlotRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * Decoding an evaluation request body of {@link Workloads#ATTRIBUTES} * 2 attributes for a rule that reads
+ * a few of them: bound to a map as the endpoint used to, or streamed into the rule's slot record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestDecodingBenchmark {
+
+    private static final int RECORDS = 256;
+    private static final TypeReference<Map<String, Object>> RECORD_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonFactory cborFactory = new CBORFactory();
+    private CompiledRule rule;
+    private byte[][] json;
+    private byte[][] cbor;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        rule = RuleCompiler.compile(1L, Workloads.rule(Workloads.Shape.BALANCED, 8));
+        List<Map<String, Object>> records = Workloads.records(RECORDS);
+        ObjectMapper cborMapper = new ObjectMapper(cborFactory);
+        json = new byte[RECORDS][];
+        cbor = new byte[RECORDS][];
+        for (int i = 0; i < RECORDS; i++) {
+            json[i] = objectMapper.writeValueAsBytes(records.get(i));
+            cbor[i] = cborMapper.writeValueAsBytes(records.get(i));
+        }
+    }
+
+    @Benchmark
+    public boolean mapJson() throws IOException {
+        Map<String, Object> data = objectMapper.readValue(json[next++ & (RECORDS - 1)], RECORD_TYPE);
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            if (!(entry.getValue() instanceof String || entry.getValue() instanceof Number)) {
+                throw new IllegalArgumentException(entry.getKey());
+            }
+        }
+        return rule.evaluate(data);
+    }
+
+    @Benchmark
+    public boolean streamingJson() throws IOException {
+        return stream(objectMapper.getFactory(), json[next++ & (RECORDS - 1)]);
+    }
+
+    @Benchmark
+    public boolean streamingCbor() throws IOException {
+        return stream(cborFactory, cbor[next++ & (RECORDS - 1)]);
+    }
+
+    private boolean stream(JsonFactory factory, byte[] body) throws IOException {
+        SlotRecord record = rule.newRecord();
+        try (JsonParser parser = factory.createParser(body)) {
+            SlotRecordReader.read(parser, rule, record);
+        }
+        return rule.evaluate(record);
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.ruleengine.engine;
+
+import java.util.concurrent.TimeUnit;
+
+import org.example.ruleengine.model.Node;
+import org.example.ruleengine.service.ParseCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link RuleParser} with the previous tokenizer/parser, and with a {@link ParseCache} hit, which
+ * is what {@code RuleService.parseRuleString} costs for an expression seen before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleParserBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int terms;
+
+    private String expression;
+    private ParseCache parseCache;
+
+    static String expression(int terms) {
+        StringBuilder expression = new StringBuilder();
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                expression.append(i % 2 == 0 ? " AND " : " OR ");
+            }
+            if (i % 100 == 0) {
+                expression.append('(');
+            }
+            expression.append("attribute").append(i % 50).append(" >= ")
+                    .append(i % 3 == 0 ? "'value" + i + "'" : String.valueOf(i));
+            if (i % 100 == 99) {
+                expression.append(')');
+            }
+        }
+        return expression.toString();
+    }
+
+    @Setup
+    public void setUp() {
+        expression = expression(terms);
+        parseCache = new ParseCache(64 << 20);
+        parseCache.parse(expression);
+    }
+
+    @Benchmark
+    public Node legacy() {
+        return LegacyRuleParser.parse(expression);
+    }
+
+    @Benchmark
+    public Node singlePass() {
+        return RuleParser.parse(expression);
+    }
+
+    @Benchmark
+    public Node cached() {
+        return parseCache.parse(expression);
+    }
+}
@@ -1,13 +1,36 @@
 package org.example.ruleengine;
 
+import com.fasterxml.jackson.core.StreamWriteConstraints;
+
+import org.example.ruleengine.batch.FileScoringRunner;
+import org.springframework.boot.DefaultApplicationArguments;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class RuleEngineApplication {
 
     public static void main(String[] args) {
+        // Scoring a file runs without the web server and exits when done
+        if (new DefaultApplicationArguments(args).containsOption(FileScoringRunner.SCORE_OPTION)) {
+            SpringApplication application = new SpringApplication(RuleEngineApplication.class);
+            application.setWebApplicationType(WebApplicationType.NONE);
+            System.exit(SpringApplication.exit(application.run(args)));
+        }
         SpringApplication.run(RuleEngineApplication.class, args);
     }
 
+    // Jackson refuses to write more than 1000 nested objects by default, which deep rules exceed. Input
+    // nesting stays limited.
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer deepRuleOutput() {
+        return builder -> builder.postConfigurer(mapper -> mapper.getFactory().setStreamWriteConstraints(
+                StreamWriteConstraints.builder().maxNestingDepth(Integer.MAX_VALUE).build()));
+    }
+
 }
@@ -0,0 +1,81 @@
+package org.example.ruleengine.batch;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The attributes read by the rules being scored, looked up by the UTF-8 bytes of a key as it appears in
+ * the input, so that keys are matched without decoding them into strings.
+ */
+final class AttributeTable {
+
+    private final String[] names;
+    private final byte[][] encoded;
+    private final int[] table;
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    AttributeTable(List<String> attributes) {
+        this.names = attributes.toArray(new String[0]);
+        this.encoded = new byte[names.length][];
+        this.table = new int[Integer.highestOneBit(Math.max(names.length, 1) * 2) * 2];
+        Arrays.fill(table, -1);
+        for (int i = 0; i < names.length; i++) {
+            indexes.put(names[i], i);
+            encoded[i] = names[i].getBytes(StandardCharsets.UTF_8);
+            int slot = hash(encoded[i], 0, encoded[i].length) & (table.length - 1);
+            while (table[slot] >= 0) {
+                slot = (slot + 1) & (table.length - 1);
+            }
+            table[slot] = i;
+        }
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    String name(int index) {
+        return names[index];
+    }
+
+    int indexOf(String name) {
+        Integer index = indexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    // Index of the attribute spelled by the bytes in [start, end), or -1 if no rule reads it
+    int indexOf(ByteBuffer buffer, int start, int end) {
+        int hash = 0x811c9dc5;
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ (buffer.get(i) & 0xff)) * 0x01000193;
+        }
+        for (int slot = hash & (table.length - 1); table[slot] >= 0; slot = (slot + 1) & (table.length - 1)) {
+            byte[] candidate = encoded[table[slot]];
+            if (candidate.length == end - start && matches(candidate, buffer, start)) {
+                return table[slot];
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matches(byte[] candidate, ByteBuffer buffer, int start) {
+        for (int i = 0; i < candidate.length; i++) {
+            if (candidate[i] != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(byte[] bytes, int start, int end) {
+        int hash = 0x811c9dc5;
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ (bytes[i] & 0xff)) * 0x01000193;
+        }
+        return hash;
+    }
+}
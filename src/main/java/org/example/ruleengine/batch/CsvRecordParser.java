@@ -0,0 +1,84 @@
+package org.example.ruleengine.batch;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses a CSV line whose columns are named by the header line. Unquoted fields that are numbers are read
+ * as numbers and anything else as strings; quoted fields are always strings, with {@code ""} for a quote.
+ * An empty field leaves the attribute missing. Fields cannot span lines.
+ */
+final class CsvRecordParser extends RecordParser {
+
+    // Attribute read from each column, or -1
+    private final int[] columnAttributes;
+
+    CsvRecordParser(AttributeTable attributes, int[] columnAttributes) {
+        super(attributes);
+        this.columnAttributes = columnAttributes;
+    }
+
+    @Override
+    String parse(ByteBuffer buffer, int start, int end, Row row) {
+        int column = 0;
+        int position = start;
+        while (true) {
+            if (column >= columnAttributes.length) {
+                return MALFORMED;
+            }
+            int attribute = columnAttributes[column];
+            int fieldEnd;
+            if (position < end && buffer.get(position) == '"') {
+                StringBuilder value = attribute < 0 ? null : new StringBuilder();
+                int i = position + 1;
+                while (true) {
+                    if (i >= end) {
+                        return MALFORMED;
+                    }
+                    byte b = buffer.get(i);
+                    if (b == '"' && i + 1 < end && buffer.get(i + 1) == '"') {
+                        i += 2;
+                        if (value != null) {
+                            value.append('"');
+                        }
+                    } else if (b == '"') {
+                        break;
+                    } else {
+                        int runEnd = i;
+                        while (runEnd < end && buffer.get(runEnd) != '"') {
+                            runEnd++;
+                        }
+                        if (value != null) {
+                            value.append(decode(buffer, i, runEnd));
+                        }
+                        i = runEnd;
+                    }
+                }
+                fieldEnd = i + 1;
+                if (fieldEnd < end && buffer.get(fieldEnd) != ',') {
+                    return MALFORMED;
+                }
+                if (value != null) {
+                    row.setString(attribute, value.toString());
+                }
+            } else {
+                fieldEnd = position;
+                while (fieldEnd < end && buffer.get(fieldEnd) != ',') {
+                    fieldEnd++;
+                }
+                if (attribute >= 0 && fieldEnd > position) {
+                    double number = parseNumber(buffer, position, fieldEnd);
+                    if (Double.isNaN(number)) {
+                        row.setString(attribute, decode(buffer, position, fieldEnd));
+                    } else {
+                        row.setNumber(attribute, number);
+                    }
+                }
+            }
+            if (fieldEnd >= end) {
+                return null;
+            }
+            position = fieldEnd + 1;
+            column++;
+        }
+    }
+}
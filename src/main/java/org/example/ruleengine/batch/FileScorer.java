@@ -0,0 +1,328 @@
+package org.example.ruleengine.batch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.example.ruleengine.engine.CompiledRule;
+import org.example.ruleengine.engine.SlotRecord;
+
+/**
+ * Scores every record of an NDJSON or CSV file against a set of compiled rules, offline.
+ * <p>
+ * The file is memory-mapped in chunks that end on record boundaries, and chunks are scored on a fixed
+ * pool of threads. Records are parsed straight from the mapped bytes into reused slot records, without
+ * building a map per record, and only values of attributes some rule reads are decoded. Results are
+ * written in input order, one line per record with {@code 1}, {@code 0} or {@code E} for each rule.
+ * At most two chunks per thread are in flight, so heap use does not grow with the size of the file.
+ */
+public class FileScorer {
+
+    public enum Format {
+        NDJSON,
+        CSV;
+
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            return name.endsWith(".csv") ? CSV : NDJSON;
+        }
+    }
+
+    private static final int BOUNDARY_SCAN_BYTES = 8192;
+
+    private final List<CompiledRule> rules;
+    private final Format format;
+    private final int threads;
+    private final int chunkBytes;
+    private final AttributeTable attributes;
+    // Attribute index read by each slot of each rule
+    private final int[][] slotAttributes;
+
+    public FileScorer(List<CompiledRule> rules, Format format, int threads, int chunkBytes) {
+        if (rules == null || rules.isEmpty()) {
+            throw new IllegalArgumentException("At least one rule must be provided for scoring");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1");
+        }
+        if (chunkBytes < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1 byte");
+        }
+        this.rules = List.copyOf(rules);
+        this.format = format;
+        this.threads = threads;
+        this.chunkBytes = chunkBytes;
+
+        Set<String> names = new LinkedHashSet<>();
+        for (CompiledRule rule : rules) {
+            names.addAll(Arrays.asList(rule.getAttributes()));
+        }
+        this.attributes = new AttributeTable(new ArrayList<>(names));
+        this.slotAttributes = new int[rules.size()][];
+        for (int i = 0; i < rules.size(); i++) {
+            String[] ruleAttributes = rules.get(i).getAttributes();
+            slotAttributes[i] = new int[ruleAttributes.length];
+            for (int slot = 0; slot < ruleAttributes.length; slot++) {
+                slotAttributes[i][slot] = attributes.indexOf(ruleAttributes[slot]);
+            }
+        }
+    }
+
+    /**
+     * Scores the input file, writing per-record results to the output channel, or only counting them when
+     * it is null.
+     */
+    public ScoreSummary score(Path input, WritableByteChannel output) throws IOException {
+        long start = System.nanoTime();
+        ScoreSummary summary = new ScoreSummary(rules);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            int[] columnAttributes = null;
+            if (format == Format.CSV) {
+                long headerEnd = nextBoundary(channel, 0, size);
+                columnAttributes = readHeader(channel, headerEnd);
+                position = headerEnd;
+            }
+            if (output != null) {
+                writeFully(output, ByteBuffer.wrap(header()));
+            }
+
+            Deque<Future<Chunk>> inFlight = new ArrayDeque<>();
+            while (position < size) {
+                long end = nextBoundary(channel, Math.min(position + chunkBytes, size) - 1, size);
+                if (end - position > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Record too long at byte " + position);
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, end - position);
+                int[] columns = columnAttributes;
+                inFlight.add(executor.submit(() -> scoreChunk(buffer, columns, output != null)));
+                if (inFlight.size() >= threads * 2) {
+                    complete(inFlight.poll(), summary, output);
+                }
+                position = end;
+            }
+            while (!inFlight.isEmpty()) {
+                complete(inFlight.poll(), summary, output);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        summary.setNanos(System.nanoTime() - start);
+        return summary;
+    }
+
+    private byte[] header() {
+        StringBuilder header = new StringBuilder();
+        for (CompiledRule rule : rules) {
+            header.append(header.length() == 0 ? "" : ",").append(rule.getRuleId());
+        }
+        return header.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private int[] readHeader(FileChannel channel, long headerEnd) throws IOException {
+        if (headerEnd > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("CSV header is too long");
+        }
+        ByteBuffer bytes = ByteBuffer.allocate((int) headerEnd);
+        while (bytes.hasRemaining() && channel.read(bytes, bytes.position()) >= 0) {
+            // read until the header is complete
+        }
+        String line = new String(bytes.array(), StandardCharsets.UTF_8).strip();
+        if (line.isEmpty()) {
+            throw new IllegalArgumentException("CSV input must start with a header line");
+        }
+        String[] columns = line.split(",", -1);
+        int[] columnAttributes = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            String column = columns[i].strip();
+            if (column.length() >= 2 && column.startsWith("\"") && column.endsWith("\"")) {
+                column = column.substring(1, column.length() - 1).replace("\"\"", "\"");
+            }
+            columnAttributes[i] = attributes.indexOf(column);
+        }
+        return columnAttributes;
+    }
+
+    // Position just past the first newline at or after from, or the end of the file
+    private static long nextBoundary(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_BYTES);
+        long position = Math.max(from, 0);
+        while (position < size) {
+            scan.clear();
+            int read = channel.read(scan, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private Chunk scoreChunk(ByteBuffer buffer, int[] columnAttributes, boolean writeResults) {
+        RecordParser parser = columnAttributes == null ? new JsonRecordParser(attributes)
+                : new CsvRecordParser(attributes, columnAttributes);
+        Row row = new Row(attributes.size());
+        SlotRecord[] records = new SlotRecord[rules.size()];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = rules.get(i).newRecord();
+        }
+        Chunk chunk = new Chunk(rules.size(), writeResults ? buffer.limit() / 4 + 64 : 0);
+
+        int limit = buffer.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            if (!isBlank(buffer, lineStart, lineEnd)) {
+                row.clear();
+                String error = parser.parse(buffer, lineStart, lineEnd, row);
+                for (int i = 0; i < records.length; i++) {
+                    String ruleError = error;
+                    boolean matched = false;
+                    if (ruleError == null) {
+                        try {
+                            row.copyTo(records[i], slotAttributes[i]);
+                            CompiledRule rule = rules.get(i);
+                            rule.check(records[i]);
+                            matched = rule.evaluate(records[i]);
+                        } catch (IllegalArgumentException e) {
+                            ruleError = e.getMessage();
+                        }
+                    }
+                    chunk.record(i, matched, ruleError);
+                }
+                chunk.endRecord();
+            }
+            lineStart = next;
+        }
+        return chunk;
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!RecordParser.isWhitespace(buffer.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void complete(Future<Chunk> future, ScoreSummary summary, WritableByteChannel output)
+            throws IOException {
+        Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scoring", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Scoring failed", e.getCause());
+        }
+        summary.add(chunk.records, chunk.matched, chunk.errors, chunk.firstErrors, chunk.firstErrorRecords);
+        if (output != null) {
+            writeFully(output, ByteBuffer.wrap(chunk.results, 0, chunk.resultsLength));
+        }
+    }
+
+    private static void writeFully(WritableByteChannel output, ByteBuffer bytes) {
+        try {
+            while (bytes.hasRemaining()) {
+                output.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Counts and result lines of one chunk, with record numbers relative to the chunk.
+     */
+    private static final class Chunk {
+
+        private long records;
+        private final long[] matched;
+        private final long[] errors;
+        private final String[] firstErrors;
+        private final long[] firstErrorRecords;
+        private byte[] results;
+        private int resultsLength;
+
+        Chunk(int rules, int expectedBytes) {
+            this.matched = new long[rules];
+            this.errors = new long[rules];
+            this.firstErrors = new String[rules];
+            this.firstErrorRecords = new long[rules];
+            this.results = expectedBytes > 0 ? new byte[expectedBytes] : null;
+        }
+
+        void record(int rule, boolean result, String error) {
+            byte outcome;
+            if (error != null) {
+                if (errors[rule]++ == 0) {
+                    firstErrors[rule] = error;
+                    firstErrorRecords[rule] = records;
+                }
+                outcome = 'E';
+            } else if (result) {
+                matched[rule]++;
+                outcome = '1';
+            } else {
+                outcome = '0';
+            }
+            if (results != null) {
+                if (rule > 0) {
+                    append((byte) ',');
+                }
+                append(outcome);
+            }
+        }
+
+        void endRecord() {
+            records++;
+            if (results != null) {
+                append((byte) '\n');
+            }
+        }
+
+        private void append(byte b) {
+            if (resultsLength == results.length) {
+                results = Arrays.copyOf(results, results.length * 2);
+            }
+            results[resultsLength++] = b;
+        }
+    }
+}
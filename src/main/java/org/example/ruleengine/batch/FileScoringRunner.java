@@ -0,0 +1,95 @@
+package org.example.ruleengine.batch;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.example.ruleengine.engine.CompiledRule;
+import org.example.ruleengine.service.RuleService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Scores a file when the application is started with {@code --score}, e.g.
+ * {@code --score --input=records.ndjson --rules=1,2 --output=results.csv}. Optional are {@code --format}
+ * (NDJSON or CSV, by default from the file extension), {@code --threads} (all cores by default) and
+ * {@code --chunk-mb} (64 by default). Without {@code --output} only the counts are reported.
+ */
+@Component
+public class FileScoringRunner implements ApplicationRunner {
+
+    public static final String SCORE_OPTION = "score";
+
+    private static final Logger logger = LoggerFactory.getLogger(FileScoringRunner.class);
+
+    private final RuleService ruleService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public FileScoringRunner(RuleService ruleService, ObjectMapper objectMapper) {
+        this.ruleService = ruleService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!args.containsOption(SCORE_OPTION)) {
+            return;
+        }
+        Path input = Path.of(requiredOption(args, "input"));
+        List<CompiledRule> rules = new ArrayList<>();
+        for (String ruleId : requiredOption(args, "rules").split(",")) {
+            try {
+                rules.add(ruleService.getCompiledRule(Long.parseLong(ruleId.trim())));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid rule ID: " + ruleId);
+            }
+        }
+        String format = option(args, "format", null);
+        FileScorer scorer = new FileScorer(rules, format == null ? FileScorer.Format.of(input)
+                : FileScorer.Format.valueOf(format.toUpperCase(Locale.ROOT)),
+                Integer.parseInt(option(args, "threads", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                Integer.parseInt(option(args, "chunk-mb", "64")) << 20);
+
+        String output = option(args, "output", null);
+        ScoreSummary summary;
+        if (output == null) {
+            summary = scorer.score(input, null);
+        } else {
+            try (FileChannel file = FileChannel.open(Path.of(output), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                    WritableByteChannel buffered = Channels.newChannel(
+                            new BufferedOutputStream(Channels.newOutputStream(file), 1 << 20))) {
+                summary = scorer.score(input, buffered);
+            }
+        }
+        logger.info("Scored {} records from {}: {}", summary.getRecords(), input,
+                objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(summary.toMap()));
+    }
+
+    private static String requiredOption(ApplicationArguments args, String name) {
+        String value = option(args, name, null);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing required option --" + name);
+        }
+        return value;
+    }
+
+    private static String option(ApplicationArguments args, String name, String defaultValue) {
+        List<String> values = args.getOptionValues(name);
+        return values == null || values.isEmpty() ? defaultValue : values.get(0);
+    }
+}
@@ -0,0 +1,197 @@
+package org.example.ruleengine.batch;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses a line holding one flat JSON object. Values of keys no rule reads are skipped, nested ones
+ * included, without being decoded. A read key must hold a string or a number, as for the REST API.
+ */
+final class JsonRecordParser extends RecordParser {
+
+    private int position;
+
+    JsonRecordParser(AttributeTable attributes) {
+        super(attributes);
+    }
+
+    @Override
+    String parse(ByteBuffer buffer, int start, int end, Row row) {
+        position = start;
+        skipWhitespace(buffer, end);
+        if (!consume(buffer, end, '{')) {
+            return MALFORMED;
+        }
+        skipWhitespace(buffer, end);
+        if (consume(buffer, end, '}')) {
+            return trailing(buffer, end, "Data map cannot be null or empty");
+        }
+        while (true) {
+            skipWhitespace(buffer, end);
+            if (position >= end || buffer.get(position) != '"') {
+                return MALFORMED;
+            }
+            int keyStart = position + 1;
+            int keyEnd = skipString(buffer, end);
+            if (keyEnd < 0) {
+                return MALFORMED;
+            }
+            int attribute = hasEscape(buffer, keyStart, keyEnd)
+                    ? attributes.indexOf(unescape(buffer, keyStart, keyEnd))
+                    : attributes.indexOf(buffer, keyStart, keyEnd);
+            skipWhitespace(buffer, end);
+            if (!consume(buffer, end, ':')) {
+                return MALFORMED;
+            }
+            skipWhitespace(buffer, end);
+            if (position >= end) {
+                return MALFORMED;
+            }
+            String error = attribute < 0 ? skipValue(buffer, end) : readValue(buffer, end, row, attribute);
+            if (error != null) {
+                return error;
+            }
+            skipWhitespace(buffer, end);
+            if (consume(buffer, end, '}')) {
+                return trailing(buffer, end, null);
+            }
+            if (!consume(buffer, end, ',')) {
+                return MALFORMED;
+            }
+        }
+    }
+
+    private String readValue(ByteBuffer buffer, int end, Row row, int attribute) {
+        byte first = buffer.get(position);
+        if (first == '"') {
+            int valueStart = position + 1;
+            int valueEnd = skipString(buffer, end);
+            if (valueEnd < 0) {
+                return MALFORMED;
+            }
+            row.setString(attribute, hasEscape(buffer, valueStart, valueEnd)
+                    ? unescape(buffer, valueStart, valueEnd) : decode(buffer, valueStart, valueEnd));
+            return null;
+        }
+        if (first == '-' || (first >= '0' && first <= '9')) {
+            int valueStart = position;
+            while (position < end && isNumberByte(buffer.get(position))) {
+                position++;
+            }
+            double value = parseNumber(buffer, valueStart, position);
+            if (Double.isNaN(value)) {
+                return MALFORMED;
+            }
+            row.setNumber(attribute, value);
+            return null;
+        }
+        String error = skipValue(buffer, end);
+        if (error != null) {
+            return error;
+        }
+        return first == 'n' ? "Data value cannot be null for key: " + attributes.name(attribute)
+                : "Data value must be a String or Number for key: " + attributes.name(attribute);
+    }
+
+    // Skips any value, counting brackets outside strings to get past nested objects and arrays
+    private String skipValue(ByteBuffer buffer, int end) {
+        int depth = 0;
+        while (position < end) {
+            byte b = buffer.get(position);
+            if (b == '"') {
+                if (skipString(buffer, end) < 0) {
+                    return MALFORMED;
+                }
+                if (depth == 0) {
+                    return null;
+                }
+                continue;
+            }
+            if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                if (depth == 0) {
+                    return null;
+                }
+                depth--;
+            } else if (b == ',' && depth == 0) {
+                return null;
+            }
+            position++;
+        }
+        return depth == 0 ? null : MALFORMED;
+    }
+
+    // Moves past the string opening at the current position and returns where its content ends, or -1
+    private int skipString(ByteBuffer buffer, int end) {
+        for (int i = position + 1; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '\\') {
+                i++;
+            } else if (b == '"') {
+                position = i + 1;
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean hasEscape(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String unescape(ByteBuffer buffer, int start, int end) {
+        String raw = decode(buffer, start, end);
+        StringBuilder value = new StringBuilder(raw.length());
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c != '\\' || i + 1 == raw.length()) {
+                value.append(c);
+                continue;
+            }
+            char escaped = raw.charAt(++i);
+            switch (escaped) {
+                case 'b': value.append('\b'); break;
+                case 'f': value.append('\f'); break;
+                case 'n': value.append('\n'); break;
+                case 'r': value.append('\r'); break;
+                case 't': value.append('\t'); break;
+                case 'u':
+                    if (i + 4 < raw.length()) {
+                        value.append((char) Integer.parseInt(raw.substring(i + 1, i + 5), 16));
+                        i += 4;
+                    }
+                    break;
+                default: value.append(escaped);
+            }
+        }
+        return value.toString();
+    }
+
+    private String trailing(ByteBuffer buffer, int end, String error) {
+        skipWhitespace(buffer, end);
+        return position == end ? error : MALFORMED;
+    }
+
+    private boolean consume(ByteBuffer buffer, int end, char expected) {
+        if (position < end && buffer.get(position) == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace(ByteBuffer buffer, int end) {
+        while (position < end && isWhitespace(buffer.get(position))) {
+            position++;
+        }
+    }
+
+    private static boolean isNumberByte(byte b) {
+        return (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E';
+    }
+}
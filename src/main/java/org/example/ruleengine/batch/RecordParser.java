@@ -0,0 +1,77 @@
+package org.example.ruleengine.batch;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads one record from a line of input straight into a {@link Row}, decoding only the values of
+ * attributes some rule reads. Not thread-safe; each worker uses its own.
+ */
+abstract class RecordParser {
+
+    static final String MALFORMED = "Malformed record";
+
+    protected final AttributeTable attributes;
+    private byte[] scratch = new byte[64];
+
+    RecordParser(AttributeTable attributes) {
+        this.attributes = attributes;
+    }
+
+    /**
+     * Parses the line in [start, end) and returns null, or the error that rejects the whole record.
+     */
+    abstract String parse(ByteBuffer buffer, int start, int end, Row row);
+
+    protected final String decode(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a number spanning exactly [start, end), or returns NaN if it is not one. Integers of up to
+     * 18 digits are converted without going through a string.
+     */
+    protected final double parseNumber(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        boolean negative = i < end && buffer.get(i) == '-';
+        if (negative) {
+            i++;
+        }
+        if (i == end || end - i > 18) {
+            return parseDecimal(buffer, start, end);
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return parseDecimal(buffer, start, end);
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private double parseDecimal(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            // Double.parseDouble also takes forms like "NaN", "0x1p3" or "1d" that are not numbers here
+            if (!(b >= '0' && b <= '9' || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E')) {
+                return Double.NaN;
+            }
+        }
+        try {
+            return Double.parseDouble(decode(buffer, start, end));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.ruleengine.batch;
+
+import java.util.Arrays;
+
+import org.example.ruleengine.engine.SlotRecord;
+
+/**
+ * The values of one input record for the attributes being read, reused from record to record.
+ */
+final class Row {
+
+    private static final byte MISSING = 0;
+    private static final byte NUMBER = 1;
+    private static final byte STRING = 2;
+
+    private final double[] numbers;
+    private final String[] strings;
+    private final byte[] kinds;
+
+    Row(int size) {
+        this.numbers = new double[size];
+        this.strings = new String[size];
+        this.kinds = new byte[size];
+    }
+
+    void clear() {
+        Arrays.fill(kinds, MISSING);
+    }
+
+    void setNumber(int attribute, double value) {
+        numbers[attribute] = value;
+        kinds[attribute] = NUMBER;
+    }
+
+    void setString(int attribute, String value) {
+        strings[attribute] = value;
+        kinds[attribute] = STRING;
+    }
+
+    // Copies into a rule's record, whose slot i reads attribute slotAttributes[i]
+    void copyTo(SlotRecord record, int[] slotAttributes) {
+        for (int slot = 0; slot < slotAttributes.length; slot++) {
+            int attribute = slotAttributes[slot];
+            if (kinds[attribute] == NUMBER) {
+                record.setNumber(slot, numbers[attribute]);
+            } else if (kinds[attribute] == STRING) {
+                record.setString(slot, strings[attribute]);
+            } else {
+                record.set(slot, null);
+            }
+        }
+    }
+}
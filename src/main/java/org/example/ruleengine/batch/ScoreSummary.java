@@ -0,0 +1,91 @@
+package org.example.ruleengine.batch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.example.ruleengine.engine.CompiledRule;
+
+/**
+ * Totals of a file scoring run, per rule. Record numbers count scored records from zero, skipping blank
+ * lines and the CSV header.
+ */
+public class ScoreSummary {
+
+    private final List<Long> ruleIds = new ArrayList<>();
+    private final long[] matched;
+    private final long[] errors;
+    private final String[] firstErrors;
+    private long records;
+    private long nanos;
+
+    ScoreSummary(List<CompiledRule> rules) {
+        for (CompiledRule rule : rules) {
+            ruleIds.add(rule.getRuleId());
+        }
+        this.matched = new long[rules.size()];
+        this.errors = new long[rules.size()];
+        this.firstErrors = new String[rules.size()];
+    }
+
+    void add(long chunkRecords, long[] chunkMatched, long[] chunkErrors, String[] chunkFirstErrors,
+            long[] chunkFirstErrorRecords) {
+        for (int i = 0; i < matched.length; i++) {
+            matched[i] += chunkMatched[i];
+            if (firstErrors[i] == null && chunkFirstErrors[i] != null) {
+                firstErrors[i] = "Record " + (records + chunkFirstErrorRecords[i]) + ": " + chunkFirstErrors[i];
+            }
+            errors[i] += chunkErrors[i];
+        }
+        records += chunkRecords;
+    }
+
+    void setNanos(long nanos) {
+        this.nanos = nanos;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public long getMatched(int rule) {
+        return matched[rule];
+    }
+
+    public long getErrors(int rule) {
+        return errors[rule];
+    }
+
+    public String getFirstError(int rule) {
+        return firstErrors[rule];
+    }
+
+    public double getSeconds() {
+        return nanos / 1e9;
+    }
+
+    public double getRecordsPerSecond() {
+        return nanos == 0 ? 0.0 : records * 1e9 / nanos;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("records", records);
+        summary.put("seconds", getSeconds());
+        summary.put("recordsPerSecond", getRecordsPerSecond());
+        List<Map<String, Object>> rules = new ArrayList<>();
+        for (int i = 0; i < ruleIds.size(); i++) {
+            Map<String, Object> rule = new LinkedHashMap<>();
+            rule.put("ruleId", ruleIds.get(i));
+            rule.put("matched", matched[i]);
+            rule.put("errors", errors[i]);
+            if (firstErrors[i] != null) {
+                rule.put("firstError", firstErrors[i]);
+            }
+            rules.add(rule);
+        }
+        summary.put("rules", rules);
+        return summary;
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.ruleengine.controller;
+
+import org.example.ruleengine.engine.AttributeType;
+import org.example.ruleengine.service.RuleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/attributes")
+@CrossOrigin(origins = "http://localhost:8080")
+public class AttributeController {
+
+    @Autowired
+    private RuleService ruleService;
+
+    @GetMapping
+    public ResponseEntity<?> getAttributes() {
+        return ResponseEntity.ok(ruleService.getAttributes());
+    }
+
+    @PutMapping("/{name}")
+    public ResponseEntity<?> declareAttributeType(@PathVariable String name, @RequestParam String type) {
+        AttributeType attributeType;
+        try {
+            attributeType = AttributeType.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid attribute type: " + type);
+        }
+        try {
+            return ResponseEntity.ok(ruleService.declareAttributeType(name, attributeType));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
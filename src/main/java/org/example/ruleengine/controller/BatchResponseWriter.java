@@ -0,0 +1,79 @@
+package org.example.ruleengine.controller;
+
+import java.io.IOException;
+import java.util.BitSet;
+
+import org.example.ruleengine.service.BatchResult;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes batch evaluation results either as NDJSON (one {@code true}/{@code false} or error object per
+ * record) or as a single JSON object holding a base64 bitmap of matches, bit {@code i} being record {@code i}.
+ */
+class BatchResponseWriter {
+
+    private final JsonGenerator generator;
+    private final boolean bitmapFormat;
+    private final BitSet bitmap = new BitSet();
+    private int count;
+    private int matched;
+
+    BatchResponseWriter(JsonGenerator generator, boolean bitmapFormat) throws IOException {
+        this.generator = generator;
+        this.bitmapFormat = bitmapFormat;
+        generator.setRootValueSeparator(null);
+        if (bitmapFormat) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("errors");
+        }
+    }
+
+    void write(BatchResult result) throws IOException {
+        for (int i = 0; i < result.size(); i++) {
+            String error = result.getError(i);
+            if (error != null) {
+                writeError(count + i, error);
+            } else {
+                if (result.isMatch(i)) {
+                    matched++;
+                }
+                if (!bitmapFormat) {
+                    generator.writeBoolean(result.isMatch(i));
+                    generator.writeRaw('\n');
+                }
+            }
+        }
+        if (bitmapFormat) {
+            result.copyMatchesTo(bitmap, count);
+        }
+        count += result.size();
+        generator.flush();
+    }
+
+    void writeError(int index, String message) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("index", index);
+        generator.writeStringField("error", message);
+        generator.writeEndObject();
+        if (!bitmapFormat) {
+            generator.writeRaw('\n');
+        }
+    }
+
+    void finish() throws IOException {
+        if (bitmapFormat) {
+            generator.writeEndArray();
+            generator.writeNumberField("count", count);
+            generator.writeNumberField("matched", matched);
+            generator.writeFieldName("bitmap");
+            generator.writeBinary(bitmap.toByteArray());
+            generator.writeEndObject();
+        }
+        generator.flush();
+    }
+
+    int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.ruleengine.controller;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.example.ruleengine.engine.Column;
+import org.example.ruleengine.engine.ColumnBatch;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads a columnar batch, {@code {"age": [35, 40, null], "department": ["Sales", "HR", "Sales"]}}, straight
+ * into columns without materializing a JSON tree. A {@code null} element means the attribute is missing
+ * from that row.
+ */
+class ColumnBatchReader {
+
+    private ColumnBatchReader() {
+    }
+
+    static ColumnBatch read(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Expected an object of columns");
+        }
+        Map<String, Column> columns = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String attribute = parser.currentName();
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Column " + attribute + " must be an array");
+            }
+            Column.Builder builder = Column.builder();
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                    builder.addNumber(parser.getDoubleValue());
+                } else if (token == JsonToken.VALUE_STRING) {
+                    builder.addString(parser.getText());
+                } else if (token == JsonToken.VALUE_NULL) {
+                    builder.addMissing();
+                } else {
+                    parser.skipChildren();
+                    builder.addUnsupported();
+                }
+            }
+            columns.put(attribute, builder.build());
+        }
+        int size = columns.isEmpty() ? 0 : columns.values().iterator().next().size();
+        ColumnBatch batch = new ColumnBatch(size);
+        columns.forEach(batch::add);
+        return batch;
+    }
+}
@@ -1,23 +1,68 @@
 package org.example.ruleengine.controller;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
+import org.example.ruleengine.engine.ColumnBatch;
+import org.example.ruleengine.engine.ColumnarResult;
+import org.example.ruleengine.engine.CompiledRule;
+import org.example.ruleengine.engine.RuleTrace;
 import org.example.ruleengine.model.Node;
 import org.example.ruleengine.model.Rule;
+import org.example.ruleengine.service.AdaptiveReorderer;
+import org.example.ruleengine.service.EvaluationExecutor;
+import org.example.ruleengine.service.EvaluationExecutor.Lane;
+import org.example.ruleengine.service.ImportResult;
+import org.example.ruleengine.service.MatchResult;
 import org.example.ruleengine.service.RuleService;
+import org.example.ruleengine.service.RuleSetSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 @RestController
 @RequestMapping("/api/rules")
 @CrossOrigin(origins = "http://localhost:8080")
@@ -26,8 +71,23 @@ public class RuleController {
     @Autowired
     private RuleService ruleService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EvaluationExecutor evaluationExecutor;
+
     private static final Logger logger = LoggerFactory.getLogger(RuleController.class);
 
+    private static final int BATCH_CHUNK_SIZE = 1024;
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+    private static final TypeReference<Map<String, Object>> RECORD_TYPE = new TypeReference<>() {};
+    // Version of the rule set snapshot an evaluation or match was served from
+    private static final String SNAPSHOT_VERSION_HEADER = "X-Rule-Set-Version";
+    private static final String SMILE_MEDIA_TYPE = "application/x-jackson-smile";
+    private static final JsonFactory CBOR_FACTORY = new CBORFactory();
+    private static final JsonFactory SMILE_FACTORY = new SmileFactory();
+
     @PostMapping
     public ResponseEntity<?> createRule(@RequestBody Map<String, Object> ruleData) {
         try {
@@ -57,6 +117,8 @@ public class RuleController {
             
             Rule createdRule = ruleService.createRule(rule);
             return ResponseEntity.ok(createdRule);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             logger.error("Error creating rule", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -64,19 +126,67 @@ public class RuleController {
         }
     }
 
-    private Node createNodeFromMap(Map<String, Object> nodeMap) {
-        Node node = new Node();
-        node.setType((String) nodeMap.get("type"));
-        node.setNodeValue((String) nodeMap.get("nodeValue"));
-        
-        if (nodeMap.containsKey("left")) {
-            node.setLeft(createNodeFromMap((Map<String, Object>) nodeMap.get("left")));
+    private Node createNodeFromMap(Map<String, Object> rootMap) {
+        Node rootNode = new Node();
+        Deque<Map<String, Object>> maps = new ArrayDeque<>();
+        Deque<Node> nodes = new ArrayDeque<>();
+        maps.push(rootMap);
+        nodes.push(rootNode);
+        while (!maps.isEmpty()) {
+            Map<String, Object> nodeMap = maps.pop();
+            Node node = nodes.pop();
+            node.setType((String) nodeMap.get("type"));
+            node.setNodeValue((String) nodeMap.get("nodeValue"));
+            if (node.getNodeValue() == null && nodeMap.get("values") instanceof List) {
+                node.setNodeValue(valueListCondition(nodeMap));
+            }
+
+            if (nodeMap.get("left") != null) {
+                node.setLeft(new Node());
+                maps.push((Map<String, Object>) nodeMap.get("left"));
+                nodes.push(node.getLeft());
+            }
+            if (nodeMap.get("right") != null) {
+                node.setRight(new Node());
+                maps.push((Map<String, Object>) nodeMap.get("right"));
+                nodes.push(node.getRight());
+            }
+        }
+        return rootNode;
+    }
+
+    // {"type": "condition", "attribute": "country", "operator": "IN", "values": ["US", "CA"]} is accepted
+    // as a shorthand for the nodeValue "country IN ('US', 'CA')"
+    private String valueListCondition(Map<String, Object> nodeMap) {
+        Object attribute = nodeMap.get("attribute");
+        Object operator = nodeMap.getOrDefault("operator", "IN");
+        if (!(attribute instanceof String) || !(operator instanceof String)) {
+            throw new IllegalArgumentException("A value list condition needs an attribute and operator as strings");
+        }
+        StringBuilder condition = new StringBuilder().append(attribute).append(' ').append(operator).append(" (");
+        List<?> values = (List<?>) nodeMap.get("values");
+        for (int i = 0; i < values.size(); i++) {
+            condition.append(i == 0 ? "" : ", ").append(listLiteral(values.get(i)));
+        }
+        return condition.append(')').toString();
+    }
+
+    // Literals cannot escape quotes, so a string is quoted with the quote it does not contain
+    private static String listLiteral(Object value) {
+        if (value instanceof Number) {
+            return value.toString();
+        }
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("List values must be strings or numbers: " + value);
+        }
+        String text = (String) value;
+        if (text.indexOf('\'') < 0) {
+            return "'" + text + "'";
         }
-        if (nodeMap.containsKey("right")) {
-            node.setRight(createNodeFromMap((Map<String, Object>) nodeMap.get("right")));
+        if (text.indexOf('"') < 0) {
+            return '"' + text + '"';
         }
-        
-        return node;
+        throw new IllegalArgumentException("List value cannot contain both kinds of quote: " + text);
     }
 
     @PostMapping("/combine")
@@ -92,15 +202,449 @@ public class RuleController {
         }
     }
 
-    @PostMapping("/{ruleId}/evaluate")
-public ResponseEntity<?> evaluateRule(@PathVariable Long ruleId, @RequestBody Map<String, Object> data) {
-    try {
-        boolean result = ruleService.evaluateRule(ruleId, data);
-        return ResponseEntity.ok(result);
-    } catch (IllegalArgumentException e) {
-        return ResponseEntity.badRequest().body(e.getMessage());
-    } catch (RuntimeException e) {
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Rule not found with ID: " + ruleId);
+    /**
+     * Evaluates a rule on a JSON, CBOR or Smile data object. The body is read before the evaluation is
+     * queued and then decoded straight into the rule's slot record; only explain mode builds it as a map.
+     */
+    @PostMapping(path = "/{ruleId}/evaluate", consumes = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, SMILE_MEDIA_TYPE})
+    public CompletableFuture<ResponseEntity<?>> evaluateRule(@PathVariable Long ruleId,
+            @RequestParam(defaultValue = "false") boolean explain,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, @RequestBody byte[] body) {
+        return admit(Lane.SINGLE, () -> evaluate(ruleId, explain, contentType, body));
+    }
+
+    private ResponseEntity<?> evaluate(Long ruleId, boolean explain, String contentType, byte[] body)
+            throws IOException {
+        try (JsonParser parser = createParser(contentType, body)) {
+            RuleSetSnapshot snapshot = ruleService.getSnapshot();
+            if (explain) {
+                Map<String, Object> data = objectMapper.readValue(parser, RECORD_TYPE);
+                RuleTrace trace = ruleService.explainRule(snapshot, ruleId, data);
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("result", trace.getResult());
+                response.put("trace", trace.describe());
+                return ResponseEntity.ok()
+                        .header(SNAPSHOT_VERSION_HEADER, Long.toString(snapshot.getVersion()))
+                        .body(response);
+            }
+            boolean result = ruleService.evaluateRule(snapshot, ruleId,
+                    (rule, record) -> SlotRecordReader.read(parser, rule, record));
+            return ResponseEntity.ok()
+                    .header(SNAPSHOT_VERSION_HEADER, Long.toString(snapshot.getVersion()))
+                    .body(result);
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().body("Malformed data: " + e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Rule not found with ID: " + ruleId);
+        }
+    }
+
+    private JsonParser createParser(String contentType, byte[] body) throws IOException {
+        JsonFactory factory = objectMapper.getFactory();
+        if (contentType != null) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            if (MediaType.APPLICATION_CBOR.isCompatibleWith(mediaType)) {
+                factory = CBOR_FACTORY;
+            } else if (MediaType.parseMediaType(SMILE_MEDIA_TYPE).isCompatibleWith(mediaType)) {
+                factory = SMILE_FACTORY;
+            }
+        }
+        return factory.createParser(body);
+    }
+
+    // Evaluation requests run on the executor's lanes, which reject them when full and expire them at
+    // their deadline. Handlers given to admit must not touch the request or response, since they may
+    // still be running when the request is answered; streaming handlers own both and stop by themselves
+    private CompletableFuture<ResponseEntity<?>> admit(Lane lane, Callable<ResponseEntity<?>> handler) {
+        return evaluationExecutor.submit(lane, handler).exceptionally(RuleController::overloaded);
+    }
+
+    private CompletableFuture<ResponseEntity<?>> admitStreaming(Lane lane,
+            EvaluationExecutor.StreamingTask<ResponseEntity<?>> handler) {
+        return evaluationExecutor.submitStreaming(lane, handler).exceptionally(RuleController::overloaded);
+    }
+
+    private static ResponseEntity<?> overloaded(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(cause.getMessage());
+        }
+        if (cause instanceof TimeoutException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(cause.getMessage());
+        }
+        throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+    }
+
+    private static boolean expired(long deadline) {
+        return System.nanoTime() - deadline > 0;
+    }
+
+    @PostMapping("/match")
+    public CompletableFuture<ResponseEntity<?>> matchRules(@RequestBody Map<String, Object> data) {
+        return admit(Lane.SINGLE, () -> {
+            try {
+                MatchResult result = ruleService.matchRules(data);
+                return ResponseEntity.ok()
+                        .header(SNAPSHOT_VERSION_HEADER, Long.toString(result.getSnapshotVersion()))
+                        .body(result.getRuleIds());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
+    }
+
+    @GetMapping("/match/stats")
+    public ResponseEntity<?> getMatcherStats() {
+        return ResponseEntity.ok(ruleService.getMatcherStats());
+    }
+
+    @GetMapping("/{ruleId}/stats")
+    public ResponseEntity<?> getRuleStats(@PathVariable Long ruleId) {
+        try {
+            return ResponseEntity.ok(ruleService.getRuleStats(ruleId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Rule not found with ID: " + ruleId);
+        }
+    }
+
+    @PutMapping("/{ruleId}/reordering")
+    public ResponseEntity<?> setReorderingMode(@PathVariable Long ruleId, @RequestParam String mode) {
+        AdaptiveReorderer.Mode reorderingMode;
+        try {
+            reorderingMode = AdaptiveReorderer.Mode.valueOf(mode.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid reordering mode: " + mode);
+        }
+        try {
+            ruleService.setReorderingMode(ruleId, reorderingMode);
+            return ResponseEntity.ok(ruleService.getRuleStats(ruleId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Rule not found with ID: " + ruleId);
+        }
+    }
+
+    @PutMapping("/{ruleId}/result-cache")
+    public ResponseEntity<?> setResultCaching(@PathVariable Long ruleId, @RequestParam boolean enabled) {
+        try {
+            ruleService.setResultCaching(ruleId, enabled);
+            return ResponseEntity.ok(ruleService.getRuleStats(ruleId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Rule not found with ID: " + ruleId);
+        }
+    }
+
+    @GetMapping("/{ruleId}/traces")
+    public ResponseEntity<?> getSampledTraces(@PathVariable Long ruleId) {
+        try {
+            return ResponseEntity.ok(ruleService.getSampledTraces(ruleId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Rule not found with ID: " + ruleId);
+        }
+    }
+
+    @PostMapping("/{ruleId}/sessions")
+    public CompletableFuture<ResponseEntity<?>> openSession(@PathVariable Long ruleId,
+            @RequestBody(required = false) Map<String, Object> data) {
+        return admit(Lane.SINGLE, () -> {
+            try {
+                return ResponseEntity.status(HttpStatus.CREATED).body(ruleService.openSession(ruleId, data));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Rule not found with ID: " + ruleId);
+            }
+        });
+    }
+
+    @PatchMapping("/sessions/{sessionId}")
+    public CompletableFuture<ResponseEntity<?>> updateSession(@PathVariable long sessionId,
+            @RequestBody Map<String, Object> data) {
+        return admit(Lane.SINGLE, () -> {
+            try {
+                return ResponseEntity.ok(ruleService.updateSession(sessionId, data));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Session not found with ID: " + sessionId);
+            }
+        });
+    }
+
+    @GetMapping("/sessions/{sessionId}")
+    public ResponseEntity<?> getSession(@PathVariable long sessionId) {
+        try {
+            return ResponseEntity.ok(ruleService.describeSession(sessionId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Session not found with ID: " + sessionId);
+        }
+    }
+
+    @DeleteMapping("/sessions/{sessionId}")
+    public ResponseEntity<?> closeSession(@PathVariable long sessionId) {
+        try {
+            ruleService.closeSession(sessionId);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Session not found with ID: " + sessionId);
+        }
+    }
+
+    @GetMapping("/sessions/stats")
+    public ResponseEntity<?> getSessionStats() {
+        return ResponseEntity.ok(ruleService.getSessionStats());
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getCacheStats() {
+        return ResponseEntity.ok(ruleService.getCacheStats());
+    }
+
+    @GetMapping("/parse-cache/stats")
+    public ResponseEntity<?> getParseCacheStats() {
+        return ResponseEntity.ok(ruleService.getParseCacheStats());
+    }
+
+    @GetMapping("/result-cache/stats")
+    public ResponseEntity<?> getResultCacheStats() {
+        return ResponseEntity.ok(ruleService.getResultCacheStats());
+    }
+
+    @GetMapping("/snapshot/stats")
+    public ResponseEntity<?> getSnapshotStats() {
+        return ResponseEntity.ok(ruleService.getSnapshotStats());
+    }
+
+    @GetMapping("/phases/stats")
+    public ResponseEntity<?> getPhaseStats() {
+        return ResponseEntity.ok(ruleService.getPhaseStats());
+    }
+
+    @GetMapping("/executor/stats")
+    public ResponseEntity<?> getExecutorStats() {
+        return ResponseEntity.ok(evaluationExecutor.getStats());
+    }
+
+    /**
+     * Evaluates a rule on a stream of records on the bulk lane, streaming results back as they are
+     * computed. Records read past the lane's deadline are not evaluated; an error at the first of them
+     * ends the results.
+     */
+    @PostMapping("/{ruleId}/evaluate/batch")
+    public CompletableFuture<ResponseEntity<?>> evaluateBatch(@PathVariable Long ruleId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean parallel,
+            HttpServletRequest request, HttpServletResponse response) {
+        if (!format.equals("ndjson") && !format.equals("bitmap")) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body("Unsupported result format: " + format));
+        }
+        return admitStreaming(Lane.BULK, deadline -> {
+            RuleSetSnapshot snapshot = ruleService.getSnapshot();
+            CompiledRule rule;
+            try {
+                rule = ruleService.getCompiledRule(snapshot, ruleId);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Rule not found with ID: " + ruleId);
+            }
+
+            boolean bitmapFormat = format.equals("bitmap");
+            response.setHeader(SNAPSHOT_VERSION_HEADER, Long.toString(snapshot.getVersion()));
+            response.setContentType(bitmapFormat ? MediaType.APPLICATION_JSON_VALUE : MediaType.APPLICATION_NDJSON_VALUE);
+            // Accepts both a JSON array and a newline-delimited stream of record objects
+            try (MappingIterator<Map<String, Object>> records = objectMapper.readerFor(RECORD_TYPE)
+                    .readValues(request.getInputStream());
+                    JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+                BatchResponseWriter writer = new BatchResponseWriter(generator, bitmapFormat);
+                List<Map<String, Object>> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+                try {
+                    while (records.hasNextValue()) {
+                        if (expired(deadline)) {
+                            chunk.clear();
+                            writer.writeError(writer.getCount(), "Evaluation deadline exceeded");
+                            break;
+                        }
+                        chunk.add(records.nextValue());
+                        if (chunk.size() == BATCH_CHUNK_SIZE && !evaluateChunk(writer, rule, chunk, parallel)) {
+                            break;
+                        }
+                    }
+                } catch (JsonProcessingException e) {
+                    if (evaluateChunk(writer, rule, chunk, parallel)) {
+                        writer.writeError(writer.getCount(), "Malformed record: " + e.getOriginalMessage());
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    evaluateChunk(writer, rule, chunk, parallel);
+                }
+                writer.finish();
+            }
+            return null;
+        });
+    }
+
+    // Writes the results of a chunk, or ends the results at its first record if the deadline passes
+    // while it is evaluated
+    private boolean evaluateChunk(BatchResponseWriter writer, CompiledRule rule, List<Map<String, Object>> chunk,
+            boolean parallel) throws IOException {
+        try {
+            writer.write(ruleService.evaluateBatch(rule, chunk, parallel));
+            return true;
+        } catch (CancellationException e) {
+            writer.writeError(writer.getCount(), "Evaluation deadline exceeded");
+            return false;
+        } finally {
+            chunk.clear();
+        }
+    }
+
+    /**
+     * Imports NDJSON rule definitions, one {@code {"name": ..., "expression": ...}} object per line, and
+     * streams back one {@code {"line": n, "id": ...}} or {@code {"line": n, "error": ...}} per definition.
+     */
+    @PostMapping("/import")
+    public CompletableFuture<ResponseEntity<?>> importRules(HttpServletRequest request, HttpServletResponse response) {
+        return admitStreaming(Lane.BULK, deadline -> {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+                    JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+                generator.setRootValueSeparator(null);
+                List<Map<String, Object>> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+                // Every non-blank line of the chunk, with its parse error if it has one, so results keep line order
+                List<Integer> lineNumbers = new ArrayList<>(IMPORT_CHUNK_SIZE);
+                List<String> parseErrors = new ArrayList<>(IMPORT_CHUNK_SIZE);
+                int lineNumber = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (expired(deadline)) {
+                        // Definitions from this line on, or from the first one still pending, are not imported
+                        writeImportLine(generator, lineNumbers.isEmpty() ? lineNumber : lineNumbers.get(0), null,
+                                "Import deadline exceeded");
+                        lineNumbers.clear();
+                        break;
+                    }
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    lineNumbers.add(lineNumber);
+                    try {
+                        chunk.add(objectMapper.readValue(line, RECORD_TYPE));
+                        parseErrors.add(null);
+                    } catch (JsonProcessingException e) {
+                        parseErrors.add("Malformed rule definition: " + e.getOriginalMessage());
+                    }
+                    if (lineNumbers.size() == IMPORT_CHUNK_SIZE
+                            && !importChunk(generator, chunk, lineNumbers, parseErrors)) {
+                        break;
+                    }
+                }
+                if (!lineNumbers.isEmpty()) {
+                    importChunk(generator, chunk, lineNumbers, parseErrors);
+                }
+            }
+            return null;
+        });
+    }
+
+    // Imports a chunk and writes its results, or ends them at its first line if the deadline passes while
+    // the chunk is imported, which rolls it back
+    private boolean importChunk(JsonGenerator generator, List<Map<String, Object>> chunk, List<Integer> lineNumbers,
+            List<String> parseErrors) throws IOException {
+        ImportResult result;
+        try {
+            result = chunk.isEmpty() ? null : ruleService.importRules(chunk);
+        } catch (CancellationException e) {
+            writeImportLine(generator, lineNumbers.get(0), null, "Import deadline exceeded");
+            chunk.clear();
+            lineNumbers.clear();
+            parseErrors.clear();
+            return false;
+        }
+        int imported = 0;
+        for (int i = 0; i < lineNumbers.size(); i++) {
+            if (parseErrors.get(i) != null) {
+                writeImportLine(generator, lineNumbers.get(i), null, parseErrors.get(i));
+            } else {
+                writeImportLine(generator, lineNumbers.get(i), result.getId(imported), result.getError(imported));
+                imported++;
+            }
+        }
+        generator.flush();
+        chunk.clear();
+        lineNumbers.clear();
+        parseErrors.clear();
+        return true;
+    }
+
+    private static void writeImportLine(JsonGenerator generator, int lineNumber, Long id, String error)
+            throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("line", lineNumber);
+        if (error != null) {
+            generator.writeStringField("error", error);
+        } else {
+            generator.writeNumberField("id", id);
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @PostMapping("/{ruleId}/evaluate/columns")
+    public CompletableFuture<ResponseEntity<?>> evaluateColumns(@PathVariable Long ruleId, @RequestBody byte[] body) {
+        return admit(Lane.BULK, () -> evaluateColumnBatch(ruleId, body));
+    }
+
+    private ResponseEntity<?> evaluateColumnBatch(Long ruleId, byte[] body) throws IOException {
+        RuleSetSnapshot snapshot = ruleService.getSnapshot();
+        CompiledRule rule;
+        try {
+            rule = ruleService.getCompiledRule(snapshot, ruleId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Rule not found with ID: " + ruleId);
+        }
+
+        ColumnBatch batch;
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            batch = ColumnBatchReader.read(parser);
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().body("Malformed columns: " + e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        ColumnarResult result = ruleService.evaluateColumns(rule, batch);
+        List<Map<String, Object>> errors = new ArrayList<>();
+        result.getErrors().forEach((index, error) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("index", index);
+            entry.put("error", error);
+            errors.add(entry);
+        });
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("errors", errors);
+        response.put("count", result.size());
+        response.put("matched", result.getMatchCount());
+        response.put("bitmap", result.getMatches().toByteArray());
+        return ResponseEntity.ok()
+                .header(SNAPSHOT_VERSION_HEADER, Long.toString(snapshot.getVersion()))
+                .body(response);
     }
-}
 }
@@ -0,0 +1,59 @@
+package org.example.ruleengine.controller;
+
+import java.io.IOException;
+
+import org.example.ruleengine.engine.CompiledRule;
+import org.example.ruleengine.engine.SlotRecord;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads an evaluation request's data object from the token stream straight into a rule's slot record,
+ * without building a map. Values of attributes the rule does not read are checked but never decoded,
+ * and numbers are read unboxed. Data is rejected with the same messages as a data map would be.
+ */
+class SlotRecordReader {
+
+    private SlotRecordReader() {
+    }
+
+    static void read(JsonParser parser, CompiledRule rule, SlotRecord record) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null || token == JsonToken.VALUE_NULL) {
+            throw new IllegalArgumentException("Data map cannot be null or empty");
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Data must be a JSON object");
+        }
+        record.clear();
+        boolean empty = true;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            empty = false;
+            // Field names come from the parser's symbol table, so known keys are not allocated again
+            String key = parser.currentName();
+            if (key.isBlank()) {
+                throw new IllegalArgumentException("Data key cannot be null or empty");
+            }
+            int slot = rule.slotOf(key);
+            token = parser.nextToken();
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                if (slot >= 0) {
+                    record.setNumber(slot, parser.getDoubleValue());
+                }
+            } else if (token == JsonToken.VALUE_STRING) {
+                if (slot >= 0) {
+                    record.setString(slot, parser.getText());
+                }
+            } else if (token == JsonToken.VALUE_NULL) {
+                throw new IllegalArgumentException("Data value cannot be null for key: " + key);
+            } else {
+                throw new IllegalArgumentException("Data value must be a String or Number for key: " + key);
+            }
+        }
+        if (empty) {
+            throw new IllegalArgumentException("Data map cannot be null or empty");
+        }
+        rule.check(record);
+    }
+}
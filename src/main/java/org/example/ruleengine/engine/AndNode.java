@@ -0,0 +1,24 @@
+package org.example.ruleengine.engine;
+
+public final class AndNode implements CompiledNode {
+
+    private final CompiledNode[] children;
+
+    public AndNode(CompiledNode... children) {
+        this.children = children.clone();
+    }
+
+    public CompiledNode[] getChildren() {
+        return children.clone();
+    }
+
+    @Override
+    public boolean evaluate(SlotRecord record) {
+        for (CompiledNode child : children) {
+            if (!child.evaluate(record)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.ruleengine.engine;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * All conditions on one attribute. Numeric values are only compared against numeric literals, string
+ * values against every literal, exactly as {@link ConditionNode#matches(Object)} does.
+ */
+final class AttributeIndex {
+
+    static final AttributeIndex EMPTY = new AttributeIndex(ValueIndex.empty(), ValueIndex.empty(),
+            new ConditionNode[0], new int[0]);
+
+    private final ValueIndex<Double> numbers;
+    private final ValueIndex<String> strings;
+    // NOT IN conditions hold for almost every value, so they are checked one by one
+    private final ConditionNode[] exclusions;
+    private final int[] exclusionIds;
+
+    private AttributeIndex(ValueIndex<Double> numbers, ValueIndex<String> strings, ConditionNode[] exclusions,
+            int[] exclusionIds) {
+        this.numbers = numbers;
+        this.strings = strings;
+        this.exclusions = exclusions;
+        this.exclusionIds = exclusionIds;
+    }
+
+    boolean isEmpty() {
+        return numbers.isEmpty() && strings.isEmpty() && exclusions.length == 0;
+    }
+
+    void collect(Object value, IntBuffer satisfied) {
+        if (value instanceof Number) {
+            numbers.collect(((Number) value).doubleValue(), satisfied);
+        } else if (value instanceof String) {
+            strings.collect((String) value, satisfied);
+        }
+        for (int i = 0; i < exclusions.length; i++) {
+            if (exclusions[i].matches(value)) {
+                satisfied.add(exclusionIds[i]);
+            }
+        }
+    }
+
+    /**
+     * Copy holding the conditions of {@code added} but not those of {@code removed}, sharing whatever
+     * neither of them touches.
+     */
+    AttributeIndex with(Builder added, Builder removed) {
+        Set<Integer> removedIds = new HashSet<>();
+        for (int i = 0; i < removed.exclusionIds.size(); i++) {
+            removedIds.add(removed.exclusionIds.get(i));
+        }
+        List<ConditionNode> keptExclusions = new ArrayList<>();
+        IntBuffer keptIds = new IntBuffer();
+        for (int i = 0; i < exclusions.length; i++) {
+            if (!removedIds.contains(exclusionIds[i])) {
+                keptExclusions.add(exclusions[i]);
+                keptIds.add(exclusionIds[i]);
+            }
+        }
+        keptExclusions.addAll(added.exclusions);
+        keptIds.addAll(added.exclusionIds.toArray(), 0, added.exclusionIds.size());
+        return new AttributeIndex(numbers.with(added.numbers, removed.numbers),
+                strings.with(added.strings, removed.strings), keptExclusions.toArray(new ConditionNode[0]),
+                keptIds.toArray());
+    }
+
+    static final class Builder {
+
+        private final ValueIndex.Builder<Double> numbers = new ValueIndex.Builder<>();
+        private final ValueIndex.Builder<String> strings = new ValueIndex.Builder<>();
+
+        private final List<ConditionNode> exclusions = new ArrayList<>();
+        private final IntBuffer exclusionIds = new IntBuffer();
+
+        void add(ConditionNode condition, int conditionId) {
+            if (condition.getOperator() == Operator.NOT_IN) {
+                exclusions.add(condition);
+                exclusionIds.add(conditionId);
+                return;
+            }
+            if (condition.getOperator() == Operator.IN) {
+                // Indexed as one equality per member
+                for (String literal : condition.getValues().getLiterals()) {
+                    try {
+                        numbers.add(Operator.EQ, Double.parseDouble(literal), conditionId);
+                    } catch (NumberFormatException e) {
+                        // Numbers never equal a non-numeric literal
+                    }
+                    strings.add(Operator.EQ, literal, conditionId);
+                }
+                return;
+            }
+            if (condition.isNumeric()) {
+                numbers.add(condition.getOperator(), condition.getNumericLiteral(), conditionId);
+            }
+            strings.add(condition.getOperator(), condition.getLiteral(), conditionId);
+        }
+    }
+}
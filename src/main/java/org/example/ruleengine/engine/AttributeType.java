@@ -0,0 +1,7 @@
+package org.example.ruleengine.engine;
+
+public enum AttributeType {
+    ANY,
+    NUMERIC,
+    STRING
+}
@@ -0,0 +1,37 @@
+package org.example.ruleengine.engine;
+
+import java.util.Arrays;
+
+/**
+ * Helpers for bitsets stored as {@code long[]}, bit {@code i} of word {@code i >>> 6} being row {@code i}.
+ */
+final class Bitsets {
+
+    private Bitsets() {
+    }
+
+    static int words(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    static boolean get(long[] bits, int row) {
+        return (bits[row >>> 6] & (1L << row)) != 0;
+    }
+
+    static long[] ones(int size) {
+        long[] bits = new long[words(size)];
+        Arrays.fill(bits, -1L);
+        if ((size & 63) != 0) {
+            bits[bits.length - 1] = (1L << size) - 1;
+        }
+        return bits;
+    }
+
+    static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.ruleengine.engine;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The values of one attribute across a batch of records. Numbers are held as a {@code double[]} and strings
+ * as ids into a dictionary of distinct values. The kind of every row is tracked by bitsets: a row is a
+ * number, a string, missing, or unsupported (any other JSON value).
+ */
+public final class Column {
+
+    final int size;
+    final double[] numbers;
+    final int[] codes;
+    final String[] dictionary;
+    final long[] numberRows;
+    final long[] stringRows;
+    final long[] unsupportedRows;
+
+    private Column(int size, double[] numbers, int[] codes, String[] dictionary, long[] numberRows,
+            long[] stringRows, long[] unsupportedRows) {
+        this.size = size;
+        this.numbers = numbers;
+        this.codes = codes;
+        this.dictionary = dictionary;
+        this.numberRows = numberRows;
+        this.stringRows = stringRows;
+        this.unsupportedRows = unsupportedRows;
+    }
+
+    /**
+     * A column in which every row is a number.
+     */
+    public static Column ofNumbers(double[] values) {
+        long[] numberRows = Bitsets.ones(values.length);
+        return new Column(values.length, values, null, new String[0], numberRows,
+                new long[numberRows.length], new long[numberRows.length]);
+    }
+
+    /**
+     * A dictionary-encoded string column. A negative id marks a row where the attribute is missing.
+     */
+    public static Column ofStrings(int[] ids, String[] dictionary) {
+        long[] stringRows = new long[Bitsets.words(ids.length)];
+        for (int row = 0; row < ids.length; row++) {
+            if (ids[row] >= dictionary.length) {
+                throw new IllegalArgumentException("Unknown dictionary id " + ids[row] + " at row " + row);
+            }
+            if (ids[row] >= 0) {
+                stringRows[row >>> 6] |= 1L << row;
+            }
+        }
+        return new Column(ids.length, null, ids, dictionary, new long[stringRows.length], stringRows,
+                new long[stringRows.length]);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The value at a row as it would appear in a record map: a Double, a String, or null when missing.
+     * Unsupported values are reported as {@link Boolean#TRUE}.
+     */
+    public Object get(int row) {
+        if (Bitsets.get(numberRows, row)) {
+            return numbers[row];
+        }
+        if (Bitsets.get(stringRows, row)) {
+            return dictionary[codes[row]];
+        }
+        return Bitsets.get(unsupportedRows, row) ? Boolean.TRUE : null;
+    }
+
+    boolean isPresent(int row) {
+        return Bitsets.get(numberRows, row) || Bitsets.get(stringRows, row) || Bitsets.get(unsupportedRows, row);
+    }
+
+    /**
+     * Accumulates a column one value at a time, dictionary-encoding strings as they arrive.
+     */
+    public static final class Builder {
+
+        private double[] numbers = new double[64];
+        private int[] codes = new int[64];
+        private long[] numberRows = new long[1];
+        private long[] stringRows = new long[1];
+        private long[] unsupportedRows = new long[1];
+        private final Map<String, Integer> ids = new HashMap<>();
+        private String[] dictionary = new String[16];
+        private int size;
+
+        private Builder() {
+        }
+
+        public Builder addNumber(double value) {
+            int row = nextRow();
+            numbers[row] = value;
+            numberRows[row >>> 6] |= 1L << row;
+            return this;
+        }
+
+        public Builder addString(String value) {
+            int row = nextRow();
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = ids.size();
+                if (id == dictionary.length) {
+                    dictionary = Arrays.copyOf(dictionary, id * 2);
+                }
+                dictionary[id] = value;
+                ids.put(value, id);
+            }
+            codes[row] = id;
+            stringRows[row >>> 6] |= 1L << row;
+            return this;
+        }
+
+        public Builder addMissing() {
+            nextRow();
+            return this;
+        }
+
+        public Builder addUnsupported() {
+            int row = nextRow();
+            unsupportedRows[row >>> 6] |= 1L << row;
+            return this;
+        }
+
+        public Builder add(Object value) {
+            if (value == null) {
+                return addMissing();
+            }
+            if (value instanceof Number) {
+                return addNumber(((Number) value).doubleValue());
+            }
+            if (value instanceof String) {
+                return addString((String) value);
+            }
+            return addUnsupported();
+        }
+
+        public Column build() {
+            int words = Bitsets.words(size);
+            return new Column(size, Arrays.copyOf(numbers, size), Arrays.copyOf(codes, size),
+                    Arrays.copyOf(dictionary, ids.size()), Arrays.copyOf(numberRows, words),
+                    Arrays.copyOf(stringRows, words), Arrays.copyOf(unsupportedRows, words));
+        }
+
+        private int nextRow() {
+            if (size == numbers.length) {
+                numbers = Arrays.copyOf(numbers, size * 2);
+                codes = Arrays.copyOf(codes, size * 2);
+            }
+            int words = Bitsets.words(size + 1);
+            if (words > numberRows.length) {
+                numberRows = Arrays.copyOf(numberRows, numberRows.length * 2);
+                stringRows = Arrays.copyOf(stringRows, stringRows.length * 2);
+                unsupportedRows = Arrays.copyOf(unsupportedRows, unsupportedRows.length * 2);
+            }
+            return size++;
+        }
+    }
+}
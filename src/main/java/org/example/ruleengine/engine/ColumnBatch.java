@@ -0,0 +1,77 @@
+package org.example.ruleengine.engine;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A batch of records laid out by attribute, one {@link Column} per attribute, all of the same size.
+ */
+public final class ColumnBatch {
+
+    private final int size;
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+
+    public ColumnBatch(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Batch size cannot be negative");
+        }
+        this.size = size;
+    }
+
+    public ColumnBatch add(String attribute, Column column) {
+        if (attribute == null || attribute.trim().isEmpty()) {
+            throw new IllegalArgumentException("Column name cannot be null or empty");
+        }
+        if (column.size() != size) {
+            throw new IllegalArgumentException("Column " + attribute + " has " + column.size()
+                    + " values, expected " + size);
+        }
+        columns.put(attribute, column);
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Column getColumn(String attribute) {
+        return columns.get(attribute);
+    }
+
+    public Map<String, Column> getColumns() {
+        return Collections.unmodifiableMap(columns);
+    }
+
+    /**
+     * One row as a record map, holding the attributes that have a value in that row.
+     */
+    public Map<String, Object> getRow(int row) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (Map.Entry<String, Column> entry : columns.entrySet()) {
+            if (entry.getValue().isPresent(row)) {
+                data.put(entry.getKey(), entry.getValue().get(row));
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Rows that would be rejected as records: rows without any value and rows holding an unsupported value.
+     */
+    long[] invalidRows() {
+        long[] present = new long[Bitsets.words(size)];
+        long[] invalid = new long[present.length];
+        for (Column column : columns.values()) {
+            for (int w = 0; w < present.length; w++) {
+                present[w] |= column.numberRows[w] | column.stringRows[w] | column.unsupportedRows[w];
+                invalid[w] |= column.unsupportedRows[w];
+            }
+        }
+        long[] all = Bitsets.ones(size);
+        for (int w = 0; w < invalid.length; w++) {
+            invalid[w] |= ~present[w] & all[w];
+        }
+        return invalid;
+    }
+}
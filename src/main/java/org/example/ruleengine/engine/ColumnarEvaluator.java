@@ -0,0 +1,148 @@
+package org.example.ruleengine.engine;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Evaluates a compiled tree over whole columns: every condition produces a bitset of the rows it accepts
+ * and AND/OR nodes combine those bitsets word by word. Rows whose values would make a condition throw
+ * must already be excluded by the caller; their bits are meaningless.
+ */
+final class ColumnarEvaluator {
+
+    private ColumnarEvaluator() {
+    }
+
+    static long[] evaluate(CompiledNode node, Column[] columns, int size) {
+        if (node instanceof ConditionNode) {
+            ConditionNode condition = (ConditionNode) node;
+            return evaluateCondition(condition, columns[condition.getSlot()], size);
+        }
+        if (node instanceof AndNode) {
+            CompiledNode[] children = ((AndNode) node).getChildren();
+            long[] result = evaluate(children[0], columns, size);
+            for (int i = 1; i < children.length && !isEmpty(result); i++) {
+                long[] child = evaluate(children[i], columns, size);
+                for (int w = 0; w < result.length; w++) {
+                    result[w] &= child[w];
+                }
+            }
+            return result;
+        }
+        if (node instanceof OrNode) {
+            CompiledNode[] children = ((OrNode) node).getChildren();
+            long[] result = evaluate(children[0], columns, size);
+            for (int i = 1; i < children.length; i++) {
+                long[] child = evaluate(children[i], columns, size);
+                for (int w = 0; w < result.length; w++) {
+                    result[w] |= child[w];
+                }
+            }
+            return result;
+        }
+        if (node instanceof ConstantNode) {
+            return ((ConstantNode) node).getValue() ? Bitsets.ones(size) : new long[Bitsets.words(size)];
+        }
+        if (node instanceof FlatNode) {
+            return evaluateFlat((FlatNode) node, columns, size);
+        }
+        throw new IllegalArgumentException("Unsupported node: " + node);
+    }
+
+    // Walks the positions backwards, so every junction finds its children's bitsets on top of the stack
+    private static long[] evaluateFlat(FlatNode node, Column[] columns, int size) {
+        Deque<long[]> results = new ArrayDeque<>();
+        for (int position = node.size() - 1; position >= 0; position--) {
+            byte kind = node.kinds[position];
+            if (kind == FlatNode.CONDITION) {
+                ConditionNode condition = node.conditions[position];
+                results.push(evaluateCondition(condition, columns[condition.getSlot()], size));
+            } else if (kind == FlatNode.TRUE || kind == FlatNode.FALSE) {
+                results.push(kind == FlatNode.TRUE ? Bitsets.ones(size) : new long[Bitsets.words(size)]);
+            } else {
+                boolean conjunction = kind == FlatNode.AND;
+                long[] result = conjunction ? Bitsets.ones(size) : new long[Bitsets.words(size)];
+                for (int child = position + 1; child < node.ends[position]; child = node.ends[child]) {
+                    long[] bits = results.pop();
+                    for (int w = 0; w < result.length; w++) {
+                        result[w] = conjunction ? result[w] & bits[w] : result[w] | bits[w];
+                    }
+                }
+                results.push(result);
+            }
+        }
+        return results.pop();
+    }
+
+    private static long[] evaluateCondition(ConditionNode condition, Column column, int size) {
+        long[] result = new long[Bitsets.words(size)];
+        Operator operator = condition.getOperator();
+        ValueSet values = condition.getValues();
+        if (values != null && condition.isNumeric() && column.numbers != null) {
+            boolean member = operator == Operator.IN;
+            for (int w = 0; w < result.length; w++) {
+                long rows = column.numberRows[w];
+                while (rows != 0) {
+                    int row = (w << 6) + Long.numberOfTrailingZeros(rows);
+                    if (values.contains(column.numbers[row]) == member) {
+                        result[w] |= 1L << row;
+                    }
+                    rows &= rows - 1;
+                }
+            }
+        } else if (values == null && condition.isNumeric() && column.numbers != null) {
+            double literal = condition.getNumericLiteral();
+            // Double.compare yields -1, 0 or 1, so the operator reduces to three flags
+            boolean below = operator.test(-1);
+            boolean equal = operator.test(0);
+            boolean above = operator.test(1);
+            double[] numbers = column.numbers;
+            for (int w = 0; w < result.length; w++) {
+                long rows = column.numberRows[w];
+                if (rows == 0) {
+                    continue;
+                }
+                int base = w << 6;
+                int end = Math.min(base + 64, size);
+                long bits = 0;
+                for (int row = base; row < end; row++) {
+                    int comparison = Double.compare(numbers[row], literal);
+                    if (comparison < 0 ? below : comparison == 0 ? equal : above) {
+                        bits |= 1L << row;
+                    }
+                }
+                result[w] = bits & rows;
+            }
+        }
+        if (column.dictionary.length > 0) {
+            // Each distinct string is compared with the literal once
+            String literal = condition.getLiteral();
+            boolean[] accepted = new boolean[column.dictionary.length];
+            for (int id = 0; id < accepted.length; id++) {
+                accepted[id] = values != null ? values.contains(column.dictionary[id]) == (operator == Operator.IN)
+                        : operator.test(column.dictionary[id].compareTo(literal));
+            }
+            int[] codes = column.codes;
+            for (int w = 0; w < result.length; w++) {
+                long rows = column.stringRows[w];
+                while (rows != 0) {
+                    int row = (w << 6) + Long.numberOfTrailingZeros(rows);
+                    if (accepted[codes[row]]) {
+                        result[w] |= 1L << row;
+                    }
+                    rows &= rows - 1;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isEmpty(long[] bits) {
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
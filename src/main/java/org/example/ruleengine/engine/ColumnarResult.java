@@ -0,0 +1,74 @@
+package org.example.ruleengine.engine;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Result of evaluating a rule over a {@link ColumnBatch}: a bitset of matching rows, the error of each
+ * rejected row, and the rows the vectorized pass left for per-record evaluation.
+ */
+public final class ColumnarResult {
+
+    private final int size;
+    private final long[] matches;
+    private final long[] pending;
+    private final Map<Integer, String> errors = new TreeMap<>();
+
+    ColumnarResult(int size, long[] matches, long[] pending) {
+        this.size = size;
+        this.matches = matches;
+        this.pending = pending;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isMatch(int row) {
+        return Bitsets.get(matches, row);
+    }
+
+    public int getMatchCount() {
+        return Bitsets.cardinality(matches);
+    }
+
+    public BitSet getMatches() {
+        return BitSet.valueOf(matches);
+    }
+
+    public Map<Integer, String> getErrors() {
+        return Collections.unmodifiableMap(errors);
+    }
+
+    /**
+     * The first row at or after {@code from} that still has to be evaluated record by record, or -1.
+     */
+    public int nextPendingRow(int from) {
+        int w = from >>> 6;
+        if (w >= pending.length) {
+            return -1;
+        }
+        long word = pending[w] & (-1L << from);
+        while (word == 0) {
+            if (++w == pending.length) {
+                return -1;
+            }
+            word = pending[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    public void resolve(int row, boolean match) {
+        pending[row >>> 6] &= ~(1L << row);
+        if (match) {
+            matches[row >>> 6] |= 1L << row;
+        }
+    }
+
+    public void reject(int row, String message) {
+        pending[row >>> 6] &= ~(1L << row);
+        errors.put(row, message);
+    }
+}
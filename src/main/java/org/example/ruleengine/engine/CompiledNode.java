@@ -0,0 +1,6 @@
+package org.example.ruleengine.engine;
+
+public interface CompiledNode {
+
+    boolean evaluate(SlotRecord record);
+}
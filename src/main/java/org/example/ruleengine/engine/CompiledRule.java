@@ -0,0 +1,261 @@
+package org.example.ruleengine.engine;
+
+import java.util.Map;
+
+public final class CompiledRule {
+
+    private final Long ruleId;
+    private final CompiledNode optimizedRoot;
+    private volatile CompiledNode root;
+    private volatile RuleProfile profile;
+    // Only decides which evaluations are sampled, so lost updates are harmless
+    private int evaluationCounter;
+    private volatile CompiledNode generated;
+    private volatile int generationThreshold;
+    // Racy as well: generation is synchronized and happens at most once per root
+    private int invocations;
+    private volatile long version;
+    // Racy too: at worst two equal layouts are built
+    private volatile IncrementalRule incremental;
+
+    // Condition leaves in source (depth-first, left to right) order
+    private final ConditionNode[] leaves;
+    // Slot i of a record holds attributes[i]
+    private final String[] attributes;
+    private final AttributeType[] types;
+    private final int[] firstLeaf;
+    private final int[] firstNonNumericLeaf;
+
+    CompiledRule(Long ruleId, CompiledNode root, ConditionNode[] leaves, String[] attributes,
+            AttributeType[] types, int[] firstLeaf, int[] firstNonNumericLeaf) {
+        this.ruleId = ruleId;
+        this.optimizedRoot = root;
+        this.root = root;
+        this.leaves = leaves;
+        this.attributes = attributes;
+        this.types = types;
+        this.firstLeaf = firstLeaf;
+        this.firstNonNumericLeaf = firstNonNumericLeaf;
+    }
+
+    public Long getRuleId() {
+        return ruleId;
+    }
+
+    public CompiledNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Version of the stored rule this was compiled from, as assigned by the caller; results remembered
+     * for another version of the same rule must not be reused.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public String[] getAttributes() {
+        return attributes.clone();
+    }
+
+    public int slotOf(String attribute) {
+        for (int i = 0; i < attributes.length; i++) {
+            if (attributes[i].equals(attribute)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public RuleProfile getProfile() {
+        return profile;
+    }
+
+    public SlotRecord newRecord() {
+        return new SlotRecord(attributes.length);
+    }
+
+    public boolean evaluate(Map<String, Object> data) {
+        SlotRecord record = newRecord();
+        load(data, record);
+        return evaluate(record);
+    }
+
+    /**
+     * Evaluates a record that has already been filled through {@link #load} or checked with {@link #check}.
+     */
+    public boolean evaluate(SlotRecord record) {
+        RuleProfile currentProfile = profile;
+        if (currentProfile != null && ++evaluationCounter % currentProfile.getSampleInterval() == 0) {
+            return currentProfile.evaluate(root, record);
+        }
+        CompiledNode code = generated;
+        if (code == null) {
+            int threshold = generationThreshold;
+            if (threshold <= 0 || ++invocations < threshold || (code = generate()) == null) {
+                return root.evaluate(record);
+            }
+        }
+        return code.evaluate(record);
+    }
+
+    /**
+     * Copies the attributes this rule reads from the data map into the record, once each, and checks them.
+     */
+    public void load(Map<String, Object> data, SlotRecord record) {
+        for (int i = 0; i < attributes.length; i++) {
+            record.set(i, data.get(attributes[i]));
+        }
+        check(record);
+    }
+
+    /**
+     * Evaluates every row of the batch at once. Rows that are invalid as records or would make a condition
+     * throw are left pending in the result, to be evaluated one by one for their exact error.
+     */
+    public ColumnarResult evaluate(ColumnBatch batch) {
+        int size = batch.size();
+        long[] pending = batch.invalidRows();
+        long[] all = Bitsets.ones(size);
+        Column[] columns = new Column[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            columns[i] = batch.getColumn(attributes[i]);
+            if (columns[i] == null) {
+                return new ColumnarResult(size, new long[all.length], all);
+            }
+            boolean acceptsStrings = types[i] != AttributeType.NUMERIC;
+            boolean acceptsNumbers = types[i] != AttributeType.STRING && firstNonNumericLeaf[i] < 0;
+            for (int w = 0; w < all.length; w++) {
+                long valid = (acceptsStrings ? columns[i].stringRows[w] : 0)
+                        | (acceptsNumbers ? columns[i].numberRows[w] : 0);
+                pending[w] |= ~valid & all[w];
+            }
+        }
+        long[] matches = ColumnarEvaluator.evaluate(root, columns, size);
+        for (int w = 0; w < matches.length; w++) {
+            matches[w] &= ~pending[w];
+        }
+        return new ColumnarResult(size, matches, pending);
+    }
+
+    /**
+     * Generates bytecode for the rule once it has been evaluated {@code threshold} times; zero or less keeps
+     * it interpreted.
+     */
+    public synchronized void enableCodeGeneration(int threshold) {
+        generationThreshold = threshold;
+        if (threshold <= 0) {
+            generated = null;
+        }
+    }
+
+    public boolean isGenerated() {
+        return generated != null;
+    }
+
+    private synchronized CompiledNode generate() {
+        if (generated == null && generationThreshold > 0) {
+            try {
+                generated = RuleBytecodeGenerator.generate(root, types);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Stay on the tree, e.g. when the method would exceed the class file limits
+                generationThreshold = 0;
+            }
+        }
+        return generated;
+    }
+
+    private void regenerate() {
+        if (generated != null) {
+            generated = null;
+            generate();
+        }
+    }
+
+    public synchronized void enableProfiling(int sampleInterval) {
+        if (profile == null) {
+            profile = new RuleProfile(sampleInterval);
+        }
+    }
+
+    /**
+     * Stops sampling and restores the order the rule was compiled with.
+     */
+    public synchronized void disableProfiling() {
+        profile = null;
+        root = optimizedRoot;
+        regenerate();
+    }
+
+    /**
+     * Reorders AND/OR children from the sampled statistics. The result of every evaluation is unchanged,
+     * since errors are raised by the up-front data check before any child is evaluated.
+     */
+    public synchronized boolean reorder(long minSamples) {
+        RuleProfile currentProfile = profile;
+        if (currentProfile == null) {
+            return false;
+        }
+        CompiledNode reordered = currentProfile.reorder(root, minSamples);
+        if (reordered == root) {
+            return false;
+        }
+        root = reordered;
+        regenerate();
+        return true;
+    }
+
+    // Rejects a value of the wrong kind for the attribute's declared type
+    void checkType(SlotRecord record, int slot) {
+        byte kind = record.kinds[slot];
+        if (types[slot] == AttributeType.NUMERIC && kind == SlotRecord.STRING) {
+            throw new IllegalArgumentException("Data value must be a Number for key: " + attributes[slot]);
+        }
+        if (types[slot] == AttributeType.STRING && kind == SlotRecord.NUMBER) {
+            throw new IllegalArgumentException("Data value must be a String for key: " + attributes[slot]);
+        }
+    }
+
+    /**
+     * The layout for evaluating this rule incrementally, built on first use and shared by all sessions.
+     */
+    public IncrementalRule incremental() {
+        IncrementalRule layout = incremental;
+        if (layout == null) {
+            layout = new IncrementalRule(this, optimizedRoot);
+            incremental = layout;
+        }
+        return layout;
+    }
+
+    /**
+     * The interpreter used to visit every leaf, so a missing attribute or an incompatible literal
+     * anywhere in the tree was always reported. Short-circuiting would hide those errors, so the
+     * leaf that would have failed first is found up front instead.
+     */
+    public void check(SlotRecord record) {
+        int failingLeaf = Integer.MAX_VALUE;
+        for (int i = 0; i < attributes.length; i++) {
+            checkType(record, i);
+            byte kind = record.kinds[i];
+            int leaf;
+            if (kind == SlotRecord.STRING) {
+                continue;
+            } else if (kind == SlotRecord.NUMBER) {
+                leaf = firstNonNumericLeaf[i];
+            } else {
+                leaf = firstLeaf[i];
+            }
+            if (leaf >= 0 && leaf < failingLeaf) {
+                failingLeaf = leaf;
+            }
+        }
+        if (failingLeaf != Integer.MAX_VALUE) {
+            leaves[failingLeaf].evaluate(record);
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package org.example.ruleengine.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable network of every stored rule in which identical conditions are shared. Matching a record
+ * looks its attribute values up in per-attribute indexes to find the satisfied conditions, and only the
+ * rules referencing at least one of them are evaluated. Since rules combine conditions with AND and OR
+ * only, a rule without any satisfied condition cannot match. Updates return a new network so that
+ * readers holding the previous one are never disturbed; a changed network only copies the changed
+ * rules, the postings of the conditions they add or release and the indexes of those conditions'
+ * attributes, and shares everything else with the previous one.
+ */
+public final class ConditionNetwork {
+
+    public static final ConditionNetwork EMPTY = new ConditionNetwork(PersistentMap.empty(), PersistentMap.empty(),
+            PersistentMap.empty(), PersistentMap.empty(), new long[0], 0, null);
+
+    private final PersistentMap<Long, NetworkNode> rules;
+    private final PersistentMap<String, Condition> conditionsByKey;
+    private final PersistentMap<Integer, Condition> conditions;
+    private final PersistentMap<String, AttributeIndex> attributeIndexes;
+    // Sorted ids of the rules that hold without any satisfied condition (a constant true)
+    private final long[] unconditionalRules;
+    // One past the highest condition id handed out
+    private final int conditionCapacity;
+    // Ids of released conditions, handed out again before new ones
+    private final FreeId freeIds;
+
+    private ConditionNetwork(PersistentMap<Long, NetworkNode> rules, PersistentMap<String, Condition> conditionsByKey,
+            PersistentMap<Integer, Condition> conditions, PersistentMap<String, AttributeIndex> attributeIndexes,
+            long[] unconditionalRules, int conditionCapacity, FreeId freeIds) {
+        this.rules = rules;
+        this.conditionsByKey = conditionsByKey;
+        this.conditions = conditions;
+        this.attributeIndexes = attributeIndexes;
+        this.unconditionalRules = unconditionalRules;
+        this.conditionCapacity = conditionCapacity;
+        this.freeIds = freeIds;
+    }
+
+    public int getRuleCount() {
+        return rules.size();
+    }
+
+    public int getConditionCount() {
+        return conditions.size();
+    }
+
+    public int getIndexedAttributeCount() {
+        return attributeIndexes.size();
+    }
+
+    /**
+     * Ids of the rules the record matches, in ascending order.
+     */
+    public List<Long> match(Map<String, Object> data) {
+        IntBuffer satisfiedIds = new IntBuffer();
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            AttributeIndex index = attributeIndexes.get(entry.getKey());
+            if (index != null) {
+                index.collect(entry.getValue(), satisfiedIds);
+            }
+        }
+
+        boolean[] satisfied = new boolean[conditionCapacity];
+        List<long[]> postings = new ArrayList<>();
+        int candidateCount = unconditionalRules.length;
+        for (int i = 0; i < satisfiedIds.size(); i++) {
+            int id = satisfiedIds.get(i);
+            if (!satisfied[id]) {
+                satisfied[id] = true;
+                long[] ruleIds = conditions.get(id).ruleIds;
+                postings.add(ruleIds);
+                candidateCount += ruleIds.length;
+            }
+        }
+        long[] candidates = Arrays.copyOf(unconditionalRules, candidateCount);
+        int size = unconditionalRules.length;
+        for (long[] ruleIds : postings) {
+            System.arraycopy(ruleIds, 0, candidates, size, ruleIds.length);
+            size += ruleIds.length;
+        }
+        Arrays.sort(candidates);
+
+        List<Long> matches = new ArrayList<>();
+        for (int i = 0; i < candidates.length; i++) {
+            // A rule is listed once for each of its satisfied conditions
+            if ((i == 0 || candidates[i] != candidates[i - 1]) && rules.get(candidates[i]).evaluate(satisfied)) {
+                matches.add(candidates[i]);
+            }
+        }
+        return matches;
+    }
+
+    public ConditionNetwork withRule(Long ruleId, CompiledNode root) {
+        Builder builder = new Builder(this);
+        builder.remove(ruleId);
+        builder.add(ruleId, root);
+        return builder.build();
+    }
+
+    /**
+     * Adds or replaces several rules with a single copy of the network; a null root removes the rule.
+     */
+    public ConditionNetwork withRules(Map<Long, CompiledNode> roots) {
+        Builder builder = new Builder(this);
+        roots.forEach((ruleId, root) -> {
+            builder.remove(ruleId);
+            if (root != null) {
+                builder.add(ruleId, root);
+            }
+        });
+        return builder.build();
+    }
+
+    public ConditionNetwork withoutRule(Long ruleId) {
+        if (rules.get(ruleId) == null) {
+            return this;
+        }
+        Builder builder = new Builder(this);
+        builder.remove(ruleId);
+        return builder.build();
+    }
+
+    public static ConditionNetwork of(Map<Long, CompiledNode> compiledRules) {
+        Builder builder = new Builder(EMPTY);
+        compiledRules.forEach(builder::add);
+        return builder.build();
+    }
+
+    // Collects the changes to the postings first so every touched condition and index is copied once
+    private static final class Builder {
+
+        private final ConditionNetwork network;
+        private PersistentMap<Long, NetworkNode> rules;
+        private int conditionCapacity;
+        private FreeId freeIds;
+        private final Map<Integer, ChangedCondition> changed = new HashMap<>();
+        private final Map<String, ChangedCondition> changedByKey = new HashMap<>();
+        // Whether each added or removed rule now belongs to the unconditional ones
+        private final Map<Long, Boolean> unconditionalChanges = new HashMap<>();
+
+        Builder(ConditionNetwork network) {
+            this.network = network;
+            this.rules = network.rules;
+            this.conditionCapacity = network.conditionCapacity;
+            this.freeIds = network.freeIds;
+        }
+
+        void add(Long ruleId, CompiledNode root) {
+            NetworkNode node = toNetworkNode(ruleId, root);
+            rules = rules.with(ruleId, node);
+            if (node.holdsWithoutConditions()) {
+                unconditionalChanges.put(ruleId, true);
+            }
+        }
+
+        void remove(Long ruleId) {
+            NetworkNode root = rules.get(ruleId);
+            if (root == null) {
+                return;
+            }
+            rules = rules.without(ruleId);
+            root.forEachCondition(id -> changed(id).removeRule(ruleId));
+            unconditionalChanges.put(ruleId, false);
+        }
+
+        private NetworkNode toNetworkNode(long ruleId, CompiledNode node) {
+            if (node instanceof ConditionNode) {
+                return new Leaf(intern(ruleId, (ConditionNode) node));
+            }
+            if (node instanceof FlatNode) {
+                FlatNode flat = (FlatNode) node;
+                int[] conditionIds = new int[flat.size()];
+                for (int position = 0; position < conditionIds.length; position++) {
+                    ConditionNode condition = flat.conditions[position];
+                    conditionIds[position] = condition == null ? -1 : intern(ruleId, condition);
+                }
+                return new FlatRule(flat, conditionIds);
+            }
+            if (node instanceof ConstantNode) {
+                // An empty AND is true and an empty OR is false
+                return new Junction(((ConstantNode) node).getValue(), new NetworkNode[0]);
+            }
+            boolean conjunction = node instanceof AndNode;
+            CompiledNode[] children = conjunction ? ((AndNode) node).getChildren() : ((OrNode) node).getChildren();
+            NetworkNode[] networkChildren = new NetworkNode[children.length];
+            for (int i = 0; i < children.length; i++) {
+                networkChildren[i] = toNetworkNode(ruleId, children[i]);
+            }
+            return new Junction(conjunction, networkChildren);
+        }
+
+        private int intern(long ruleId, ConditionNode condition) {
+            String key = condition.toString();
+            ChangedCondition entry = changedByKey.get(key);
+            if (entry == null) {
+                Condition existing = network.conditionsByKey.get(key);
+                if (existing != null) {
+                    entry = changed(existing.id);
+                } else {
+                    entry = new ChangedCondition(condition, nextId(), new long[0], false);
+                    changed.put(entry.id, entry);
+                    changedByKey.put(key, entry);
+                }
+            }
+            entry.addRule(ruleId);
+            return entry.id;
+        }
+
+        private ChangedCondition changed(int id) {
+            ChangedCondition entry = changed.get(id);
+            if (entry == null) {
+                Condition condition = network.conditions.get(id);
+                entry = new ChangedCondition(condition.node, id, condition.ruleIds, true);
+                changed.put(id, entry);
+                changedByKey.put(condition.node.toString(), entry);
+            }
+            return entry;
+        }
+
+        private int nextId() {
+            if (freeIds == null) {
+                return conditionCapacity++;
+            }
+            int id = freeIds.id;
+            freeIds = freeIds.next;
+            return id;
+        }
+
+        ConditionNetwork build() {
+            PersistentMap<String, Condition> conditionsByKey = network.conditionsByKey;
+            PersistentMap<Integer, Condition> conditions = network.conditions;
+            Map<String, AttributeIndex.Builder> indexed = new HashMap<>();
+            Map<String, AttributeIndex.Builder> unindexed = new HashMap<>();
+            for (ChangedCondition entry : changed.values()) {
+                String key = entry.node.toString();
+                long[] ruleIds = entry.ruleIds();
+                if (ruleIds.length > 0) {
+                    Condition condition = new Condition(entry.node, entry.id, ruleIds);
+                    conditionsByKey = conditionsByKey.with(key, condition);
+                    conditions = conditions.with(entry.id, condition);
+                    if (!entry.indexed) {
+                        indexed.computeIfAbsent(entry.node.getAttribute(), k -> new AttributeIndex.Builder())
+                                .add(entry.node, entry.id);
+                    }
+                } else {
+                    if (entry.indexed) {
+                        conditionsByKey = conditionsByKey.without(key);
+                        conditions = conditions.without(entry.id);
+                        unindexed.computeIfAbsent(entry.node.getAttribute(), k -> new AttributeIndex.Builder())
+                                .add(entry.node, entry.id);
+                    }
+                    freeIds = new FreeId(entry.id, freeIds);
+                }
+            }
+
+            PersistentMap<String, AttributeIndex> attributeIndexes = network.attributeIndexes;
+            Set<String> attributes = new HashSet<>(indexed.keySet());
+            attributes.addAll(unindexed.keySet());
+            for (String attribute : attributes) {
+                AttributeIndex index = attributeIndexes.get(attribute);
+                index = (index == null ? AttributeIndex.EMPTY : index).with(
+                        indexed.getOrDefault(attribute, new AttributeIndex.Builder()),
+                        unindexed.getOrDefault(attribute, new AttributeIndex.Builder()));
+                attributeIndexes = index.isEmpty() ? attributeIndexes.without(attribute)
+                        : attributeIndexes.with(attribute, index);
+            }
+
+            long[] unconditionalRules = network.unconditionalRules;
+            if (!unconditionalChanges.isEmpty()) {
+                TreeSet<Long> ids = new TreeSet<>();
+                for (long id : unconditionalRules) {
+                    ids.add(id);
+                }
+                unconditionalChanges.forEach((id, holds) -> {
+                    if (holds) {
+                        ids.add(id);
+                    } else {
+                        ids.remove(id);
+                    }
+                });
+                unconditionalRules = ids.stream().mapToLong(Long::longValue).toArray();
+            }
+            return new ConditionNetwork(rules, conditionsByKey, conditions, attributeIndexes, unconditionalRules,
+                    conditionCapacity, freeIds);
+        }
+    }
+
+    private static final class Condition {
+
+        private final ConditionNode node;
+        private final int id;
+        // Ids of the rules referencing the condition, sorted
+        private final long[] ruleIds;
+
+        Condition(ConditionNode node, int id, long[] ruleIds) {
+            this.node = node;
+            this.id = id;
+            this.ruleIds = ruleIds;
+        }
+    }
+
+    // The rules a change adds to and removes from the postings of one condition
+    private static final class ChangedCondition {
+
+        private final ConditionNode node;
+        private final int id;
+        private final long[] previousRuleIds;
+        // Whether the previous network already indexed the condition
+        private final boolean indexed;
+        private final Set<Long> added = new HashSet<>();
+        private final Set<Long> removed = new HashSet<>();
+
+        ChangedCondition(ConditionNode node, int id, long[] previousRuleIds, boolean indexed) {
+            this.node = node;
+            this.id = id;
+            this.previousRuleIds = previousRuleIds;
+            this.indexed = indexed;
+        }
+
+        // A rule referencing the same condition twice is only listed once
+        void addRule(long ruleId) {
+            if (!removed.remove(ruleId) && Arrays.binarySearch(previousRuleIds, ruleId) < 0) {
+                added.add(ruleId);
+            }
+        }
+
+        void removeRule(long ruleId) {
+            if (!added.remove(ruleId) && Arrays.binarySearch(previousRuleIds, ruleId) >= 0) {
+                removed.add(ruleId);
+            }
+        }
+
+        long[] ruleIds() {
+            if (added.isEmpty() && removed.isEmpty()) {
+                return previousRuleIds;
+            }
+            long[] additions = added.stream().mapToLong(Long::longValue).sorted().toArray();
+            long[] merged = new long[previousRuleIds.length - removed.size() + additions.length];
+            int size = 0;
+            int i = 0;
+            int j = 0;
+            while (i < previousRuleIds.length || j < additions.length) {
+                if (j == additions.length || (i < previousRuleIds.length && previousRuleIds[i] < additions[j])) {
+                    if (!removed.contains(previousRuleIds[i])) {
+                        merged[size++] = previousRuleIds[i];
+                    }
+                    i++;
+                } else {
+                    merged[size++] = additions[j++];
+                }
+            }
+            return merged;
+        }
+    }
+
+    private static final class FreeId {
+
+        private final int id;
+        private final FreeId next;
+
+        FreeId(int id, FreeId next) {
+            this.id = id;
+            this.next = next;
+        }
+    }
+
+    private interface NetworkNode {
+
+        boolean evaluate(boolean[] satisfied);
+
+        boolean holdsWithoutConditions();
+
+        void forEachCondition(IntConsumer action);
+    }
+
+    private static final class Leaf implements NetworkNode {
+
+        private final int conditionId;
+
+        Leaf(int conditionId) {
+            this.conditionId = conditionId;
+        }
+
+        @Override
+        public boolean evaluate(boolean[] satisfied) {
+            return satisfied[conditionId];
+        }
+
+        @Override
+        public boolean holdsWithoutConditions() {
+            return false;
+        }
+
+        @Override
+        public void forEachCondition(IntConsumer action) {
+            action.accept(conditionId);
+        }
+    }
+
+    private static final class Junction implements NetworkNode {
+
+        private final boolean conjunction;
+        private final NetworkNode[] children;
+
+        Junction(boolean conjunction, NetworkNode[] children) {
+            this.conjunction = conjunction;
+            this.children = children;
+        }
+
+        @Override
+        public boolean evaluate(boolean[] satisfied) {
+            for (NetworkNode child : children) {
+                if (child.evaluate(satisfied) != conjunction) {
+                    return !conjunction;
+                }
+            }
+            return conjunction;
+        }
+
+        @Override
+        public boolean holdsWithoutConditions() {
+            for (NetworkNode child : children) {
+                if (child.holdsWithoutConditions() != conjunction) {
+                    return !conjunction;
+                }
+            }
+            return conjunction;
+        }
+
+        @Override
+        public void forEachCondition(IntConsumer action) {
+            for (NetworkNode child : children) {
+                child.forEachCondition(action);
+            }
+        }
+    }
+
+    // A rule too deep for the recursive junctions, evaluated iteratively over its flattened form
+    private static final class FlatRule implements NetworkNode {
+
+        private final FlatNode flat;
+        // Network condition id at each condition position, -1 elsewhere
+        private final int[] conditionIds;
+
+        FlatRule(FlatNode flat, int[] conditionIds) {
+            this.flat = flat;
+            this.conditionIds = conditionIds;
+        }
+
+        @Override
+        public boolean evaluate(boolean[] satisfied) {
+            return flat.evaluate(position -> satisfied[conditionIds[position]]);
+        }
+
+        @Override
+        public boolean holdsWithoutConditions() {
+            return flat.evaluate(position -> false);
+        }
+
+        @Override
+        public void forEachCondition(IntConsumer action) {
+            for (int id : conditionIds) {
+                if (id >= 0) {
+                    action.accept(id);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.ruleengine.engine;
+
+public final class ConditionNode implements CompiledNode {
+
+    private final String attribute;
+    private final int slot;
+    private final Operator operator;
+    private final String literal;
+    private final boolean numeric;
+    private final double numericLiteral;
+    // Only for IN and NOT IN, whose literal is the rendered list
+    private final ValueSet values;
+
+    public ConditionNode(String attribute, int slot, Operator operator, String literal) {
+        this.attribute = attribute;
+        this.slot = slot;
+        this.operator = operator;
+        this.literal = literal;
+        double parsed;
+        boolean isNumeric;
+        try {
+            parsed = Double.parseDouble(literal);
+            isNumeric = true;
+        } catch (NumberFormatException e) {
+            parsed = Double.NaN;
+            isNumeric = false;
+        }
+        this.numeric = isNumeric;
+        this.numericLiteral = parsed;
+        this.values = null;
+    }
+
+    public ConditionNode(String attribute, int slot, Operator operator, ValueSet values) {
+        if (!operator.isSet()) {
+            throw new IllegalArgumentException("Operator " + operator.getSymbol() + " does not take a value list");
+        }
+        this.attribute = attribute;
+        this.slot = slot;
+        this.operator = operator;
+        this.literal = values.toString();
+        this.numeric = values.isNumeric();
+        this.numericLiteral = Double.NaN;
+        this.values = values;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public String getLiteral() {
+        return literal;
+    }
+
+    public boolean isNumeric() {
+        return numeric;
+    }
+
+    public double getNumericLiteral() {
+        return numericLiteral;
+    }
+
+    public ValueSet getValues() {
+        return values;
+    }
+
+    public boolean isSet() {
+        return values != null;
+    }
+
+    @Override
+    public boolean evaluate(SlotRecord record) {
+        byte kind = record.kinds[slot];
+        if (values != null && kind == SlotRecord.NUMBER) {
+            if (!numeric) {
+                // The chain of = or != conditions this stands for fails on its first non-numeric literal
+                Double.parseDouble(values.getFirstNonNumeric());
+            }
+            return values.contains(record.numbers[slot]) == (operator == Operator.IN);
+        }
+        if (values != null && kind == SlotRecord.STRING) {
+            return values.contains(record.strings[slot]) == (operator == Operator.IN);
+        }
+        if (kind == SlotRecord.NUMBER) {
+            if (!numeric) {
+                // Same NumberFormatException the interpreted comparison used to raise
+                Double.parseDouble(literal);
+            }
+            return operator.test(Double.compare(record.numbers[slot], numericLiteral));
+        }
+        if (kind == SlotRecord.STRING) {
+            return operator.test(record.strings[slot].compareTo(literal));
+        }
+        if (kind == SlotRecord.MISSING) {
+            throw new IllegalArgumentException("Attribute not found in data: " + attribute);
+        }
+        throw new IllegalArgumentException("Unsupported value types for comparison");
+    }
+
+    /**
+     * Lenient variant used when matching against many rules: a missing attribute or a value that cannot
+     * be compared with the literal simply does not satisfy the condition.
+     */
+    public boolean matches(Object value) {
+        if (values != null && value instanceof Number) {
+            // A number never equals a non-numeric literal, and never passes its != either
+            return operator == Operator.IN ? values.contains(((Number) value).doubleValue())
+                    : numeric && !values.contains(((Number) value).doubleValue());
+        }
+        if (values != null && value instanceof String) {
+            return values.contains((String) value) == (operator == Operator.IN);
+        }
+        if (value instanceof Number) {
+            return numeric && operator.test(Double.compare(((Number) value).doubleValue(), numericLiteral));
+        }
+        if (value instanceof String) {
+            return operator.test(((String) value).compareTo(literal));
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return attribute + " " + operator.getSymbol() + " " + literal;
+    }
+}
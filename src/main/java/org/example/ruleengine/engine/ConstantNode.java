@@ -0,0 +1,31 @@
+package org.example.ruleengine.engine;
+
+public final class ConstantNode implements CompiledNode {
+
+    public static final ConstantNode TRUE = new ConstantNode(true);
+    public static final ConstantNode FALSE = new ConstantNode(false);
+
+    private final boolean value;
+
+    private ConstantNode(boolean value) {
+        this.value = value;
+    }
+
+    public static ConstantNode of(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    public boolean getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean evaluate(SlotRecord record) {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(value);
+    }
+}
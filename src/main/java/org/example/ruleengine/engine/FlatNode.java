@@ -0,0 +1,154 @@
+package org.example.ruleengine.engine;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * A whole rule laid out as arrays in pre-order, for rules nested too deeply to evaluate by recursion.
+ * Each position is a condition, a constant or an AND/OR whose children follow it; {@code ends[i]} is the
+ * position just past the subtree at {@code i}, so a short-circuited junction is skipped in one step.
+ * Evaluation keeps the open junctions on an int stack.
+ */
+public final class FlatNode implements CompiledNode {
+
+    static final byte CONDITION = 0;
+    static final byte AND = 1;
+    static final byte OR = 2;
+    static final byte TRUE = 3;
+    static final byte FALSE = 4;
+
+    final byte[] kinds;
+    final int[] ends;
+    // Non-null at condition positions only
+    final ConditionNode[] conditions;
+    private final int depth;
+
+    private FlatNode(byte[] kinds, int[] ends, ConditionNode[] conditions, int depth) {
+        this.kinds = kinds;
+        this.ends = ends;
+        this.conditions = conditions;
+        this.depth = depth;
+    }
+
+    public static FlatNode of(CompiledNode root) {
+        int size = 0;
+        Deque<CompiledNode> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            CompiledNode node = pending.pop();
+            size++;
+            for (CompiledNode child : children(node)) {
+                pending.push(child);
+            }
+        }
+
+        byte[] kinds = new byte[size];
+        int[] ends = new int[size];
+        ConditionNode[] conditions = new ConditionNode[size];
+        // Positions of the junctions whose subtree is still being laid out, with their unvisited child count
+        int[] open = new int[16];
+        int[] remaining = new int[16];
+        int openCount = 0;
+        int depth = 0;
+        Deque<CompiledNode> order = new ArrayDeque<>();
+        order.push(root);
+        for (int position = 0; position < size; position++) {
+            CompiledNode node = order.pop();
+            CompiledNode[] children = children(node);
+            if (node instanceof ConditionNode) {
+                kinds[position] = CONDITION;
+                conditions[position] = (ConditionNode) node;
+            } else if (node instanceof ConstantNode) {
+                kinds[position] = ((ConstantNode) node).getValue() ? TRUE : FALSE;
+            } else if (node instanceof AndNode || node instanceof OrNode) {
+                kinds[position] = node instanceof AndNode ? AND : OR;
+            } else {
+                throw new IllegalArgumentException("Unsupported node: " + node);
+            }
+            for (int i = children.length - 1; i >= 0; i--) {
+                order.push(children[i]);
+            }
+
+            if (children.length > 0) {
+                if (openCount == open.length) {
+                    open = Arrays.copyOf(open, openCount * 2);
+                    remaining = Arrays.copyOf(remaining, openCount * 2);
+                }
+                open[openCount] = position;
+                remaining[openCount++] = children.length;
+                depth = Math.max(depth, openCount);
+            } else {
+                ends[position] = position + 1;
+                // Close every junction whose last child this was
+                while (openCount > 0 && --remaining[openCount - 1] == 0) {
+                    ends[open[--openCount]] = position + 1;
+                }
+            }
+        }
+        return new FlatNode(kinds, ends, conditions, depth);
+    }
+
+    private static CompiledNode[] children(CompiledNode node) {
+        if (node instanceof AndNode) {
+            return ((AndNode) node).getChildren();
+        }
+        if (node instanceof OrNode) {
+            return ((OrNode) node).getChildren();
+        }
+        return new CompiledNode[0];
+    }
+
+    public int size() {
+        return kinds.length;
+    }
+
+    @Override
+    public boolean evaluate(SlotRecord record) {
+        return evaluate(position -> conditions[position].evaluate(record));
+    }
+
+    interface ConditionTest {
+
+        boolean test(int position);
+    }
+
+    boolean evaluate(ConditionTest test) {
+        int[] open = new int[depth];
+        int openCount = 0;
+        int position = 0;
+        while (true) {
+            byte kind = kinds[position];
+            if (kind == AND || kind == OR) {
+                if (ends[position] == position + 1) {
+                    // An empty AND is true and an empty OR is false
+                    kind = kind == AND ? TRUE : FALSE;
+                } else {
+                    open[openCount++] = position++;
+                    continue;
+                }
+            }
+            boolean value = kind == CONDITION ? test.test(position) : kind == TRUE;
+            position = ends[position];
+            // Hand the value up until a junction still needs its next child
+            while (openCount > 0) {
+                int junction = open[openCount - 1];
+                boolean conjunction = kinds[junction] == AND;
+                if (position == ends[junction] || value != conjunction) {
+                    position = ends[junction];
+                    openCount--;
+                } else {
+                    break;
+                }
+            }
+            if (openCount == 0) {
+                return value;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "flattened rule of " + kinds.length + " nodes";
+    }
+}
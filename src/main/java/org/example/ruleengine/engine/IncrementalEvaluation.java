@@ -0,0 +1,106 @@
+package org.example.ruleengine.engine;
+
+import java.util.Map;
+
+/**
+ * One record being evaluated against an {@link IncrementalRule} as its attributes arrive. Every node keeps
+ * its result, true, false or unknown, and every junction counts its true and false children, so an
+ * update costs the conditions on the updated attributes plus the ancestors whose result changes.
+ * <p>
+ * A condition on an attribute not seen yet is unknown rather than an error, and the rule's result is
+ * reported as soon as the known conditions decide it. Values are checked as they arrive: an update the
+ * rule would reject leaves the evaluation unchanged. Not thread-safe.
+ */
+public final class IncrementalEvaluation {
+
+    public enum Outcome {
+        TRUE,
+        FALSE,
+        UNKNOWN
+    }
+
+    private final IncrementalRule rule;
+    private SlotRecord record;
+    private final byte[] states;
+    private final int[] trues;
+    private final int[] falses;
+
+    IncrementalEvaluation(IncrementalRule rule) {
+        this.rule = rule;
+        this.record = rule.rule.newRecord();
+        this.states = rule.initialStates.clone();
+        this.trues = rule.initialTrues.clone();
+        this.falses = rule.initialFalses.clone();
+    }
+
+    public Outcome getOutcome() {
+        return switch (states[0]) {
+            case IncrementalRule.TRUE -> Outcome.TRUE;
+            case IncrementalRule.FALSE -> Outcome.FALSE;
+            default -> Outcome.UNKNOWN;
+        };
+    }
+
+    /**
+     * Applies new values for some attributes, all or none of them. Attributes the rule does not read are
+     * ignored.
+     */
+    public Outcome update(Map<String, Object> values) {
+        CompiledRule compiled = rule.rule;
+        SlotRecord next = record.copy();
+        int changed = 0;
+        int[] slots = new int[values.size()];
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (entry.getValue() == null) {
+                throw new IllegalArgumentException("Data value cannot be null for key: " + entry.getKey());
+            }
+            if (!(entry.getValue() instanceof String || entry.getValue() instanceof Number)) {
+                throw new IllegalArgumentException("Data value must be a String or Number for key: " + entry.getKey());
+            }
+            int slot = compiled.slotOf(entry.getKey());
+            if (slot >= 0) {
+                next.set(slot, entry.getValue());
+                compiled.checkType(next, slot);
+                slots[changed++] = slot;
+            }
+        }
+
+        // Every affected condition is evaluated before anything is applied, so a failing one changes nothing
+        int affected = 0;
+        for (int i = 0; i < changed; i++) {
+            affected += rule.slotConditions[slots[i]].length;
+        }
+        int[] positions = new int[affected];
+        byte[] results = new byte[affected];
+        affected = 0;
+        for (int i = 0; i < changed; i++) {
+            for (int position : rule.slotConditions[slots[i]]) {
+                positions[affected] = position;
+                results[affected++] = rule.layout.conditions[position].evaluate(next)
+                        ? IncrementalRule.TRUE : IncrementalRule.FALSE;
+            }
+        }
+
+        record = next;
+        for (int i = 0; i < affected; i++) {
+            set(positions[i], results[i]);
+        }
+        return getOutcome();
+    }
+
+    // Sets a node's result and carries the change up for as long as it changes its parent's
+    private void set(int position, byte state) {
+        while (states[position] != state) {
+            byte previous = states[position];
+            states[position] = state;
+            int parent = rule.parents[position];
+            if (parent < 0) {
+                return;
+            }
+            IncrementalRule.count(parent, previous, -1, trues, falses);
+            IncrementalRule.count(parent, state, 1, trues, falses);
+            position = parent;
+            state = rule.junctionState(parent, trues, falses);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.ruleengine.engine;
+
+/**
+ * A compiled rule laid out for records whose attributes arrive over time. The tree is flattened in
+ * pre-order as by {@link FlatNode}, with the parent of every position and the conditions reading every
+ * slot, so an update re-evaluates only the conditions on the changed attributes and walks up from them.
+ * The layout is immutable and shared; each record's progress is an {@link IncrementalEvaluation}.
+ */
+public final class IncrementalRule {
+
+    static final byte UNKNOWN = 0;
+    static final byte TRUE = 1;
+    static final byte FALSE = 2;
+
+    final CompiledRule rule;
+    final FlatNode layout;
+    // Junction above each position, -1 at the root
+    final int[] parents;
+    final int[] childCounts;
+    // Condition positions reading each slot
+    final int[][] slotConditions;
+    // States and child counts before any attribute is known, copied by every new evaluation
+    final byte[] initialStates;
+    final int[] initialTrues;
+    final int[] initialFalses;
+
+    IncrementalRule(CompiledRule rule, CompiledNode root) {
+        this.rule = rule;
+        this.layout = root instanceof FlatNode ? (FlatNode) root : FlatNode.of(root);
+        int size = layout.size();
+        this.parents = new int[size];
+        this.childCounts = new int[size];
+        parents[0] = -1;
+        int[] conditionCounts = new int[rule.getAttributes().length];
+        for (int position = 0; position < size; position++) {
+            if (layout.kinds[position] == FlatNode.AND || layout.kinds[position] == FlatNode.OR) {
+                for (int child = position + 1; child < layout.ends[position]; child = layout.ends[child]) {
+                    parents[child] = position;
+                    childCounts[position]++;
+                }
+            } else if (layout.kinds[position] == FlatNode.CONDITION) {
+                conditionCounts[layout.conditions[position].getSlot()]++;
+            }
+        }
+        this.slotConditions = new int[conditionCounts.length][];
+        for (int slot = 0; slot < conditionCounts.length; slot++) {
+            slotConditions[slot] = new int[conditionCounts[slot]];
+            conditionCounts[slot] = 0;
+        }
+        for (int position = 0; position < size; position++) {
+            if (layout.kinds[position] == FlatNode.CONDITION) {
+                int slot = layout.conditions[position].getSlot();
+                slotConditions[slot][conditionCounts[slot]++] = position;
+            }
+        }
+
+        // Children follow their parent in pre-order, so a reverse pass sees them first
+        this.initialStates = new byte[size];
+        this.initialTrues = new int[size];
+        this.initialFalses = new int[size];
+        for (int position = size - 1; position >= 0; position--) {
+            byte state = switch (layout.kinds[position]) {
+                case FlatNode.TRUE -> TRUE;
+                case FlatNode.FALSE -> FALSE;
+                case FlatNode.CONDITION -> UNKNOWN;
+                default -> junctionState(position, initialTrues, initialFalses);
+            };
+            initialStates[position] = state;
+            if (position > 0) {
+                count(parents[position], state, 1, initialTrues, initialFalses);
+            }
+        }
+    }
+
+    public CompiledRule getRule() {
+        return rule;
+    }
+
+    public IncrementalEvaluation newEvaluation() {
+        return new IncrementalEvaluation(this);
+    }
+
+    /**
+     * Three-valued AND/OR: a junction is decided as soon as one child decides it, or once every child is
+     * known, and is unknown otherwise.
+     */
+    byte junctionState(int position, int[] trues, int[] falses) {
+        if (layout.kinds[position] == FlatNode.AND) {
+            return falses[position] > 0 ? FALSE : trues[position] == childCounts[position] ? TRUE : UNKNOWN;
+        }
+        return trues[position] > 0 ? TRUE : falses[position] == childCounts[position] ? FALSE : UNKNOWN;
+    }
+
+    static void count(int parent, byte state, int delta, int[] trues, int[] falses) {
+        if (state == TRUE) {
+            trues[parent] += delta;
+        } else if (state == FALSE) {
+            falses[parent] += delta;
+        }
+    }
+}
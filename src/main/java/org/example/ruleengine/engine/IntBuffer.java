@@ -0,0 +1,40 @@
+package org.example.ruleengine.engine;
+
+import java.util.Arrays;
+
+final class IntBuffer {
+
+    private int[] values = new int[16];
+    private int size;
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    void addAll(int[] source, int from, int to) {
+        int count = to - from;
+        if (count <= 0) {
+            return;
+        }
+        if (size + count > values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, size + count));
+        }
+        System.arraycopy(source, from, values, size, count);
+        size += count;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
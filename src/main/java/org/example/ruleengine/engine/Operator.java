@@ -0,0 +1,61 @@
+package org.example.ruleengine.engine;
+
+public enum Operator {
+    GT(">"),
+    LT("<"),
+    EQ("="),
+    GE(">="),
+    LE("<="),
+    NE("!="),
+    // Membership in a value list, which behaves as EQ or NE against the matching member
+    IN("IN"),
+    NOT_IN("NOT IN");
+
+    private final String symbol;
+
+    Operator(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public boolean test(int comparison) {
+        return switch (this) {
+            case GT -> comparison > 0;
+            case LT -> comparison < 0;
+            case EQ -> comparison == 0;
+            case GE -> comparison >= 0;
+            case LE -> comparison <= 0;
+            case NE, NOT_IN -> comparison != 0;
+            case IN -> comparison == 0;
+        };
+    }
+
+    public Operator negate() {
+        return switch (this) {
+            case GT -> LE;
+            case LT -> GE;
+            case EQ -> NE;
+            case GE -> LT;
+            case LE -> GT;
+            case NE -> EQ;
+            case IN -> NOT_IN;
+            case NOT_IN -> IN;
+        };
+    }
+
+    public boolean isSet() {
+        return this == IN || this == NOT_IN;
+    }
+
+    public static Operator fromSymbol(String symbol) {
+        for (Operator operator : values()) {
+            if (operator.symbol.equals(symbol)) {
+                return operator;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported operator: " + symbol);
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.ruleengine.engine;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash map whose changed copies share everything but the path to the changed entry, so a
+ * change costs O(log n) however large the map is. Entries are held in a trie of 32-way nodes indexed by
+ * successive 5-bit slices of the key's hash; keys whose hashes are equal share a chain.
+ */
+final class PersistentMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private final Object[] root;
+    private final int size;
+
+    private PersistentMap(Object[] root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    static <K, V> PersistentMap<K, V> empty() {
+        return new PersistentMap<>(new Object[WIDTH], 0);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    V get(K key) {
+        int hash = hash(key);
+        Object[] node = root;
+        for (int shift = 0; ; shift += BITS) {
+            Object slot = node[index(hash, shift)];
+            if (slot instanceof Object[]) {
+                node = (Object[]) slot;
+                continue;
+            }
+            for (Entry entry = (Entry) slot; entry != null; entry = entry.next) {
+                if (entry.hash == hash && entry.key.equals(key)) {
+                    @SuppressWarnings("unchecked")
+                    V value = (V) entry.value;
+                    return value;
+                }
+            }
+            return null;
+        }
+    }
+
+    PersistentMap<K, V> with(K key, V value) {
+        int nextSize = get(key) == null ? size + 1 : size;
+        return new PersistentMap<>(put(root, 0, hash(key), key, value), nextSize);
+    }
+
+    PersistentMap<K, V> without(K key) {
+        if (get(key) == null) {
+            return this;
+        }
+        return new PersistentMap<>(remove(root, 0, hash(key), key), size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<K, V> action) {
+        forEach(root, (BiConsumer<Object, Object>) action);
+    }
+
+    private static void forEach(Object[] node, BiConsumer<Object, Object> action) {
+        for (Object slot : node) {
+            if (slot instanceof Object[]) {
+                forEach((Object[]) slot, action);
+            } else {
+                for (Entry entry = (Entry) slot; entry != null; entry = entry.next) {
+                    action.accept(entry.key, entry.value);
+                }
+            }
+        }
+    }
+
+    private static Object[] put(Object[] node, int shift, int hash, Object key, Object value) {
+        Object[] copy = node.clone();
+        int i = index(hash, shift);
+        Object slot = node[i];
+        if (slot == null) {
+            copy[i] = new Entry(hash, key, value, null);
+        } else if (slot instanceof Object[]) {
+            copy[i] = put((Object[]) slot, shift + BITS, hash, key, value);
+        } else {
+            Entry chain = (Entry) slot;
+            if (chain.hash == hash) {
+                copy[i] = new Entry(hash, key, value, removeFromChain(chain, key));
+            } else {
+                // Hashes that differ somewhere in the remaining bits part in a deeper node
+                Object[] child = new Object[WIDTH];
+                child[index(chain.hash, shift + BITS)] = chain;
+                copy[i] = put(child, shift + BITS, hash, key, value);
+            }
+        }
+        return copy;
+    }
+
+    private static Object[] remove(Object[] node, int shift, int hash, Object key) {
+        Object[] copy = node.clone();
+        int i = index(hash, shift);
+        Object slot = node[i];
+        if (slot instanceof Object[]) {
+            Object[] child = remove((Object[]) slot, shift + BITS, hash, key);
+            copy[i] = isEmpty(child) ? null : child;
+        } else {
+            copy[i] = removeFromChain((Entry) slot, key);
+        }
+        return copy;
+    }
+
+    private static Entry removeFromChain(Entry chain, Object key) {
+        if (chain == null) {
+            return null;
+        }
+        if (chain.key.equals(key)) {
+            return chain.next;
+        }
+        Entry rest = removeFromChain(chain.next, key);
+        return rest == chain.next ? chain : new Entry(chain.hash, chain.key, chain.value, rest);
+    }
+
+    private static boolean isEmpty(Object[] node) {
+        for (Object slot : node) {
+            if (slot != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    // Keys that share a slot at shift 30 have equal hashes, so no node ever sits deeper
+    private static int index(int hash, int shift) {
+        return (hash >>> shift) & MASK;
+    }
+
+    private static final class Entry {
+
+        private final int hash;
+        private final Object key;
+        private final Object value;
+        private final Entry next;
+
+        Entry(int hash, Object key, Object value, Entry next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+}
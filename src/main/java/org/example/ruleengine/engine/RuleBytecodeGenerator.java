@@ -0,0 +1,200 @@
+package org.example.ruleengine.engine;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+/**
+ * Turns a compiled tree into a hidden class whose {@code evaluate} method is the whole expression as
+ * straight-line code: literals are inlined and AND/OR become conditional jumps. The class is not strongly
+ * bound to its loader, so it is unloaded once the rule that owns it is no longer referenced.
+ *
+ * <p>The generated code assumes the record has passed {@link CompiledRule#check}, so every slot it reads
+ * holds a number or a string and no comparison can fail.
+ */
+final class RuleBytecodeGenerator {
+
+    private static final String SLOT_RECORD = Type.getInternalName(SlotRecord.class);
+    private static final int RECORD = 1;
+    private static final int NUMBERS = 2;
+    private static final int STRINGS = 3;
+    private static final int KINDS = 4;
+    private static final int CONDITIONS = 5;
+    private static final String CONDITION_ARRAY = Type.getDescriptor(ConditionNode[].class);
+
+    private RuleBytecodeGenerator() {
+    }
+
+    static CompiledNode generate(CompiledNode root, AttributeType[] types) throws ReflectiveOperationException {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<ConditionNode> conditions = new ArrayList<>();
+        Class<?> generated = lookup.defineHiddenClass(generateClass(root, types, conditions), true).lookupClass();
+        return (CompiledNode) generated.getConstructor(ConditionNode[].class)
+                .newInstance((Object) conditions.toArray(new ConditionNode[0]));
+    }
+
+    /**
+     * IN and NOT IN conditions are not inlined: the class calls their hash lookup through the array its
+     * constructor takes, in which {@code conditions} collects them.
+     */
+    static byte[] generateClass(CompiledNode root, AttributeType[] types, List<ConditionNode> conditions) {
+        String name = RuleBytecodeGenerator.class.getPackageName().replace('.', '/') + "/GeneratedRule";
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, name, null,
+                "java/lang/Object", new String[] {Type.getInternalName(CompiledNode.class)});
+
+        writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "conditions", CONDITION_ARRAY, null, null)
+                .visitEnd();
+        MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "(" + CONDITION_ARRAY + ")V",
+                null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitVarInsn(Opcodes.ALOAD, 1);
+        constructor.visitFieldInsn(Opcodes.PUTFIELD, name, "conditions", CONDITION_ARRAY);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, "evaluate",
+                Type.getMethodDescriptor(Type.BOOLEAN_TYPE, Type.getType(SlotRecord.class)), null, null);
+        method.visitCode();
+        loadField(method, "numbers", "[D", NUMBERS);
+        loadField(method, "strings", "[Ljava/lang/String;", STRINGS);
+        loadField(method, "kinds", "[B", KINDS);
+        method.visitVarInsn(Opcodes.ALOAD, 0);
+        method.visitFieldInsn(Opcodes.GETFIELD, name, "conditions", CONDITION_ARRAY);
+        method.visitVarInsn(Opcodes.ASTORE, CONDITIONS);
+        Label isFalse = new Label();
+        jump(method, root, types, conditions, isFalse, false);
+        method.visitInsn(Opcodes.ICONST_1);
+        method.visitInsn(Opcodes.IRETURN);
+        method.visitLabel(isFalse);
+        method.visitInsn(Opcodes.ICONST_0);
+        method.visitInsn(Opcodes.IRETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static void loadField(MethodVisitor method, String field, String descriptor, int local) {
+        method.visitVarInsn(Opcodes.ALOAD, RECORD);
+        method.visitFieldInsn(Opcodes.GETFIELD, SLOT_RECORD, field, descriptor);
+        method.visitVarInsn(Opcodes.ASTORE, local);
+    }
+
+    /**
+     * Emits code that jumps to {@code target} when the node evaluates to {@code when} and falls through
+     * otherwise.
+     */
+    private static void jump(MethodVisitor method, CompiledNode node, AttributeType[] types,
+            List<ConditionNode> conditions, Label target, boolean when) {
+        if (node instanceof ConditionNode && ((ConditionNode) node).isSet()) {
+            method.visitVarInsn(Opcodes.ALOAD, CONDITIONS);
+            pushInt(method, conditions.size());
+            method.visitInsn(Opcodes.AALOAD);
+            method.visitVarInsn(Opcodes.ALOAD, RECORD);
+            method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Type.getInternalName(ConditionNode.class), "evaluate",
+                    Type.getMethodDescriptor(Type.BOOLEAN_TYPE, Type.getType(SlotRecord.class)), false);
+            method.visitJumpInsn(when ? Opcodes.IFNE : Opcodes.IFEQ, target);
+            conditions.add((ConditionNode) node);
+        } else if (node instanceof ConditionNode) {
+            jumpCondition(method, (ConditionNode) node, types[((ConditionNode) node).getSlot()], target, when);
+        } else if (node instanceof AndNode || node instanceof OrNode) {
+            boolean isAnd = node instanceof AndNode;
+            CompiledNode[] children = isAnd ? ((AndNode) node).getChildren() : ((OrNode) node).getChildren();
+            if (isAnd != when) {
+                // AND jumping on false, OR jumping on true: any child deciding the result jumps
+                for (CompiledNode child : children) {
+                    jump(method, child, types, conditions, target, when);
+                }
+            } else {
+                Label done = new Label();
+                for (int i = 0; i < children.length - 1; i++) {
+                    jump(method, children[i], types, conditions, done, !when);
+                }
+                jump(method, children[children.length - 1], types, conditions, target, when);
+                method.visitLabel(done);
+            }
+        } else if (node instanceof ConstantNode) {
+            if (((ConstantNode) node).getValue() == when) {
+                method.visitJumpInsn(Opcodes.GOTO, target);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported node: " + node);
+        }
+    }
+
+    private static void jumpCondition(MethodVisitor method, ConditionNode condition, AttributeType type,
+            Label target, boolean when) {
+        int opcode = jumpOpcode(when ? condition.getOperator() : condition.getOperator().negate());
+        boolean numbers = condition.isNumeric() && type != AttributeType.STRING;
+        boolean strings = type != AttributeType.NUMERIC;
+        Label done = new Label();
+        Label isString = new Label();
+        if (numbers && strings) {
+            method.visitVarInsn(Opcodes.ALOAD, KINDS);
+            pushInt(method, condition.getSlot());
+            method.visitInsn(Opcodes.BALOAD);
+            pushInt(method, SlotRecord.NUMBER);
+            method.visitJumpInsn(Opcodes.IF_ICMPNE, isString);
+        }
+        if (numbers) {
+            method.visitVarInsn(Opcodes.ALOAD, NUMBERS);
+            pushInt(method, condition.getSlot());
+            method.visitInsn(Opcodes.DALOAD);
+            method.visitLdcInsn(condition.getNumericLiteral());
+            method.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Double", "compare", "(DD)I", false);
+            method.visitJumpInsn(opcode, target);
+        }
+        if (numbers && strings) {
+            method.visitJumpInsn(Opcodes.GOTO, done);
+            method.visitLabel(isString);
+        }
+        if (strings) {
+            method.visitVarInsn(Opcodes.ALOAD, STRINGS);
+            pushInt(method, condition.getSlot());
+            method.visitInsn(Opcodes.AALOAD);
+            method.visitLdcInsn(condition.getLiteral());
+            method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/String", "compareTo", "(Ljava/lang/String;)I",
+                    false);
+            method.visitJumpInsn(opcode, target);
+        }
+        method.visitLabel(done);
+    }
+
+    private static int jumpOpcode(Operator operator) {
+        return switch (operator) {
+            case GT -> Opcodes.IFGT;
+            case LT -> Opcodes.IFLT;
+            case EQ -> Opcodes.IFEQ;
+            case GE -> Opcodes.IFGE;
+            case LE -> Opcodes.IFLE;
+            case NE -> Opcodes.IFNE;
+            // Only reached for comparisons, never for value lists
+            case IN -> Opcodes.IFEQ;
+            case NOT_IN -> Opcodes.IFNE;
+        };
+    }
+
+    private static void pushInt(MethodVisitor method, int value) {
+        if (value <= 5) {
+            method.visitInsn(Opcodes.ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            method.visitIntInsn(Opcodes.BIPUSH, value);
+        } else if (value <= Short.MAX_VALUE) {
+            method.visitIntInsn(Opcodes.SIPUSH, value);
+        } else {
+            method.visitLdcInsn(value);
+        }
+    }
+}
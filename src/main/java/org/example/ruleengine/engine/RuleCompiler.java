@@ -0,0 +1,251 @@
+package org.example.ruleengine.engine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.example.ruleengine.model.Node;
+
+/**
+ * Compiles rule ASTs into evaluable trees. Like the parser, validation, the blob codec and JSON output,
+ * it walks the AST on explicit stacks, so the depth of a rule is not limited by the thread stack.
+ */
+public final class RuleCompiler {
+
+    public static final Pattern CONDITION_PATTERN = Pattern.compile("^(\\w+)\\s*(>|<|=|>=|<=|!=)\\s*([\\w'\"]+)$");
+    // attr IN (v1, v2, ...) and attr NOT IN (...); each value is written like a comparison literal
+    public static final Pattern SET_CONDITION_PATTERN = Pattern.compile(
+            "^(\\w+)\\s+(IN|NOT\\s+IN)\\s*\\(\\s*([\\w'\"]+(?:\\s*,\\s*[\\w'\"]+)*)\\s*\\)$");
+
+    // Deeper trees are evaluated as a FlatNode
+    static final int MAX_TREE_DEPTH = 256;
+
+    private RuleCompiler() {
+    }
+
+    public static CompiledRule compile(Long ruleId, Node rootNode) {
+        return compile(ruleId, rootNode, Collections.emptyMap());
+    }
+
+    /**
+     * Compiles a rule against the declared attribute types. A numeric attribute compared with a literal
+     * that is not a number is rejected here rather than failing every evaluation.
+     */
+    public static CompiledRule compile(Long ruleId, Node rootNode, Map<String, AttributeType> declaredTypes) {
+        return compile(ruleId, rootNode, declaredTypes, true);
+    }
+
+    /**
+     * Compiles a rule, optionally without the optimizer. The optimizer folds tautologies such as
+     * {@code x > 5 OR x <= 5} into a constant, which holds for records that lack {@code x}; the condition
+     * network, where a missing attribute makes a condition false, needs the tree as written.
+     */
+    public static CompiledRule compile(Long ruleId, Node rootNode, Map<String, AttributeType> declaredTypes,
+            boolean optimize) {
+        if (rootNode == null) {
+            throw new IllegalArgumentException("Root node cannot be null");
+        }
+        List<ConditionNode> leaves = new ArrayList<>();
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        CompiledNode root = compileNode(rootNode, leaves, slots);
+
+        // Slots are numbered in order of first appearance, so slot i is attributes[i]
+        String[] attributes = slots.keySet().toArray(new String[0]);
+        AttributeType[] types = new AttributeType[attributes.length];
+        int[] firstLeaf = new int[attributes.length];
+        int[] firstNonNumericLeaf = new int[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            types[i] = declaredTypes.getOrDefault(attributes[i], AttributeType.ANY);
+            firstLeaf[i] = -1;
+            firstNonNumericLeaf[i] = -1;
+        }
+        for (int i = 0; i < leaves.size(); i++) {
+            ConditionNode leaf = leaves.get(i);
+            int slot = leaf.getSlot();
+            if (firstLeaf[slot] < 0) {
+                firstLeaf[slot] = i;
+            }
+            if (!leaf.isNumeric()) {
+                if (types[slot] == AttributeType.NUMERIC) {
+                    throw new IllegalArgumentException("Type mismatch: attribute " + leaf.getAttribute()
+                            + " is numeric but is compared with '" + leaf.getLiteral() + "'");
+                }
+                if (firstNonNumericLeaf[slot] < 0) {
+                    firstNonNumericLeaf[slot] = i;
+                }
+            }
+        }
+
+        Set<String> numericAttributes = new HashSet<>();
+        for (int i = 0; i < attributes.length; i++) {
+            if (firstNonNumericLeaf[i] < 0 && types[i] != AttributeType.STRING) {
+                numericAttributes.add(attributes[i]);
+            }
+        }
+        if (depth(root) > MAX_TREE_DEPTH) {
+            // The optimizer, profiler, code generator and condition network all walk the tree recursively
+            root = FlatNode.of(root);
+        } else if (optimize) {
+            root = RuleOptimizer.optimize(root, numericAttributes);
+        }
+        return new CompiledRule(ruleId, root, leaves.toArray(new ConditionNode[0]), attributes, types,
+                firstLeaf, firstNonNumericLeaf);
+    }
+
+    /**
+     * Compiles the tree without recursion: the nodes are listed in pre-order, which numbers the leaves and
+     * slots in source order, and then assembled bottom-up from the end of that list on an explicit stack.
+     * Chains of the same operator become a single n-ary node on the way, so only alternating AND/OR
+     * nesting adds depth to the result.
+     */
+    private static CompiledNode compileNode(Node rootNode, List<ConditionNode> leaves, Map<String, Integer> slots) {
+        List<Node> preOrder = new ArrayList<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(rootNode);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            preOrder.add(node);
+            if ("operator".equals(node.getType())) {
+                if (node.getLeft() == null || node.getRight() == null) {
+                    throw new IllegalArgumentException("Operator node must have both left and right child nodes");
+                }
+                if (!"AND".equals(node.getNodeValue()) && !"OR".equals(node.getNodeValue())) {
+                    throw new IllegalArgumentException("Invalid operator: " + node.getNodeValue());
+                }
+                pending.push(node.getRight());
+                pending.push(node.getLeft());
+            }
+        }
+
+        ConditionNode[] conditions = new ConditionNode[preOrder.size()];
+        for (int i = 0; i < conditions.length; i++) {
+            Node node = preOrder.get(i);
+            if (!"operator".equals(node.getType())) {
+                Matcher matcher = matchCondition(node.getNodeValue());
+                Integer slot = slots.get(matcher.group(1));
+                if (slot == null) {
+                    slot = slots.size();
+                    slots.put(matcher.group(1), slot);
+                }
+                conditions[i] = toCondition(matcher, slot);
+                leaves.add(conditions[i]);
+            }
+        }
+
+        // Holds CompiledNodes and Chains; the left operand of the next operator is always on top
+        Deque<Object> operands = new ArrayDeque<>();
+        for (int i = conditions.length - 1; i >= 0; i--) {
+            if (conditions[i] != null) {
+                operands.push(conditions[i]);
+                continue;
+            }
+            boolean conjunction = "AND".equals(preOrder.get(i).getNodeValue());
+            Chain left = Chain.of(operands.pop(), conjunction);
+            Chain right = Chain.of(operands.pop(), conjunction);
+            operands.push(left.append(right));
+        }
+        return Chain.build(operands.pop());
+    }
+
+    // Children of an AND or OR chain still being assembled
+    private static final class Chain {
+
+        private final boolean conjunction;
+        private final Deque<CompiledNode> children;
+
+        private Chain(boolean conjunction, Deque<CompiledNode> children) {
+            this.conjunction = conjunction;
+            this.children = children;
+        }
+
+        static Chain of(Object operand, boolean conjunction) {
+            if (operand instanceof Chain && ((Chain) operand).conjunction == conjunction) {
+                return (Chain) operand;
+            }
+            Deque<CompiledNode> children = new ArrayDeque<>();
+            children.add(build(operand));
+            return new Chain(conjunction, children);
+        }
+
+        // Moves the shorter chain into the longer one, which keeps left- and right-deep trees linear
+        Chain append(Chain right) {
+            if (children.size() >= right.children.size()) {
+                children.addAll(right.children);
+                return this;
+            }
+            for (Iterator<CompiledNode> it = children.descendingIterator(); it.hasNext();) {
+                right.children.addFirst(it.next());
+            }
+            return right;
+        }
+
+        static CompiledNode build(Object operand) {
+            if (!(operand instanceof Chain)) {
+                return (CompiledNode) operand;
+            }
+            Chain chain = (Chain) operand;
+            CompiledNode[] children = chain.children.toArray(new CompiledNode[0]);
+            return chain.conjunction ? new AndNode(children) : new OrNode(children);
+        }
+    }
+
+    private static int depth(CompiledNode root) {
+        int depth = 0;
+        Deque<CompiledNode> nodes = new ArrayDeque<>();
+        Deque<Integer> depths = new ArrayDeque<>();
+        nodes.push(root);
+        depths.push(1);
+        while (!nodes.isEmpty()) {
+            CompiledNode node = nodes.pop();
+            int nodeDepth = depths.pop();
+            depth = Math.max(depth, nodeDepth);
+            CompiledNode[] children = node instanceof AndNode ? ((AndNode) node).getChildren()
+                    : node instanceof OrNode ? ((OrNode) node).getChildren() : new CompiledNode[0];
+            for (CompiledNode child : children) {
+                nodes.push(child);
+                depths.push(nodeDepth + 1);
+            }
+        }
+        return depth;
+    }
+
+    public static ConditionNode compileCondition(String condition, int slot) {
+        return toCondition(matchCondition(condition), slot);
+    }
+
+    private static Matcher matchCondition(String condition) {
+        if (condition == null) {
+            throw new IllegalArgumentException("Node value cannot be null or empty");
+        }
+        Matcher matcher = CONDITION_PATTERN.matcher(condition.trim());
+        if (!matcher.matches()) {
+            matcher = SET_CONDITION_PATTERN.matcher(condition.trim());
+        }
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid condition format: " + condition);
+        }
+        return matcher;
+    }
+
+    private static ConditionNode toCondition(Matcher matcher, int slot) {
+        Operator operator = Operator.fromSymbol(matcher.group(2).replaceAll("\\s+", " "));
+        if (operator.isSet()) {
+            String[] values = matcher.group(3).split("\\s*,\\s*");
+            for (int i = 0; i < values.length; i++) {
+                values[i] = values[i].replaceAll("^['\"]|['\"]$", "");
+            }
+            return new ConditionNode(matcher.group(1), slot, operator, new ValueSet(values));
+        }
+        String value = matcher.group(3).replaceAll("^['\"]|['\"]$", ""); // Remove surrounding quotes if present
+        return new ConditionNode(matcher.group(1), slot, operator, value);
+    }
+}
@@ -0,0 +1,217 @@
+package org.example.ruleengine.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Simplifies a compiled rule: nested AND/OR nodes are flattened, duplicate and subsumed conditions on the
+ * same attribute are dropped, contradictions or tautologies collapse to constants, and long runs of
+ * equalities on one attribute become a hashed {@code IN}.
+ * <p>
+ * A value is compared against a literal as a string unless both are numbers, and the two orders disagree
+ * ({@code "100" < "20"}). A fold is therefore only applied when it holds in string order and, for
+ * attributes whose literals are all numeric (the only case where numeric data gets past the data check),
+ * in numeric order as well.
+ */
+public final class RuleOptimizer {
+
+    // Smallest run of equalities (or inequalities) rewritten into a hashed value list
+    static final int VALUE_LIST_MIN_SIZE = 4;
+
+    private RuleOptimizer() {
+    }
+
+    public static CompiledNode optimize(CompiledNode node, Set<String> numericAttributes) {
+        if (node instanceof AndNode) {
+            return optimizeJunction(true, ((AndNode) node).getChildren(), numericAttributes);
+        }
+        if (node instanceof OrNode) {
+            return optimizeJunction(false, ((OrNode) node).getChildren(), numericAttributes);
+        }
+        return node;
+    }
+
+    private static CompiledNode optimizeJunction(boolean conjunction, CompiledNode[] children,
+            Set<String> numericAttributes) {
+        List<CompiledNode> flattened = new ArrayList<>();
+        for (CompiledNode child : children) {
+            CompiledNode optimized = optimize(child, numericAttributes);
+            if (optimized instanceof ConstantNode) {
+                // true is neutral for AND and decides OR, false the other way round
+                if (((ConstantNode) optimized).getValue() != conjunction) {
+                    return optimized;
+                }
+            } else if (conjunction && optimized instanceof AndNode) {
+                flattened.addAll(List.of(((AndNode) optimized).getChildren()));
+            } else if (!conjunction && optimized instanceof OrNode) {
+                flattened.addAll(List.of(((OrNode) optimized).getChildren()));
+            } else {
+                flattened.add(optimized);
+            }
+        }
+
+        List<CompiledNode> result = new ArrayList<>();
+        for (CompiledNode child : flattened) {
+            if (!(child instanceof ConditionNode) || ((ConditionNode) child).isSet()) {
+                result.add(child);
+                continue;
+            }
+            ConditionNode condition = (ConditionNode) child;
+            boolean numeric = numericAttributes.contains(condition.getAttribute());
+            boolean placed = false;
+            for (int i = 0; i < result.size(); i++) {
+                if (!(result.get(i) instanceof ConditionNode) || ((ConditionNode) result.get(i)).isSet()) {
+                    continue;
+                }
+                ConditionNode kept = (ConditionNode) result.get(i);
+                if (!kept.getAttribute().equals(condition.getAttribute())) {
+                    continue;
+                }
+                if (conjunction ? holds(Relation.DISJOINT, kept, condition, numeric)
+                        : holds(Relation.COVERS, kept, condition, numeric)) {
+                    return ConstantNode.of(!conjunction);
+                }
+                // AND keeps the narrower condition, OR the wider one
+                ConditionNode narrower = conjunction ? kept : condition;
+                ConditionNode wider = conjunction ? condition : kept;
+                if (!placed && holds(Relation.IMPLIES, narrower, wider, numeric)) {
+                    placed = true;
+                    break;
+                }
+                if (holds(Relation.IMPLIES, wider, narrower, numeric)) {
+                    if (placed) {
+                        result.remove(i--);
+                    } else {
+                        result.set(i, condition);
+                        placed = true;
+                    }
+                }
+            }
+            if (!placed) {
+                result.add(condition);
+            }
+        }
+
+        result = toValueLists(conjunction, result);
+        if (result.isEmpty()) {
+            return ConstantNode.of(conjunction);
+        }
+        if (result.size() == 1) {
+            return result.get(0);
+        }
+        CompiledNode[] optimizedChildren = result.toArray(new CompiledNode[0]);
+        return conjunction ? new AndNode(optimizedChildren) : new OrNode(optimizedChildren);
+    }
+
+    /**
+     * Replaces the equalities on one attribute under an OR with a single {@code IN}, and the inequalities
+     * under an AND with a single {@code NOT IN}, once there are {@link #VALUE_LIST_MIN_SIZE} of them. The
+     * list takes the place of the first condition it replaces.
+     */
+    private static List<CompiledNode> toValueLists(boolean conjunction, List<CompiledNode> children) {
+        Operator merged = conjunction ? Operator.NE : Operator.EQ;
+        Map<String, List<ConditionNode>> byAttribute = new HashMap<>();
+        boolean found = false;
+        for (CompiledNode child : children) {
+            if (child instanceof ConditionNode && ((ConditionNode) child).getOperator() == merged) {
+                List<ConditionNode> group = byAttribute.computeIfAbsent(((ConditionNode) child).getAttribute(),
+                        k -> new ArrayList<>());
+                group.add((ConditionNode) child);
+                found |= group.size() >= VALUE_LIST_MIN_SIZE;
+            }
+        }
+        if (!found) {
+            return children;
+        }
+        List<CompiledNode> result = new ArrayList<>();
+        for (CompiledNode child : children) {
+            boolean mergeable = child instanceof ConditionNode && ((ConditionNode) child).getOperator() == merged;
+            List<ConditionNode> group = mergeable ? byAttribute.get(((ConditionNode) child).getAttribute()) : null;
+            if (group == null || group.size() < VALUE_LIST_MIN_SIZE) {
+                result.add(child);
+            } else if (group.get(0) == child) {
+                String[] literals = new String[group.size()];
+                for (int i = 0; i < literals.length; i++) {
+                    literals[i] = group.get(i).getLiteral();
+                }
+                result.add(new ConditionNode(group.get(0).getAttribute(), group.get(0).getSlot(),
+                        conjunction ? Operator.NOT_IN : Operator.IN, new ValueSet(literals)));
+            }
+        }
+        return result;
+    }
+
+    private static boolean holds(Relation relation, ConditionNode first, ConditionNode second, boolean numeric) {
+        Operator op1 = first.getOperator();
+        Operator op2 = second.getOperator();
+        if (!relation.test(op1, op2, Integer.signum(first.getLiteral().compareTo(second.getLiteral())))) {
+            return false;
+        }
+        return !numeric || relation.test(op1, op2,
+                Integer.signum(Double.compare(first.getNumericLiteral(), second.getNumericLiteral())));
+    }
+
+    private static boolean isLowerBound(Operator operator) {
+        return operator == Operator.GT || operator == Operator.GE;
+    }
+
+    private static boolean isUpperBound(Operator operator) {
+        return operator == Operator.LT || operator == Operator.LE;
+    }
+
+    /**
+     * Relations between {@code attr op1 L1} and {@code attr op2 L2}, given the sign of {@code L1}
+     * compared with {@code L2}. They are conservative: a relation that only holds in a discrete order is
+     * reported as not holding.
+     */
+    private enum Relation {
+        IMPLIES {
+            @Override
+            boolean test(Operator op1, Operator op2, int cmp) {
+                if (op1 == Operator.EQ) {
+                    return op2.test(cmp);
+                }
+                if (op2 == Operator.NE) {
+                    return !op1.test(-cmp);
+                }
+                if (isLowerBound(op1) && isLowerBound(op2)) {
+                    return cmp > 0 || (cmp == 0 && (op1 == Operator.GT || op2 == Operator.GE));
+                }
+                if (isUpperBound(op1) && isUpperBound(op2)) {
+                    return cmp < 0 || (cmp == 0 && (op1 == Operator.LT || op2 == Operator.LE));
+                }
+                return false;
+            }
+        },
+        DISJOINT {
+            @Override
+            boolean test(Operator op1, Operator op2, int cmp) {
+                if (op1 == Operator.EQ) {
+                    return !op2.test(cmp);
+                }
+                if (op2 == Operator.EQ) {
+                    return !op1.test(-cmp);
+                }
+                if (isLowerBound(op1) && isUpperBound(op2)) {
+                    return cmp > 0 || (cmp == 0 && (op1 == Operator.GT || op2 == Operator.LT));
+                }
+                if (isUpperBound(op1) && isLowerBound(op2)) {
+                    return cmp < 0 || (cmp == 0 && (op1 == Operator.LT || op2 == Operator.GT));
+                }
+                return false;
+            }
+        },
+        COVERS {
+            @Override
+            boolean test(Operator op1, Operator op2, int cmp) {
+                // Together they cover everything when whatever fails the first satisfies the second
+                return IMPLIES.test(op1.negate(), op2, cmp);
+            }
+        };
+
+        abstract boolean test(Operator op1, Operator op2, int cmp);
+    }
+}
@@ -0,0 +1,288 @@
+package org.example.ruleengine.engine;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.example.ruleengine.model.Node;
+
+/**
+ * Parser for rule expressions such as {@code age > 30 AND (department = 'Sales' OR salary >= 50000)} or
+ * {@code country IN ('US', 'CA')}. The input is scanned once; tokens are offsets into it, so the only
+ * strings created are the condition values. AND binds tighter than OR and both are left-associative.
+ * Errors report the offset of the offending token.
+ */
+public final class RuleParser {
+
+    private static final int END = 0;
+    private static final int OPEN = 1;
+    private static final int CLOSE = 2;
+    private static final int WORD = 3;
+    private static final int OPERATOR = 4;
+    private static final int COMMA = 5;
+
+    private final String input;
+    private int position;
+
+    // The current token
+    private int kind;
+    private int start;
+    private int end;
+
+    private RuleParser(String input) {
+        this.input = input;
+    }
+
+    public static Node parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Rule expression cannot be null or empty");
+        }
+        RuleParser parser = new RuleParser(expression);
+        parser.advance();
+        Node root = parser.parseExpression();
+        if (parser.kind != END) {
+            throw parser.error("Unexpected '" + parser.text() + "'");
+        }
+        return root;
+    }
+
+    /**
+     * The expression with surrounding whitespace removed and every other whitespace run outside quotes
+     * collapsed to a single space; expressions that parse identically normalize to the same text.
+     */
+    public static String normalize(String expression) {
+        StringBuilder normalized = new StringBuilder(expression.length());
+        char quote = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (quote == 0 && Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            if (quote == 0 && (c == '\'' || c == '"')) {
+                quote = c;
+            } else if (c == quote) {
+                quote = 0;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+
+    private Node parseExpression() {
+        Deque<Group> enclosing = new ArrayDeque<>();
+        Group group = new Group(-1);
+        while (true) {
+            while (kind == OPEN) {
+                enclosing.push(group);
+                group = new Group(start);
+                advance();
+            }
+            Node term = parseCondition();
+            while (true) {
+                group.and(term);
+                if (isKeyword("AND")) {
+                    advance();
+                    break;
+                }
+                if (isKeyword("OR")) {
+                    group.or();
+                    advance();
+                    break;
+                }
+                if (enclosing.isEmpty()) {
+                    return group.result();
+                }
+                if (kind != CLOSE) {
+                    throw error("Mismatched parentheses: '(' at position " + group.open + " is not closed");
+                }
+                advance();
+                term = group.result();
+                group = enclosing.pop();
+            }
+        }
+    }
+
+    private Node parseCondition() {
+        if (kind == END) {
+            throw error("Unexpected end of expression");
+        }
+        if (kind != WORD) {
+            throw error("Expected a condition but found '" + text() + "'");
+        }
+        int attributeStart = start;
+        int attributeEnd = end;
+        advance();
+        if (kind == END) {
+            throw error("Incomplete condition: missing operator and value");
+        }
+        if (isKeyword("IN") || isKeyword("NOT")) {
+            return condition(parseValueList(attributeStart, attributeEnd));
+        }
+        if (kind != OPERATOR || !isValidOperator()) {
+            throw error("Invalid operator: " + text());
+        }
+        int operatorStart = start;
+        int operatorEnd = end;
+        advance();
+        if (kind != WORD) {
+            throw error("Incomplete condition: missing value");
+        }
+        StringBuilder value = new StringBuilder(attributeEnd - attributeStart + operatorEnd - operatorStart
+                + end - start + 2);
+        value.append(input, attributeStart, attributeEnd).append(' ')
+                .append(input, operatorStart, operatorEnd).append(' ')
+                .append(input, start, end);
+        advance();
+        return condition(value.toString());
+    }
+
+    // attr IN (v1, v2, ...) or attr NOT IN (...), rendered with single spaces and ", " between values
+    private String parseValueList(int attributeStart, int attributeEnd) {
+        StringBuilder value = new StringBuilder().append(input, attributeStart, attributeEnd);
+        if (isKeyword("NOT")) {
+            value.append(" NOT");
+            advance();
+            if (!isKeyword("IN")) {
+                throw error("Invalid operator: NOT " + text());
+            }
+        }
+        value.append(" IN (");
+        advance();
+        if (kind != OPEN) {
+            throw error("Expected '(' after IN");
+        }
+        advance();
+        while (true) {
+            if (kind != WORD) {
+                throw error("Incomplete condition: missing value");
+            }
+            value.append(input, start, end);
+            advance();
+            if (kind == CLOSE) {
+                break;
+            }
+            if (kind != COMMA) {
+                throw error("Expected ',' or ')' but found '" + text() + "'");
+            }
+            value.append(", ");
+            advance();
+        }
+        advance();
+        return value.append(')').toString();
+    }
+
+    private static Node condition(String value) {
+        Node node = new Node();
+        node.setType("condition");
+        node.setNodeValue(value);
+        return node;
+    }
+
+    private static Node operator(String value, Node left, Node right) {
+        Node node = new Node();
+        node.setType("operator");
+        node.setNodeValue(value);
+        node.setLeft(left);
+        node.setRight(right);
+        return node;
+    }
+
+    // A parenthesised group, or the whole expression: the OR of the finished AND chains and the chain
+    // being built
+    private static final class Group {
+
+        private final int open;
+        private Node disjunction;
+        private Node conjunction;
+
+        Group(int open) {
+            this.open = open;
+        }
+
+        void and(Node term) {
+            conjunction = conjunction == null ? term : operator("AND", conjunction, term);
+        }
+
+        void or() {
+            disjunction = result();
+            conjunction = null;
+        }
+
+        Node result() {
+            return disjunction == null ? conjunction : operator("OR", disjunction, conjunction);
+        }
+    }
+
+    private void advance() {
+        int length = input.length();
+        while (position < length && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+        start = position;
+        if (position == length) {
+            kind = END;
+            end = position;
+            return;
+        }
+        char c = input.charAt(position);
+        if (c == '(' || c == ')' || c == ',') {
+            kind = c == '(' ? OPEN : c == ')' ? CLOSE : COMMA;
+            end = ++position;
+            return;
+        }
+        if (isOperatorChar(c)) {
+            while (position < length && isOperatorChar(input.charAt(position))) {
+                position++;
+            }
+            kind = OPERATOR;
+            end = position;
+            return;
+        }
+        while (position < length) {
+            c = input.charAt(position);
+            if (c == '\'' || c == '"') {
+                int closing = input.indexOf(c, position + 1);
+                if (closing < 0) {
+                    throw new IllegalArgumentException("Unterminated quote at position " + position);
+                }
+                position = closing + 1;
+            } else if (Character.isWhitespace(c) || c == '(' || c == ')' || c == ',' || isOperatorChar(c)) {
+                break;
+            } else {
+                position++;
+            }
+        }
+        kind = WORD;
+        end = position;
+    }
+
+    private static boolean isOperatorChar(char c) {
+        return c == '>' || c == '<' || c == '=' || c == '!';
+    }
+
+    private boolean isValidOperator() {
+        int length = end - start;
+        char first = input.charAt(start);
+        if (length == 1) {
+            return first == '>' || first == '<' || first == '=';
+        }
+        return length == 2 && input.charAt(start + 1) == '=' && (first == '>' || first == '<' || first == '!');
+    }
+
+    private boolean isKeyword(String keyword) {
+        return kind == WORD && end - start == keyword.length() && input.startsWith(keyword, start);
+    }
+
+    private String text() {
+        return input.substring(start, end);
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + start);
+    }
+}
@@ -0,0 +1,207 @@
+package org.example.ruleengine.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Selectivity and cost statistics for one compiled rule, gathered from a sample of live evaluations.
+ * A sampled evaluation visits every child of every AND/OR node, so each node's true rate is measured
+ * without the bias short-circuiting would introduce, and times each condition. The statistics drive
+ * {@link #reorder}, which puts the children most likely to decide an AND/OR, per unit of cost, first.
+ */
+public final class RuleProfile {
+
+    // Used for nodes that have not been sampled yet
+    private static final double DEFAULT_COST = 1.0;
+    private static final double DEFAULT_TRUE_RATE = 0.5;
+
+    private final int sampleInterval;
+    private final Map<CompiledNode, NodeStats> stats = new ConcurrentHashMap<>();
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder reorders = new LongAdder();
+
+    public RuleProfile(int sampleInterval) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("Sample interval must be at least 1");
+        }
+        this.sampleInterval = sampleInterval;
+    }
+
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    public long getSamples() {
+        return samples.sum();
+    }
+
+    public long getReorders() {
+        return reorders.sum();
+    }
+
+    boolean evaluate(CompiledNode root, SlotRecord record) {
+        samples.increment();
+        return evaluateNode(root, record);
+    }
+
+    private boolean evaluateNode(CompiledNode node, SlotRecord record) {
+        boolean result;
+        long nanos = 0;
+        if (node instanceof AndNode || node instanceof OrNode) {
+            boolean conjunction = node instanceof AndNode;
+            result = conjunction;
+            for (CompiledNode child : children(node)) {
+                if (evaluateNode(child, record) != conjunction) {
+                    result = !conjunction;
+                }
+            }
+        } else {
+            long start = System.nanoTime();
+            result = node.evaluate(record);
+            nanos = System.nanoTime() - start;
+        }
+        stats.computeIfAbsent(node, k -> new NodeStats()).record(result, nanos);
+        return result;
+    }
+
+    /**
+     * Returns the tree with the children of every AND/OR node sorted by expected cost per chance of
+     * deciding the node, or the same tree if nothing moved. Nodes whose order is unchanged are reused,
+     * and the statistics of replaced nodes carry over to their replacements.
+     */
+    CompiledNode reorder(CompiledNode root, long minSamples) {
+        if (samples.sum() < minSamples) {
+            return root;
+        }
+        CompiledNode reordered = reorderNode(root).node;
+        if (reordered != root) {
+            reorders.increment();
+        }
+        return reordered;
+    }
+
+    private Estimate reorderNode(CompiledNode node) {
+        NodeStats nodeStats = stats.get(node);
+        if (!(node instanceof AndNode || node instanceof OrNode)) {
+            double cost = nodeStats == null ? DEFAULT_COST : Math.max(nodeStats.averageNanos(), DEFAULT_COST);
+            double trueRate = nodeStats == null ? DEFAULT_TRUE_RATE : nodeStats.trueRate();
+            return new Estimate(node, cost, trueRate);
+        }
+        boolean conjunction = node instanceof AndNode;
+        CompiledNode[] children = children(node);
+        Estimate[] estimates = new Estimate[children.length];
+        boolean changed = false;
+        for (int i = 0; i < children.length; i++) {
+            estimates[i] = reorderNode(children[i]);
+            changed |= estimates[i].node != children[i];
+        }
+        Estimate[] sorted = estimates.clone();
+        // Stable sort, so children with equal rank keep their authored order
+        Arrays.sort(sorted, Comparator.comparingDouble(estimate -> estimate.rank(conjunction)));
+        for (int i = 0; i < sorted.length; i++) {
+            changed |= sorted[i] != estimates[i];
+        }
+
+        // Expected cost of the short-circuit evaluation, assuming independent children
+        double cost = 0;
+        double reached = 1;
+        double independentTrueRate = conjunction ? 1 : 0;
+        for (Estimate estimate : sorted) {
+            cost += reached * estimate.cost;
+            reached *= conjunction ? estimate.trueRate : 1 - estimate.trueRate;
+            independentTrueRate = conjunction ? independentTrueRate * estimate.trueRate
+                    : 1 - (1 - independentTrueRate) * (1 - estimate.trueRate);
+        }
+        double trueRate = nodeStats == null ? independentTrueRate : nodeStats.trueRate();
+
+        CompiledNode result = node;
+        if (changed) {
+            CompiledNode[] reorderedChildren = new CompiledNode[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                reorderedChildren[i] = sorted[i].node;
+            }
+            result = conjunction ? new AndNode(reorderedChildren) : new OrNode(reorderedChildren);
+            if (nodeStats != null) {
+                stats.put(result, nodeStats);
+                stats.remove(node);
+            }
+        }
+        return new Estimate(result, cost, trueRate);
+    }
+
+    public Map<String, Object> describe(CompiledNode node) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        if (node instanceof AndNode || node instanceof OrNode) {
+            description.put("node", node instanceof AndNode ? "AND" : "OR");
+        } else {
+            description.put("node", node.toString());
+        }
+        NodeStats nodeStats = stats.get(node);
+        description.put("evaluations", nodeStats == null ? 0 : nodeStats.evaluations.sum());
+        description.put("trueRate", nodeStats == null ? null : nodeStats.trueRate());
+        if (!(node instanceof AndNode || node instanceof OrNode)) {
+            description.put("averageNanos", nodeStats == null ? null : nodeStats.averageNanos());
+        } else {
+            List<Map<String, Object>> children = new ArrayList<>();
+            for (CompiledNode child : children(node)) {
+                children.add(describe(child));
+            }
+            description.put("children", children);
+        }
+        return description;
+    }
+
+    private static CompiledNode[] children(CompiledNode node) {
+        return node instanceof AndNode ? ((AndNode) node).getChildren() : ((OrNode) node).getChildren();
+    }
+
+    private static final class NodeStats {
+
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder trues = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        void record(boolean result, long elapsedNanos) {
+            evaluations.increment();
+            if (result) {
+                trues.increment();
+            }
+            nanos.add(elapsedNanos);
+        }
+
+        double trueRate() {
+            long count = evaluations.sum();
+            return count == 0 ? DEFAULT_TRUE_RATE : (double) trues.sum() / count;
+        }
+
+        double averageNanos() {
+            long count = evaluations.sum();
+            return count == 0 ? DEFAULT_COST : (double) nanos.sum() / count;
+        }
+    }
+
+    private static final class Estimate {
+
+        private final CompiledNode node;
+        private final double cost;
+        private final double trueRate;
+
+        Estimate(CompiledNode node, double cost, double trueRate) {
+            this.node = node;
+            this.cost = cost;
+            this.trueRate = trueRate;
+        }
+
+        // Cost per chance of short-circuiting: a false child ends an AND, a true child ends an OR
+        double rank(boolean conjunction) {
+            double decides = conjunction ? 1 - trueRate : trueRate;
+            return decides <= 0 ? Double.MAX_VALUE : cost / decides;
+        }
+    }
+}
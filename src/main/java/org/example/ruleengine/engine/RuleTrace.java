@@ -0,0 +1,100 @@
+package org.example.ruleengine.engine;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One evaluation of a compiled rule, recorded node by node: each node's result and time, the record
+ * value every condition compared, and the children short-circuiting skipped. The trace is taken by a
+ * separate walk of the compiled tree with the same short-circuit order, so evaluation without tracing,
+ * interpreted or generated, runs exactly as it does otherwise.
+ * <p>
+ * Rules flattened for depth are traced as the list of conditions evaluated, in order.
+ */
+public final class RuleTrace {
+
+    private final boolean result;
+    private final Map<String, Object> root;
+
+    private RuleTrace(boolean result, Map<String, Object> root) {
+        this.result = result;
+        this.root = root;
+    }
+
+    /**
+     * Traces a record that has already been filled through {@link CompiledRule#load}.
+     */
+    public static RuleTrace of(CompiledRule rule, SlotRecord record) {
+        Map<String, Object> root = new LinkedHashMap<>();
+        boolean result = trace(rule.getRoot(), record, root);
+        return new RuleTrace(result, root);
+    }
+
+    public boolean getResult() {
+        return result;
+    }
+
+    public Map<String, Object> describe() {
+        return root;
+    }
+
+    private static boolean trace(CompiledNode node, SlotRecord record, Map<String, Object> description) {
+        long start = System.nanoTime();
+        boolean value;
+        if (node instanceof AndNode || node instanceof OrNode) {
+            boolean conjunction = node instanceof AndNode;
+            description.put("node", conjunction ? "AND" : "OR");
+            CompiledNode[] children = conjunction ? ((AndNode) node).getChildren() : ((OrNode) node).getChildren();
+            List<Map<String, Object>> childDescriptions = new ArrayList<>(children.length);
+            value = conjunction;
+            boolean decided = false;
+            for (CompiledNode child : children) {
+                Map<String, Object> childDescription = new LinkedHashMap<>();
+                if (decided) {
+                    childDescription.put("node", label(child));
+                    childDescription.put("skipped", true);
+                } else if (trace(child, record, childDescription) != conjunction) {
+                    value = !conjunction;
+                    decided = true;
+                }
+                childDescriptions.add(childDescription);
+            }
+            description.put("result", value);
+            description.put("nanos", System.nanoTime() - start);
+            description.put("children", childDescriptions);
+            return value;
+        }
+        description.put("node", label(node));
+        if (node instanceof ConditionNode) {
+            ConditionNode condition = (ConditionNode) node;
+            description.put("attribute", condition.getAttribute());
+            description.put("value", record.get(condition.getSlot()));
+            value = condition.evaluate(record);
+        } else if (node instanceof FlatNode) {
+            FlatNode flat = (FlatNode) node;
+            List<Map<String, Object>> conditions = new ArrayList<>();
+            value = flat.evaluate(position -> {
+                Map<String, Object> conditionDescription = new LinkedHashMap<>();
+                conditionDescription.put("position", position);
+                boolean conditionValue = trace(flat.conditions[position], record, conditionDescription);
+                conditions.add(conditionDescription);
+                return conditionValue;
+            });
+            description.put("conditions", conditions);
+        } else {
+            value = node.evaluate(record);
+        }
+        description.put("result", value);
+        description.put("nanos", System.nanoTime() - start);
+        return value;
+    }
+
+    private static String label(CompiledNode node) {
+        if (node instanceof AndNode) {
+            return "AND";
+        }
+        return node instanceof OrNode ? "OR" : node.toString();
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.ruleengine.engine;
+
+import java.util.Arrays;
+
+/**
+ * A record laid out for one compiled rule: slot {@code i} holds the value of the rule's {@code i}-th
+ * attribute, numbers unboxed. Instances can be reused across records by the same thread.
+ */
+public final class SlotRecord {
+
+    static final byte MISSING = 0;
+    static final byte NUMBER = 1;
+    static final byte STRING = 2;
+    static final byte UNSUPPORTED = 3;
+
+    final double[] numbers;
+    final String[] strings;
+    final byte[] kinds;
+
+    SlotRecord(int size) {
+        this.numbers = new double[size];
+        this.strings = new String[size];
+        this.kinds = new byte[size];
+    }
+
+    public int size() {
+        return kinds.length;
+    }
+
+    public void set(int slot, Object value) {
+        if (value instanceof Number) {
+            setNumber(slot, ((Number) value).doubleValue());
+        } else if (value instanceof String) {
+            setString(slot, (String) value);
+        } else {
+            strings[slot] = null;
+            kinds[slot] = value == null ? MISSING : UNSUPPORTED;
+        }
+    }
+
+    public void setNumber(int slot, double value) {
+        numbers[slot] = value;
+        strings[slot] = null;
+        kinds[slot] = NUMBER;
+    }
+
+    public void setString(int slot, String value) {
+        strings[slot] = value;
+        kinds[slot] = STRING;
+    }
+
+    // The value as the conditions see it, numbers as doubles; null when missing or unsupported
+    Object get(int slot) {
+        if (kinds[slot] == NUMBER) {
+            return numbers[slot];
+        }
+        return kinds[slot] == STRING ? strings[slot] : null;
+    }
+
+    public void clear() {
+        Arrays.fill(kinds, MISSING);
+        Arrays.fill(strings, null);
+    }
+
+    public SlotRecord copy() {
+        SlotRecord copy = new SlotRecord(kinds.length);
+        System.arraycopy(numbers, 0, copy.numbers, 0, numbers.length);
+        System.arraycopy(strings, 0, copy.strings, 0, strings.length);
+        System.arraycopy(kinds, 0, copy.kinds, 0, kinds.length);
+        return copy;
+    }
+
+    /**
+     * Hash of the value in every slot, computed from the unboxed numbers and the strings' cached hashes,
+     * consistent with {@link #sameValues}.
+     */
+    public int valuesHash() {
+        int hash = 1;
+        for (int i = 0; i < kinds.length; i++) {
+            int value = switch (kinds[i]) {
+                case NUMBER -> Double.hashCode(numbers[i]);
+                case STRING -> strings[i].hashCode();
+                default -> 0;
+            };
+            hash = 31 * hash + (value ^ kinds[i]);
+        }
+        return hash;
+    }
+
+    // Numbers are equal when their bits are, so -0.0 differs from 0.0 and NaN equals NaN
+    public boolean sameValues(SlotRecord other) {
+        if (other.kinds.length != kinds.length) {
+            return false;
+        }
+        for (int i = 0; i < kinds.length; i++) {
+            if (kinds[i] != other.kinds[i]) {
+                return false;
+            }
+            if (kinds[i] == NUMBER
+                    && Double.doubleToLongBits(numbers[i]) != Double.doubleToLongBits(other.numbers[i])) {
+                return false;
+            }
+            if (kinds[i] == STRING && !strings[i].equals(other.strings[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,199 @@
+package org.example.ruleengine.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the conditions on one attribute for one kind of value (numbers or strings). Range conditions
+ * are kept sorted by literal so the satisfied ones form a prefix or suffix found by binary search;
+ * equality conditions are hashed by literal.
+ */
+final class ValueIndex<T extends Comparable<T>> {
+
+    private final SortedConditions<T> greater;
+    private final SortedConditions<T> greaterOrEqual;
+    private final SortedConditions<T> less;
+    private final SortedConditions<T> lessOrEqual;
+    private final SortedConditions<T> notEqual;
+    private final PersistentMap<T, int[]> equal;
+
+    private ValueIndex(SortedConditions<T> greater, SortedConditions<T> greaterOrEqual, SortedConditions<T> less,
+            SortedConditions<T> lessOrEqual, SortedConditions<T> notEqual, PersistentMap<T, int[]> equal) {
+        this.greater = greater;
+        this.greaterOrEqual = greaterOrEqual;
+        this.less = less;
+        this.lessOrEqual = lessOrEqual;
+        this.notEqual = notEqual;
+        this.equal = equal;
+    }
+
+    static <T extends Comparable<T>> ValueIndex<T> empty() {
+        SortedConditions<T> none = new SortedConditions<>(new Object[0], new int[0]);
+        return new ValueIndex<>(none, none, none, none, none, PersistentMap.empty());
+    }
+
+    boolean isEmpty() {
+        return greater.ids.length == 0 && greaterOrEqual.ids.length == 0 && less.ids.length == 0
+                && lessOrEqual.ids.length == 0 && notEqual.ids.length == 0 && equal.isEmpty();
+    }
+
+    void collect(T value, IntBuffer satisfied) {
+        // attr > literal holds for every literal below the value, attr < literal for every literal above it
+        satisfied.addAll(greater.ids, 0, greater.lowerBound(value));
+        satisfied.addAll(greaterOrEqual.ids, 0, greaterOrEqual.upperBound(value));
+        satisfied.addAll(less.ids, less.upperBound(value), less.ids.length);
+        satisfied.addAll(lessOrEqual.ids, lessOrEqual.lowerBound(value), lessOrEqual.ids.length);
+        satisfied.addAll(notEqual.ids, 0, notEqual.lowerBound(value));
+        satisfied.addAll(notEqual.ids, notEqual.upperBound(value), notEqual.ids.length);
+        int[] equalIds = equal.get(value);
+        if (equalIds != null) {
+            satisfied.addAll(equalIds, 0, equalIds.length);
+        }
+    }
+
+    /**
+     * Copy holding the conditions of {@code added} but not those of {@code removed}. Lists neither of them
+     * touches are shared with this index.
+     */
+    ValueIndex<T> with(Builder<T> added, Builder<T> removed) {
+        PersistentMap<T, int[]> nextEqual = equal;
+        for (Map.Entry<T, List<Integer>> entry : removed.equal.entrySet()) {
+            int[] ids = nextEqual.get(entry.getKey());
+            if (ids != null) {
+                int[] kept = Arrays.stream(ids).filter(id -> !entry.getValue().contains(id)).toArray();
+                nextEqual = kept.length == 0 ? nextEqual.without(entry.getKey())
+                        : nextEqual.with(entry.getKey(), kept);
+            }
+        }
+        for (Map.Entry<T, List<Integer>> entry : added.equal.entrySet()) {
+            int[] ids = nextEqual.get(entry.getKey());
+            int[] merged = ids == null ? new int[0] : ids;
+            int start = merged.length;
+            merged = Arrays.copyOf(merged, start + entry.getValue().size());
+            for (int i = 0; i < entry.getValue().size(); i++) {
+                merged[start + i] = entry.getValue().get(i);
+            }
+            nextEqual = nextEqual.with(entry.getKey(), merged);
+        }
+        return new ValueIndex<>(greater.with(added.greater, removed.greater),
+                greaterOrEqual.with(added.greaterOrEqual, removed.greaterOrEqual),
+                less.with(added.less, removed.less),
+                lessOrEqual.with(added.lessOrEqual, removed.lessOrEqual),
+                notEqual.with(added.notEqual, removed.notEqual), nextEqual);
+    }
+
+    static final class Builder<T extends Comparable<T>> {
+
+        private final List<Entry<T>> greater = new ArrayList<>();
+        private final List<Entry<T>> greaterOrEqual = new ArrayList<>();
+        private final List<Entry<T>> less = new ArrayList<>();
+        private final List<Entry<T>> lessOrEqual = new ArrayList<>();
+        private final List<Entry<T>> notEqual = new ArrayList<>();
+        private final Map<T, List<Integer>> equal = new HashMap<>();
+
+        void add(Operator operator, T literal, int conditionId) {
+            Entry<T> entry = new Entry<>(literal, conditionId);
+            switch (operator) {
+                case GT -> greater.add(entry);
+                case GE -> greaterOrEqual.add(entry);
+                case LT -> less.add(entry);
+                case LE -> lessOrEqual.add(entry);
+                case NE -> notEqual.add(entry);
+                case EQ -> equal.computeIfAbsent(literal, k -> new ArrayList<>()).add(conditionId);
+            }
+        }
+    }
+
+    private static final class Entry<T> {
+
+        private final T literal;
+        private final int conditionId;
+
+        Entry(T literal, int conditionId) {
+            this.literal = literal;
+            this.conditionId = conditionId;
+        }
+    }
+
+    private static final class SortedConditions<T extends Comparable<T>> {
+
+        private final Object[] literals;
+        private final int[] ids;
+
+        SortedConditions(Object[] literals, int[] ids) {
+            this.literals = literals;
+            this.ids = ids;
+        }
+
+        // Merges the sorted additions into the kept entries in one pass instead of sorting everything again
+        SortedConditions<T> with(List<Entry<T>> added, List<Entry<T>> removed) {
+            if (added.isEmpty() && removed.isEmpty()) {
+                return this;
+            }
+            Set<Integer> removedIds = new HashSet<>();
+            for (Entry<T> entry : removed) {
+                removedIds.add(entry.conditionId);
+            }
+            added.sort((a, b) -> a.literal.compareTo(b.literal));
+            Object[] mergedLiterals = new Object[literals.length + added.size()];
+            int[] mergedIds = new int[mergedLiterals.length];
+            int size = 0;
+            int i = 0;
+            int j = 0;
+            while (i < literals.length || j < added.size()) {
+                if (j == added.size() || (i < literals.length && literal(i).compareTo(added.get(j).literal) <= 0)) {
+                    if (!removedIds.contains(ids[i])) {
+                        mergedLiterals[size] = literals[i];
+                        mergedIds[size++] = ids[i];
+                    }
+                    i++;
+                } else {
+                    mergedLiterals[size] = added.get(j).literal;
+                    mergedIds[size++] = added.get(j).conditionId;
+                    j++;
+                }
+            }
+            return new SortedConditions<>(Arrays.copyOf(mergedLiterals, size), Arrays.copyOf(mergedIds, size));
+        }
+
+        // First position whose literal is not less than the value
+        int lowerBound(T value) {
+            int low = 0;
+            int high = literals.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (literal(mid).compareTo(value) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // First position whose literal is greater than the value
+        int upperBound(T value) {
+            int low = 0;
+            int high = literals.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (literal(mid).compareTo(value) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T literal(int index) {
+            return (T) literals[index];
+        }
+    }
+}
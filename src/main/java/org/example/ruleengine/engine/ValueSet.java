@@ -0,0 +1,95 @@
+package org.example.ruleengine.engine;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The literals of an {@code IN} or {@code NOT IN} condition, hashed so that membership is one lookup
+ * whatever the list length. A number is a member when it equals a numeric literal under
+ * {@link Double#compare}, a string when it equals a literal's text, exactly as the equivalent chain of
+ * {@code =} conditions would decide.
+ */
+public final class ValueSet {
+
+    // doubleToLongBits never returns a non-canonical NaN, so this pattern can mark empty slots
+    private static final long EMPTY = 0x7ff0000000000001L;
+
+    private final String[] literals;
+    private final Set<String> strings;
+    private final long[] numberTable;
+    private final int shift;
+    // First literal that is not a number, or null when all of them are
+    private final String firstNonNumeric;
+
+    public ValueSet(String[] literals) {
+        if (literals.length == 0) {
+            throw new IllegalArgumentException("Value list cannot be empty");
+        }
+        this.literals = literals.clone();
+        this.strings = new HashSet<>();
+        int capacity = Integer.highestOneBit(Math.max(literals.length, 2) * 2 - 1) << 1;
+        this.numberTable = new long[capacity];
+        this.shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        Arrays.fill(numberTable, EMPTY);
+        String nonNumeric = null;
+        for (String literal : literals) {
+            strings.add(literal);
+            try {
+                addNumber(Double.parseDouble(literal));
+            } catch (NumberFormatException e) {
+                if (nonNumeric == null) {
+                    nonNumeric = literal;
+                }
+            }
+        }
+        this.firstNonNumeric = nonNumeric;
+    }
+
+    public String[] getLiterals() {
+        return literals.clone();
+    }
+
+    public boolean isNumeric() {
+        return firstNonNumeric == null;
+    }
+
+    String getFirstNonNumeric() {
+        return firstNonNumeric;
+    }
+
+    public boolean contains(String value) {
+        return strings.contains(value);
+    }
+
+    public boolean contains(double value) {
+        long bits = Double.doubleToLongBits(value);
+        for (int i = slot(bits); ; i = (i + 1) & (numberTable.length - 1)) {
+            long entry = numberTable[i];
+            if (entry == bits) {
+                return true;
+            }
+            if (entry == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    private void addNumber(double value) {
+        long bits = Double.doubleToLongBits(value);
+        int i = slot(bits);
+        while (numberTable[i] != EMPTY && numberTable[i] != bits) {
+            i = (i + 1) & (numberTable.length - 1);
+        }
+        numberTable[i] = bits;
+    }
+
+    private int slot(long bits) {
+        return (int) ((bits * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + String.join(", ", literals) + ")";
+    }
+}
@@ -13,7 +13,11 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
+// Links are left out of the generated equals, hashCode and toString, which would otherwise recurse
+// through the whole subtree
 @Data
 @Entity
 @Table(name = "nodes")
@@ -30,14 +34,20 @@ public class Node {
     @ManyToOne
     @JoinColumn(name = "rule_id")
     @JsonBackReference
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Rule rule;
 
     @OneToOne(cascade = CascadeType.ALL)
     @JoinColumn(name = "left_node_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Node left;
 
     @OneToOne(cascade = CascadeType.ALL)
     @JoinColumn(name = "right_node_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Node right;
 
     // Getters and setters
@@ -3,6 +3,7 @@ package org.example.ruleengine.model;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.example.ruleengine.serializer.AstCodec;
 import org.example.ruleengine.serializer.RuleSerializer;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
@@ -15,18 +16,28 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Lob;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 @Data
 @Entity
 @Table(name = "rules")
 @JsonSerialize(using = RuleSerializer.class)
 public class Rule {
+    // Sequence ids are allocated in blocks, which lets Hibernate batch rule inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rules_seq")
+    @SequenceGenerator(name = "rules_seq", sequenceName = "rules_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -41,6 +52,48 @@ public class Rule {
     @JsonManagedReference
     private List<Node> nodes = new ArrayList<>();
 
+    // The AST in AstCodec form; when set, it is the rule's AST, whatever node rows a migration has kept
+    @Lob
+    @Column(name = "ast")
+    private byte[] ast;
+
+    // Counts updates of the rule; only ever incremented in the database, so concurrent updates each count
+    @Column(name = "revision", updatable = false)
+    private Long revision;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Node decodedRootNode;
+
+    public Node getRootNode() {
+        if (rootNode == null && ast != null) {
+            if (decodedRootNode == null) {
+                decodedRootNode = AstCodec.decode(ast);
+            }
+            return decodedRootNode;
+        }
+        return rootNode;
+    }
+
+    public void setAst(byte[] ast) {
+        this.ast = ast;
+        this.decodedRootNode = null;
+    }
+
+    /**
+     * Stores the AST as a single blob instead of node rows. Node rows kept by a migration are left for
+     * {@code RuleStorage} to drop, since rules combined from this one may still share them.
+     */
+    public void storeAst(Node rootNode) {
+        this.ast = AstCodec.encode(rootNode);
+        this.decodedRootNode = rootNode;
+        this.rootNode = null;
+        this.nodes.removeIf(node -> node.getId() == null);
+    }
+
     // Add this method to properly set up the relationship
     public void setRootNode(Node rootNode) {
         this.rootNode = rootNode;
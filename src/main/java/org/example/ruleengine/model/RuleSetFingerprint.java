@@ -0,0 +1,42 @@
+package org.example.ruleengine.model;
+
+/**
+ * A cheap summary of the stored rule set: the rule count, the sum of the rule IDs and the sum of their
+ * revisions. IDs are never reused and an update always raises a revision, so creating or updating
+ * rules changes it.
+ */
+public final class RuleSetFingerprint {
+
+    private final long rules;
+    private final long idSum;
+    private final long revisionSum;
+
+    public RuleSetFingerprint(Long rules, Long idSum, Long revisionSum) {
+        this.rules = rules == null ? 0 : rules;
+        this.idSum = idSum == null ? 0 : idSum;
+        this.revisionSum = revisionSum == null ? 0 : revisionSum;
+    }
+
+    public long getRules() {
+        return rules;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof RuleSetFingerprint)) {
+            return false;
+        }
+        RuleSetFingerprint fingerprint = (RuleSetFingerprint) other;
+        return rules == fingerprint.rules && idSum == fingerprint.idSum && revisionSum == fingerprint.revisionSum;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(rules) * 31 * 31 + Long.hashCode(idSum) * 31 + Long.hashCode(revisionSum);
+    }
+
+    @Override
+    public String toString() {
+        return rules + " rules, ID sum " + idSum + ", revision sum " + revisionSum;
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.ruleengine.repository;
+
+import org.example.ruleengine.model.AttributeDefinition;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AttributeDefinitionRepository extends JpaRepository<AttributeDefinition, Long> {
+}
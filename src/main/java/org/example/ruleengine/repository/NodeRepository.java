@@ -1,8 +1,24 @@
 package org.example.ruleengine.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.example.ruleengine.model.Node;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface NodeRepository extends JpaRepository<Node, Long> {
-    // Additional query methods can be defined here if needed
+
+    // Those of the given nodes that a node outside them, or a rule other than the given one, links to
+    @Query("select c.id from Node c where c.id in :ids and (exists (select p from Node p"
+            + " where (p.left = c or p.right = c) and p.id not in :ids)"
+            + " or exists (select r from Rule r where r.rootNode = c and r.id <> :ruleId))")
+    List<Long> findLinkedFromOutside(@Param("ids") Collection<Long> ids, @Param("ruleId") Long ruleId);
+
+    // Clears the references between node rows so that they can be deleted in any order
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Node n set n.left = null, n.right = null, n.rule = null")
+    int unlinkAll();
 }
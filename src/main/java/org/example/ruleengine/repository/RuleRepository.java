@@ -1,7 +1,38 @@
 package org.example.ruleengine.repository;
 
+import java.util.List;
+
 import org.example.ruleengine.model.Rule;
+import org.example.ruleengine.model.RuleSetFingerprint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface RuleRepository extends JpaRepository<Rule, Long> {
+
+    @Query("select r from Rule r where r.ast is null and r.rootNode is not null")
+    List<Rule> findRulesStoredAsNodes();
+
+    @Query("select r from Rule r where r.rootNode is not null")
+    List<Rule> findRulesWithNodeRows();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Rule r set r.rootNode = null where r.ast is not null")
+    int detachRootNodes();
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Rule r set r.revision = coalesce(r.revision, 0) + 1 where r.id = :id")
+    int incrementRevision(@Param("id") Long id);
+
+    @Query("select coalesce(r.revision, 0) from Rule r where r.id = :id")
+    Long findRevision(@Param("id") Long id);
+
+    @Query("select new org.example.ruleengine.model.RuleSetFingerprint(count(r), sum(r.id), sum(coalesce(r.revision, 0)))"
+            + " from Rule r")
+    RuleSetFingerprint fingerprint();
+
+    // ID, AST and revision of every rule stored as a blob, without loading the entities
+    @Query("select r.id, r.ast, coalesce(r.revision, 0) from Rule r where r.ast is not null")
+    List<Object[]> findStoredAsts();
 }
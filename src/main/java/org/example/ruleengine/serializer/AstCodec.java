@@ -0,0 +1,143 @@
+package org.example.ruleengine.serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.example.ruleengine.model.Node;
+
+/**
+ * Compact binary form of a rule AST, stored in a single column instead of one row per node.
+ * <p>
+ * Layout: one format version byte, then the nodes in pre-order. Each node is a tag byte ({@code AND},
+ * {@code OR} or condition); a condition is followed by its text as a varint length and UTF-8 bytes.
+ */
+public final class AstCodec {
+
+    public static final byte FORMAT_VERSION = 1;
+
+    private static final byte TAG_AND = 1;
+    private static final byte TAG_OR = 2;
+    private static final byte TAG_CONDITION = 3;
+
+    private AstCodec() {
+    }
+
+    public static byte[] encode(Node rootNode) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(FORMAT_VERSION);
+        encode(rootNode, out);
+        return out.toByteArray();
+    }
+
+    public static Node decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            throw new IllegalArgumentException("AST blob is empty");
+        }
+        if (bytes[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported AST format version: " + bytes[0]);
+        }
+        int[] position = {1};
+        Node rootNode = decode(bytes, position);
+        if (position[0] != bytes.length) {
+            throw new IllegalArgumentException("Corrupt AST blob: trailing bytes");
+        }
+        return rootNode;
+    }
+
+    private static void encode(Node rootNode, ByteArrayOutputStream out) {
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(requireNode(rootNode));
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            if ("operator".equals(node.getType())) {
+                if ("AND".equals(node.getNodeValue())) {
+                    out.write(TAG_AND);
+                } else if ("OR".equals(node.getNodeValue())) {
+                    out.write(TAG_OR);
+                } else {
+                    throw new IllegalArgumentException("Invalid operator: " + node.getNodeValue());
+                }
+                pending.push(requireNode(node.getRight()));
+                pending.push(requireNode(node.getLeft()));
+            } else if ("condition".equals(node.getType())) {
+                out.write(TAG_CONDITION);
+                byte[] text = node.getNodeValue().getBytes(StandardCharsets.UTF_8);
+                writeVarint(text.length, out);
+                out.write(text, 0, text.length);
+            } else {
+                throw new IllegalArgumentException("Invalid node type: " + node.getType());
+            }
+        }
+    }
+
+    private static Node requireNode(Node node) {
+        if (node == null) {
+            throw new IllegalArgumentException("Node cannot be null");
+        }
+        return node;
+    }
+
+    private static Node decode(byte[] bytes, int[] position) {
+        Node rootNode = null;
+        // Operators still waiting for a child; the left child is always decoded first
+        Deque<Node> open = new ArrayDeque<>();
+        do {
+            if (position[0] >= bytes.length) {
+                throw new IllegalArgumentException("Corrupt AST blob: unexpected end");
+            }
+            byte tag = bytes[position[0]++];
+            Node node = new Node();
+            if (tag == TAG_AND || tag == TAG_OR) {
+                node.setType("operator");
+                node.setNodeValue(tag == TAG_AND ? "AND" : "OR");
+            } else if (tag == TAG_CONDITION) {
+                int length = readVarint(bytes, position);
+                if (length < 0 || length > bytes.length - position[0]) {
+                    throw new IllegalArgumentException("Corrupt AST blob: bad condition length");
+                }
+                node.setType("condition");
+                node.setNodeValue(new String(bytes, position[0], length, StandardCharsets.UTF_8));
+                position[0] += length;
+            } else {
+                throw new IllegalArgumentException("Corrupt AST blob: unknown tag " + tag);
+            }
+
+            if (open.isEmpty()) {
+                rootNode = node;
+            } else if (open.peek().getLeft() == null) {
+                open.peek().setLeft(node);
+            } else {
+                open.pop().setRight(node);
+            }
+            if (tag != TAG_CONDITION) {
+                open.push(node);
+            }
+        } while (!open.isEmpty());
+        return rootNode;
+    }
+
+    private static void writeVarint(int value, ByteArrayOutputStream out) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] bytes, int[] position) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (position[0] >= bytes.length) {
+                throw new IllegalArgumentException("Corrupt AST blob: unexpected end");
+            }
+            byte b = bytes[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Corrupt AST blob: bad varint");
+    }
+}
@@ -1,6 +1,9 @@
 package org.example.ruleengine.serializer;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
+import org.example.ruleengine.model.Node;
 import org.example.ruleengine.model.Rule;
 
 import com.fasterxml.jackson.core.JsonGenerator;
@@ -9,6 +12,10 @@ import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 
 public class RuleSerializer extends StdSerializer<Rule> {
 
+    private static final Object NULL = new Object();
+    private static final Object RIGHT = new Object();
+    private static final Object END = new Object();
+
     public RuleSerializer() {
         this(null);
     }
@@ -22,7 +29,41 @@ public class RuleSerializer extends StdSerializer<Rule> {
         jsonGenerator.writeStartObject();
         jsonGenerator.writeNumberField("id", rule.getId());
         jsonGenerator.writeStringField("name", rule.getName());
-        jsonGenerator.writeObjectField("rootNode", rule.getRootNode());
+        jsonGenerator.writeFieldName("rootNode");
+        writeNode(rule.getRootNode(), jsonGenerator);
         jsonGenerator.writeEndObject();
     }
+
+    /**
+     * Writes the tree in the same shape as default bean serialization of {@link Node}.
+     */
+    private static void writeNode(Node rootNode, JsonGenerator jsonGenerator) throws IOException {
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(rootNode == null ? NULL : rootNode);
+        while (!pending.isEmpty()) {
+            Object next = pending.pop();
+            if (next == NULL) {
+                jsonGenerator.writeNull();
+            } else if (next == RIGHT) {
+                jsonGenerator.writeFieldName("right");
+            } else if (next == END) {
+                jsonGenerator.writeEndObject();
+            } else {
+                Node node = (Node) next;
+                jsonGenerator.writeStartObject();
+                if (node.getId() == null) {
+                    jsonGenerator.writeNullField("id");
+                } else {
+                    jsonGenerator.writeNumberField("id", node.getId());
+                }
+                jsonGenerator.writeStringField("type", node.getType());
+                jsonGenerator.writeStringField("nodeValue", node.getNodeValue());
+                jsonGenerator.writeFieldName("left");
+                pending.push(END);
+                pending.push(node.getRight() == null ? NULL : node.getRight());
+                pending.push(RIGHT);
+                pending.push(node.getLeft() == null ? NULL : node.getLeft());
+            }
+        }
+    }
 }
@@ -0,0 +1,78 @@
+package org.example.ruleengine.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.example.ruleengine.engine.CompiledRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically reorders the AND/OR children of cached rules from their sampled statistics. Reordering
+ * can be pinned (keep the current order, keep sampling) or disabled (original order, no sampling) per rule.
+ */
+@Component
+public class AdaptiveReorderer {
+
+    public enum Mode {
+        ADAPTIVE,
+        PINNED,
+        DISABLED
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveReorderer.class);
+
+    private final RuleCache ruleCache;
+    private final int sampleInterval;
+    private final long minSamples;
+    private final Mode defaultMode;
+    private final Map<Long, Mode> modes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AdaptiveReorderer(RuleCache ruleCache,
+            @Value("${ruleengine.reorder.sample-interval:64}") int sampleInterval,
+            @Value("${ruleengine.reorder.min-samples:100}") long minSamples,
+            @Value("${ruleengine.reorder.default-mode:ADAPTIVE}") Mode defaultMode) {
+        this.ruleCache = ruleCache;
+        this.sampleInterval = sampleInterval;
+        this.minSamples = minSamples;
+        this.defaultMode = defaultMode;
+    }
+
+    public void configure(CompiledRule rule) {
+        if (getMode(rule.getRuleId()) == Mode.DISABLED) {
+            rule.disableProfiling();
+        } else {
+            rule.enableProfiling(sampleInterval);
+        }
+    }
+
+    public Mode getMode(Long ruleId) {
+        return modes.getOrDefault(ruleId, defaultMode);
+    }
+
+    public void setMode(Long ruleId, Mode mode) {
+        modes.put(ruleId, mode);
+        CompiledRule cached = ruleCache.getIfPresent(ruleId);
+        if (cached != null) {
+            configure(cached);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ruleengine.reorder.interval-ms:30000}")
+    public void reorderCachedRules() {
+        int reordered = 0;
+        for (CompiledRule rule : ruleCache.values()) {
+            if (getMode(rule.getRuleId()) == Mode.ADAPTIVE && rule.reorder(minSamples)) {
+                reordered++;
+            }
+        }
+        if (reordered > 0) {
+            logger.debug("Reordered {} rules from sampled statistics", reordered);
+        }
+    }
+}
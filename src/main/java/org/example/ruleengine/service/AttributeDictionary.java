@@ -0,0 +1,130 @@
+package org.example.ruleengine.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.example.ruleengine.engine.AttributeType;
+import org.example.ruleengine.model.AttributeDefinition;
+import org.example.ruleengine.repository.AttributeDefinitionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Every attribute referenced by a rule, with its stable slot number and optional declared type. Reads
+ * come from an in-memory copy that is replaced, never modified, when an attribute is added or declared.
+ */
+@Component
+public class AttributeDictionary {
+
+    private final AttributeDefinitionRepository attributeDefinitionRepository;
+
+    private volatile Map<String, AttributeDefinition> definitions;
+    private volatile Map<String, AttributeType> declaredTypes;
+
+    @Autowired
+    public AttributeDictionary(AttributeDefinitionRepository attributeDefinitionRepository) {
+        this.attributeDefinitionRepository = attributeDefinitionRepository;
+    }
+
+    public Map<String, AttributeType> getDeclaredTypes() {
+        load();
+        return declaredTypes;
+    }
+
+    public List<AttributeDefinition> getAll() {
+        load();
+        List<AttributeDefinition> all = new ArrayList<>(definitions.values());
+        all.sort(Comparator.comparing(AttributeDefinition::getId));
+        return all;
+    }
+
+    /**
+     * Stores the attributes not known yet within the caller's transaction. They become visible once it
+     * commits, so attributes of rules that are rolled back are never recorded.
+     */
+    @Transactional
+    public void registerAll(Collection<String> names) {
+        load();
+        Map<String, AttributeDefinition> added = new LinkedHashMap<>();
+        for (String name : names) {
+            if (!definitions.containsKey(name) && !added.containsKey(name)) {
+                AttributeDefinition definition = new AttributeDefinition();
+                definition.setName(name);
+                added.put(name, attributeDefinitionRepository.save(definition));
+            }
+        }
+        if (added.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishAdded(added);
+                }
+            });
+        } else {
+            publishAdded(added);
+        }
+    }
+
+    private synchronized void publishAdded(Map<String, AttributeDefinition> added) {
+        Map<String, AttributeDefinition> updated = new LinkedHashMap<>(definitions);
+        added.forEach(updated::putIfAbsent);
+        publish(updated);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public synchronized AttributeDefinition declare(String name, AttributeType type) {
+        if (name == null || !name.matches("\\w+")) {
+            throw new IllegalArgumentException("Invalid attribute name: " + name);
+        }
+        load();
+        AttributeDefinition definition = definitions.get(name);
+        if (definition == null) {
+            definition = new AttributeDefinition();
+            definition.setName(name);
+        }
+        definition.setType(type);
+        definition = attributeDefinitionRepository.save(definition);
+        Map<String, AttributeDefinition> updated = new LinkedHashMap<>(definitions);
+        updated.put(name, definition);
+        publish(updated);
+        return definition;
+    }
+
+    private void load() {
+        if (definitions == null) {
+            synchronized (this) {
+                if (definitions == null) {
+                    Map<String, AttributeDefinition> loaded = new LinkedHashMap<>();
+                    for (AttributeDefinition definition : attributeDefinitionRepository.findAll()) {
+                        loaded.put(definition.getName(), definition);
+                    }
+                    publish(loaded);
+                }
+            }
+        }
+    }
+
+    private void publish(Map<String, AttributeDefinition> updated) {
+        Map<String, AttributeType> types = new HashMap<>();
+        updated.forEach((name, definition) -> {
+            if (definition.getType() != AttributeType.ANY) {
+                types.put(name, definition.getType());
+            }
+        });
+        declaredTypes = Collections.unmodifiableMap(types);
+        definitions = Collections.unmodifiableMap(updated);
+    }
+}
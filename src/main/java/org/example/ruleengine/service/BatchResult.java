@@ -0,0 +1,34 @@
+package org.example.ruleengine.service;
+
+import java.util.BitSet;
+
+public final class BatchResult {
+
+    private final boolean[] matches;
+    private final String[] errors;
+
+    BatchResult(boolean[] matches, String[] errors) {
+        this.matches = matches;
+        this.errors = errors;
+    }
+
+    public int size() {
+        return matches.length;
+    }
+
+    public boolean isMatch(int index) {
+        return matches[index];
+    }
+
+    public String getError(int index) {
+        return errors[index];
+    }
+
+    public void copyMatchesTo(BitSet bitmap, int offset) {
+        for (int i = 0; i < matches.length; i++) {
+            if (matches[i]) {
+                bitmap.set(offset + i);
+            }
+        }
+    }
+}
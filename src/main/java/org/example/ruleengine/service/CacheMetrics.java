@@ -0,0 +1,83 @@
+package org.example.ruleengine.service;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the statistics the caches, the rule set snapshot, the evaluation sessions and the evaluation
+ * lanes already keep, read when scraped.
+ */
+@Component
+public class CacheMetrics implements MeterBinder {
+
+    private final RuleCache ruleCache;
+    private final ParseCache parseCache;
+    private final ResultCache resultCache;
+    private final RuleSnapshots ruleSnapshots;
+    private final EvaluationSessions evaluationSessions;
+    private final EvaluationExecutor evaluationExecutor;
+
+    @Autowired
+    public CacheMetrics(RuleCache ruleCache, ParseCache parseCache, ResultCache resultCache,
+            RuleSnapshots ruleSnapshots, EvaluationSessions evaluationSessions,
+            EvaluationExecutor evaluationExecutor) {
+        this.ruleCache = ruleCache;
+        this.parseCache = parseCache;
+        this.resultCache = resultCache;
+        this.ruleSnapshots = ruleSnapshots;
+        this.evaluationSessions = evaluationSessions;
+        this.evaluationExecutor = evaluationExecutor;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCache(registry, "rule", ruleCache, RuleCache::getStats);
+        bindCache(registry, "parse", parseCache, ParseCache::getStats);
+        bindCache(registry, "result", resultCache, ResultCache::getStats);
+        Gauge.builder("ruleengine.snapshot.version", ruleSnapshots, snapshots -> snapshots.current().getVersion())
+                .register(registry);
+        Gauge.builder("ruleengine.snapshot.rules", ruleSnapshots, snapshots -> snapshots.current().size())
+                .register(registry);
+        Gauge.builder("ruleengine.sessions.open", evaluationSessions,
+                sessions -> value(sessions.getStats(), "size")).register(registry);
+        for (String reason : new String[] {"closed", "evictions", "expirations"}) {
+            FunctionCounter.builder("ruleengine.sessions.ended", evaluationSessions,
+                    sessions -> value(sessions.getStats(), reason)).tag("reason", reason).register(registry);
+        }
+        for (EvaluationExecutor.Lane lane : EvaluationExecutor.Lane.values()) {
+            String name = lane.name().toLowerCase();
+            for (String gauge : new String[] {"active", "queued"}) {
+                Gauge.builder("ruleengine.lane." + gauge, evaluationExecutor,
+                        executor -> value(executor.getStats(lane), gauge)).tag("lane", name).register(registry);
+            }
+            for (String counter : new String[] {"rejected", "expired"}) {
+                FunctionCounter.builder("ruleengine.lane." + counter, evaluationExecutor,
+                        executor -> value(executor.getStats(lane), counter)).tag("lane", name).register(registry);
+            }
+        }
+    }
+
+    // Meters hold their source weakly, so they are given the cache beans rather than suppliers of stats
+    private static <T> void bindCache(MeterRegistry registry, String name, T cache,
+            Function<T, Map<String, Object>> stats) {
+        for (String result : new String[] {"hits", "misses", "evictions"}) {
+            FunctionCounter.builder("ruleengine.cache.requests", cache, current -> value(stats.apply(current), result))
+                    .tag("cache", name).tag("result", result).register(registry);
+        }
+        Gauge.builder("ruleengine.cache.size", cache, current -> value(stats.apply(current), "size"))
+                .tag("cache", name).register(registry);
+    }
+
+    private static double value(Map<String, Object> stats, String key) {
+        Object value = stats.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+}
@@ -0,0 +1,360 @@
+package org.example.ruleengine.service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs evaluation requests on bounded pools of their own, off the servlet container's threads. Single
+ * record calls and bulk calls (batches, columns and imports) have separate lanes, so a few large jobs
+ * cannot starve low-latency traffic. Each lane runs at most {@code concurrency} tasks and queues at most
+ * {@code queue-capacity} more; a task that finds the queue full is rejected at once with a
+ * {@link RejectedExecutionException}.
+ * <p>
+ * Each task has a deadline of {@code deadline-ms} from its admission. A task still queued at its
+ * deadline is dropped without running, and a running task is answered with a {@link TimeoutException}.
+ * Threads are never interrupted, since that can close the channels of an open database; instead the
+ * evaluation paths call {@link #checkDeadline()} to stop a task past its deadline early. Streaming tasks,
+ * which own the response, are given their deadline to stop at instead.
+ * <p>
+ * A task can split its work with {@link #forEachPart}. The parts run on fork threads of the task's lane,
+ * at most {@code parallelism} of them for the whole bulk lane, so a parallel batch never reaches beyond
+ * the lane.
+ */
+@Component
+public class EvaluationExecutor {
+
+    public enum Lane {
+        SINGLE,
+        BULK
+    }
+
+    /**
+     * A task writing its own response, which checks its deadline, in {@link System#nanoTime()} terms,
+     * between chunks of work.
+     */
+    @FunctionalInterface
+    public interface StreamingTask<T> {
+
+        T run(long deadline) throws Exception;
+    }
+
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int EXPIRED = 2;
+
+    // The task running on the current thread, or whose part it is running
+    private static final ThreadLocal<Task> CURRENT = new ThreadLocal<>();
+
+    private final Map<Lane, LanePool> lanes = new EnumMap<>(Lane.class);
+    private final ScheduledThreadPoolExecutor deadlines;
+
+    @Autowired
+    public EvaluationExecutor(@Value("${ruleengine.executor.single.concurrency:16}") int singleConcurrency,
+            @Value("${ruleengine.executor.single.queue-capacity:256}") int singleQueueCapacity,
+            @Value("${ruleengine.executor.single.deadline-ms:1000}") long singleDeadlineMillis,
+            @Value("${ruleengine.executor.bulk.concurrency:2}") int bulkConcurrency,
+            @Value("${ruleengine.executor.bulk.queue-capacity:8}") int bulkQueueCapacity,
+            @Value("${ruleengine.executor.bulk.deadline-ms:60000}") long bulkDeadlineMillis,
+            @Value("${ruleengine.executor.bulk.parallelism:4}") int bulkParallelism) {
+        lanes.put(Lane.SINGLE, new LanePool(Lane.SINGLE, singleConcurrency, singleQueueCapacity, singleDeadlineMillis, 0));
+        lanes.put(Lane.BULK, new LanePool(Lane.BULK, bulkConcurrency, bulkQueueCapacity, bulkDeadlineMillis,
+                bulkParallelism));
+        this.deadlines = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("evaluation-deadlines-"));
+        this.deadlines.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Runs a task that answers with its result, failing with a {@link TimeoutException} at its deadline.
+     */
+    public <T> CompletableFuture<T> submit(Lane lane, Callable<T> task) {
+        return lanes.get(lane).submit(deadline -> task.call(), true);
+    }
+
+    /**
+     * Runs a streaming task. It is dropped with a {@link TimeoutException} if it is still queued at its
+     * deadline, and is left to stop by itself once it has started.
+     */
+    public <T> CompletableFuture<T> submitStreaming(Lane lane, StreamingTask<T> task) {
+        return lanes.get(lane).submit(task, false);
+    }
+
+    /**
+     * Stops the task running on the current thread, or one of its parts, with a
+     * {@link CancellationException} once it is past its deadline. A task that is not streaming has been
+     * answered with a {@link TimeoutException} by then. Does nothing outside the lanes.
+     */
+    public static void checkDeadline() {
+        Task task = CURRENT.get();
+        if (task != null && System.nanoTime() - task.deadline > 0) {
+            throw new CancellationException("Evaluation deadline exceeded");
+        }
+    }
+
+    /**
+     * Runs parts {@code 0} to {@code parts - 1} of the current task and returns once all are done. The
+     * calling thread takes parts too, so they all run even while the lane's fork threads are busy; the
+     * first part to fail stops those not started yet and is rethrown. Outside the lanes, or on a lane
+     * without fork threads, the parts run one after another.
+     */
+    public static void forEachPart(int parts, IntConsumer part) {
+        Task task = CURRENT.get();
+        if (task == null || task.lane.forkPool == null || parts < 2) {
+            for (int i = 0; i < parts; i++) {
+                part.accept(i);
+            }
+            return;
+        }
+        task.lane.fork(task, parts, part);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lanes.forEach((lane, pool) -> stats.put(lane.name().toLowerCase(), pool.getStats()));
+        return stats;
+    }
+
+    public Map<String, Object> getStats(Lane lane) {
+        return lanes.get(lane).getStats();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.values().forEach(LanePool::shutdown);
+        deadlines.shutdownNow();
+    }
+
+    private static final class Task {
+
+        private final LanePool lane;
+        private final long deadline;
+
+        Task(LanePool lane, long deadline) {
+            this.lane = lane;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * Takes parts on a fork thread. A helper that has not started when its task has run out of parts is
+     * claimed back by the task, so it never waits for a fork thread to become free.
+     */
+    private static final class Helper implements Runnable {
+
+        private final Task task;
+        private final Runnable work;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Helper(Task task, Runnable work) {
+            this.task = task;
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            CURRENT.set(task);
+            try {
+                work.run();
+            } finally {
+                CURRENT.remove();
+                done.complete(null);
+            }
+        }
+
+        // Returns whether the helper had started, after waiting for it to finish
+        boolean join() {
+            if (claimed.compareAndSet(false, true)) {
+                return false;
+            }
+            done.join();
+            return true;
+        }
+    }
+
+    private final class LanePool {
+
+        private final String name;
+        private final int queueCapacity;
+        private final long deadlineNanos;
+        private final int parallelism;
+        private final ThreadPoolExecutor executor;
+        // Shared by all tasks of the lane; null when the lane does not split tasks
+        private final ThreadPoolExecutor forkPool;
+
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder expired = new LongAdder();
+
+        LanePool(Lane lane, int concurrency, int queueCapacity, long deadlineMillis, int parallelism) {
+            this.name = lane.name().toLowerCase();
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("Concurrency of the " + name + " lane must be at least 1");
+            }
+            if (queueCapacity < 1) {
+                throw new IllegalArgumentException("Queue capacity of the " + name + " lane must be at least 1");
+            }
+            if (deadlineMillis < 1) {
+                throw new IllegalArgumentException("Deadline of the " + name + " lane must be at least 1 ms");
+            }
+            if (parallelism < 0) {
+                throw new IllegalArgumentException("Parallelism of the " + name + " lane cannot be negative");
+            }
+            this.queueCapacity = queueCapacity;
+            this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+            this.parallelism = parallelism;
+            this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("evaluation-" + name + "-"));
+            // Each running task queues at most parallelism helpers
+            this.forkPool = parallelism == 0 ? null : new ThreadPoolExecutor(parallelism, parallelism, 0,
+                    TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(concurrency * parallelism),
+                    new CustomizableThreadFactory("evaluation-" + name + "-fork-"));
+        }
+
+        void fork(Task task, int parts, IntConsumer part) {
+            AtomicInteger next = new AtomicInteger();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Runnable work = () -> {
+                try {
+                    for (int i = next.getAndIncrement(); i < parts; i = next.getAndIncrement()) {
+                        part.accept(i);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                    next.set(parts);
+                }
+            };
+            List<Helper> helpers = new ArrayList<>();
+            for (int i = Math.min(parallelism, parts - 1); i > 0; i--) {
+                Helper helper = new Helper(task, work);
+                try {
+                    forkPool.execute(helper);
+                } catch (RejectedExecutionException e) {
+                    break;
+                }
+                helpers.add(helper);
+            }
+            work.run();
+            for (Helper helper : helpers) {
+                if (!helper.join()) {
+                    forkPool.remove(helper);
+                }
+            }
+            Throwable e = failure.get();
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+        }
+
+        void shutdown() {
+            executor.shutdown();
+            if (forkPool != null) {
+                forkPool.shutdown();
+            }
+        }
+
+        <T> CompletableFuture<T> submit(StreamingTask<T> task, boolean expiresWhenRunning) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            long deadline = System.nanoTime() + deadlineNanos;
+            // Settles a task expiring just as it is taken from the queue: exactly one of them wins
+            AtomicInteger state = new AtomicInteger(QUEUED);
+            Runnable run = () -> {
+                if (!state.compareAndSet(QUEUED, RUNNING)) {
+                    return;
+                }
+                CURRENT.set(new Task(this, deadline));
+                try {
+                    T value = task.run(deadline);
+                    if (!expiresWhenRunning || !expireIfPast(result, deadline)) {
+                        result.complete(value);
+                    }
+                } catch (Throwable e) {
+                    // A task stopped at its deadline is answered as expired, whatever it failed with
+                    if (!expiresWhenRunning || !expireIfPast(result, deadline)) {
+                        result.completeExceptionally(e);
+                    }
+                } finally {
+                    CURRENT.remove();
+                }
+            };
+            try {
+                executor.execute(run);
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                result.completeExceptionally(new RejectedExecutionException(
+                        "Too many " + name + " evaluations pending, retry later"));
+                return result;
+            }
+
+            ScheduledFuture<?> timer = deadlines.schedule(() -> {
+                if (state.compareAndSet(QUEUED, EXPIRED)) {
+                    // Frees its place in the queue at once
+                    executor.remove(run);
+                } else if (!expiresWhenRunning) {
+                    return;
+                }
+                expire(result);
+            }, deadlineNanos, TimeUnit.NANOSECONDS);
+            result.whenComplete((value, e) -> timer.cancel(false));
+            return result;
+        }
+
+        private boolean expireIfPast(CompletableFuture<?> result, long deadline) {
+            if (System.nanoTime() - deadline <= 0) {
+                return false;
+            }
+            expire(result);
+            return true;
+        }
+
+        private void expire(CompletableFuture<?> result) {
+            if (result.completeExceptionally(new TimeoutException("Evaluation deadline of "
+                    + TimeUnit.NANOSECONDS.toMillis(deadlineNanos) + " ms exceeded"))) {
+                expired.increment();
+            }
+        }
+
+        Map<String, Object> getStats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("concurrency", executor.getMaximumPoolSize());
+            stats.put("queueCapacity", queueCapacity);
+            stats.put("deadlineMs", TimeUnit.NANOSECONDS.toMillis(deadlineNanos));
+            stats.put("parallelism", parallelism);
+            stats.put("active", executor.getActiveCount());
+            stats.put("queued", executor.getQueue().size());
+            stats.put("completed", executor.getCompletedTaskCount());
+            stats.put("rejected", rejected.sum());
+            stats.put("expired", expired.sum());
+            return stats;
+        }
+    }
+}
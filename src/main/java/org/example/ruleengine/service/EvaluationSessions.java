@@ -0,0 +1,205 @@
+package org.example.ruleengine.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.example.ruleengine.engine.CompiledRule;
+import org.example.ruleengine.engine.IncrementalEvaluation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Open incremental evaluation sessions, each a record being evaluated against one rule as its attributes
+ * arrive. A session keeps the compiled rule it was opened with, so it is unaffected by later changes to
+ * the rule.
+ * <p>
+ * At most {@code ruleengine.sessions.max-size} sessions are kept, the least recently used being evicted
+ * beyond that, and sessions idle for {@code ruleengine.sessions.idle-timeout-ms} are expired.
+ */
+@Component
+public class EvaluationSessions {
+
+    // Independently locked LRU maps, so concurrent sessions rarely contend
+    private static final int SEGMENTS = 16;
+
+    private final int maxSize;
+    private final long idleNanos;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final AtomicLong nextId = new AtomicLong();
+
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder closed = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    @Autowired
+    public EvaluationSessions(@Value("${ruleengine.sessions.max-size:500000}") int maxSize,
+            @Value("${ruleengine.sessions.idle-timeout-ms:300000}") long idleTimeoutMillis) {
+        if (maxSize < SEGMENTS) {
+            throw new IllegalArgumentException("Session limit must be at least " + SEGMENTS);
+        }
+        if (idleTimeoutMillis < 1) {
+            throw new IllegalArgumentException("Session idle timeout must be at least 1 ms");
+        }
+        this.maxSize = maxSize;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(maxSize / SEGMENTS);
+        }
+    }
+
+    /**
+     * Opens a session on the rule, starting from the given attributes if any. Invalid ones are rejected
+     * before the session is opened.
+     */
+    public Session open(CompiledRule rule, Map<String, Object> values) {
+        Session session = new Session(nextId.incrementAndGet(), rule);
+        if (values != null && !values.isEmpty()) {
+            session.update(values);
+        }
+        segmentOf(session.id).put(session, System.nanoTime());
+        opened.increment();
+        return session;
+    }
+
+    /**
+     * The open session with the given ID, which counts as a use of it; null if it was never opened, or has
+     * been closed, evicted or expired.
+     */
+    public Session get(long sessionId) {
+        return segmentOf(sessionId).get(sessionId, System.nanoTime());
+    }
+
+    public boolean close(long sessionId) {
+        boolean removed = segmentOf(sessionId).remove(sessionId);
+        if (removed) {
+            closed.increment();
+        }
+        return removed;
+    }
+
+    @Scheduled(fixedDelayString = "${ruleengine.sessions.sweep-interval-ms:10000}")
+    public void expireIdleSessions() {
+        long now = System.nanoTime();
+        for (Segment segment : segments) {
+            segment.expire(now);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxSize", maxSize);
+        stats.put("idleTimeoutMs", TimeUnit.NANOSECONDS.toMillis(idleNanos));
+        stats.put("opened", opened.sum());
+        stats.put("closed", closed.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        return stats;
+    }
+
+    private Segment segmentOf(long sessionId) {
+        return segments[(int) (sessionId ^ (sessionId >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    public static final class Session {
+
+        private final long id;
+        private final Long ruleId;
+        private final long ruleVersion;
+        private final IncrementalEvaluation evaluation;
+        private long lastUsed;
+
+        Session(long id, CompiledRule rule) {
+            this.id = id;
+            this.ruleId = rule.getRuleId();
+            this.ruleVersion = rule.getVersion();
+            this.evaluation = rule.incremental().newEvaluation();
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public synchronized IncrementalEvaluation.Outcome update(Map<String, Object> values) {
+            return evaluation.update(values);
+        }
+
+        public synchronized Map<String, Object> describe() {
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("sessionId", id);
+            description.put("ruleId", ruleId);
+            description.put("ruleVersion", ruleVersion);
+            description.put("result", evaluation.getOutcome().name().toLowerCase());
+            return description;
+        }
+    }
+
+    private final class Segment {
+
+        private final Map<Long, Session> sessions;
+
+        Segment(int capacity) {
+            this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Session> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized void put(Session session, long now) {
+            session.lastUsed = now;
+            sessions.put(session.id, session);
+        }
+
+        synchronized Session get(long sessionId, long now) {
+            Session session = sessions.get(sessionId);
+            if (session == null) {
+                return null;
+            }
+            if (now - session.lastUsed > idleNanos) {
+                sessions.remove(sessionId);
+                expirations.increment();
+                return null;
+            }
+            session.lastUsed = now;
+            return session;
+        }
+
+        synchronized boolean remove(long sessionId) {
+            return sessions.remove(sessionId) != null;
+        }
+
+        // Sessions are in order of last use, so the idle ones are all at the front
+        synchronized void expire(long now) {
+            Iterator<Session> iterator = sessions.values().iterator();
+            while (iterator.hasNext()) {
+                Session session = iterator.next();
+                if (now - session.lastUsed <= idleNanos) {
+                    return;
+                }
+                iterator.remove();
+                expirations.increment();
+            }
+        }
+
+        synchronized int size() {
+            return sessions.size();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.ruleengine.service;
+
+import org.example.ruleengine.engine.CompiledRule;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Switches compiled rules to generated bytecode once they have been evaluated
+ * {@code ruleengine.codegen.threshold} times. A threshold of zero keeps every rule interpreted.
+ */
+@Component
+public class HotRuleCompiler {
+
+    private final int threshold;
+
+    @Autowired
+    public HotRuleCompiler(@Value("${ruleengine.codegen.threshold:10000}") int threshold) {
+        this.threshold = threshold;
+    }
+
+    public void configure(CompiledRule rule) {
+        rule.enableCodeGeneration(threshold);
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.ruleengine.service;
+
+public final class ImportResult {
+
+    private final Long[] ids;
+    private final String[] errors;
+
+    ImportResult(Long[] ids, String[] errors) {
+        this.ids = ids;
+        this.errors = errors;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public Long getId(int index) {
+        return ids[index];
+    }
+
+    public String getError(int index) {
+        return errors[index];
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.ruleengine.service;
+
+import java.util.List;
+
+public final class MatchResult {
+
+    private final List<Long> ruleIds;
+    private final long snapshotVersion;
+
+    MatchResult(List<Long> ruleIds, long snapshotVersion) {
+        this.ruleIds = ruleIds;
+        this.snapshotVersion = snapshotVersion;
+    }
+
+    public List<Long> getRuleIds() {
+        return ruleIds;
+    }
+
+    /**
+     * Version of the rule set snapshot the rules were matched against.
+     */
+    public long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+}
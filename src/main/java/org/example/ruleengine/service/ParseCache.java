@@ -0,0 +1,97 @@
+package org.example.ruleengine.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.example.ruleengine.engine.RuleParser;
+import org.example.ruleengine.model.Node;
+import org.example.ruleengine.serializer.AstCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * LRU cache of parsed rule expressions keyed by their normalized text. Entries hold the AST in
+ * {@link AstCodec} form, so every caller gets its own tree, and the cache is bounded by the bytes it holds
+ * rather than by entry count since expressions vary widely in size.
+ */
+@Component
+public class ParseCache {
+
+    private final long maxBytes;
+    private final Map<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public ParseCache(@Value("${ruleengine.parse-cache.max-bytes:16777216}") long maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Parse cache size must be at least 1 byte");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    public Node parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            return RuleParser.parse(expression);
+        }
+        String key = RuleParser.normalize(expression);
+        byte[] ast;
+        synchronized (entries) {
+            ast = entries.get(key);
+        }
+        if (ast != null) {
+            hits.increment();
+            return AstCodec.decode(ast);
+        }
+        misses.increment();
+        // Parse the original text so that error positions refer to what the caller wrote
+        Node rootNode = RuleParser.parse(expression);
+        put(key, AstCodec.encode(rootNode));
+        return rootNode;
+    }
+
+    private void put(String key, byte[] ast) {
+        long weight = weight(key, ast);
+        if (weight > maxBytes) {
+            return;
+        }
+        synchronized (entries) {
+            byte[] previous = entries.put(key, ast);
+            bytes += weight - (previous == null ? 0 : weight(key, previous));
+            Iterator<Map.Entry<String, byte[]>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes) {
+                Map.Entry<String, byte[]> entry = eldest.next();
+                bytes -= weight(entry.getKey(), entry.getValue());
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static long weight(String key, byte[] ast) {
+        return 2L * key.length() + ast.length;
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+            stats.put("bytes", bytes);
+        }
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hitCount / requests);
+        return stats;
+    }
+}
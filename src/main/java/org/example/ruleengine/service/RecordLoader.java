@@ -0,0 +1,16 @@
+package org.example.ruleengine.service;
+
+import java.io.IOException;
+
+import org.example.ruleengine.engine.CompiledRule;
+import org.example.ruleengine.engine.SlotRecord;
+
+/**
+ * Fills in a rule's slot record from some source of data, such as a request body being decoded, and
+ * checks it as {@link CompiledRule#load} does.
+ */
+@FunctionalInterface
+public interface RecordLoader {
+
+    void load(CompiledRule rule, SlotRecord record) throws IOException;
+}
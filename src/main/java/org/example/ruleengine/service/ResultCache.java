@@ -0,0 +1,197 @@
+package org.example.ruleengine.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.example.ruleengine.engine.CompiledRule;
+import org.example.ruleengine.engine.SlotRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers evaluation results for rules that see the same records over and over. An entry is keyed by
+ * the rule ID, the rule's version and the record projected onto the rule's attributes, which is exactly
+ * its slot record, so records differing only in attributes the rule never reads share an entry. Keys are
+ * hashed from the unboxed slots, without building strings.
+ * <p>
+ * The cache is off by default and switched per rule. Entries expire after
+ * {@code ruleengine.result-cache.ttl-ms} and the least recently used are evicted beyond
+ * {@code ruleengine.result-cache.max-size}. A rule's version is the rule set snapshot version that last
+ * changed it, so results of an updated rule are never hit again and age out.
+ */
+@Component
+public class ResultCache {
+
+    // Independently locked LRU maps, so concurrent evaluations rarely contend
+    private static final int SEGMENTS = 16;
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final boolean enabledByDefault;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    // Only rules switched away from the default, so switching back forgets them
+    private final Map<Long, Boolean> enabled = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    @Autowired
+    public ResultCache(@Value("${ruleengine.result-cache.max-size:100000}") int maxSize,
+            @Value("${ruleengine.result-cache.ttl-ms:60000}") long ttlMillis,
+            @Value("${ruleengine.result-cache.enabled:false}") boolean enabledByDefault) {
+        if (maxSize < SEGMENTS) {
+            throw new IllegalArgumentException("Result cache size must be at least " + SEGMENTS);
+        }
+        if (ttlMillis < 1) {
+            throw new IllegalArgumentException("Result cache TTL must be at least 1 ms");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.enabledByDefault = enabledByDefault;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(maxSize / SEGMENTS);
+        }
+    }
+
+    public boolean isEnabled(Long ruleId) {
+        return enabled.getOrDefault(ruleId, enabledByDefault);
+    }
+
+    public void setEnabled(Long ruleId, boolean enable) {
+        if (enable == enabledByDefault) {
+            enabled.remove(ruleId);
+        } else {
+            enabled.put(ruleId, enable);
+        }
+    }
+
+    /**
+     * Evaluates a record that has already been loaded and checked, through the cache when it is enabled
+     * for the rule. Errors are raised by the check before this is called, so only results are cached.
+     */
+    public boolean evaluate(CompiledRule rule, SlotRecord record) {
+        if (!isEnabled(rule.getRuleId())) {
+            return rule.evaluate(record);
+        }
+        Key probe = new Key(rule.getRuleId(), rule.getVersion(), record);
+        Segment segment = segments[(probe.hash ^ (probe.hash >>> 16)) & (SEGMENTS - 1)];
+        long now = System.nanoTime();
+        Boolean cached = segment.get(probe, now);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        boolean result = rule.evaluate(record);
+        segment.put(new Key(probe.ruleId, probe.version, record.copy()), result, now + ttlNanos);
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxSize", maxSize);
+        stats.put("ttlMs", TimeUnit.NANOSECONDS.toMillis(ttlNanos));
+        stats.put("enabledByDefault", enabledByDefault);
+        stats.put("switchedRules", enabled.size());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hitCount / requests);
+        return stats;
+    }
+
+    private final class Segment {
+
+        private final Map<Key, Entry> entries;
+
+        Segment(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized Boolean get(Key key, long now) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.expiresAt > 0) {
+                entries.remove(key);
+                expirations.increment();
+                return null;
+            }
+            return entry.result;
+        }
+
+        synchronized void put(Key key, boolean result, long expiresAt) {
+            entries.put(key, new Entry(result, expiresAt));
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    private static final class Entry {
+
+        private final boolean result;
+        private final long expiresAt;
+
+        Entry(boolean result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Key {
+
+        private final Long ruleId;
+        private final long version;
+        private final SlotRecord record;
+        private final int hash;
+
+        Key(Long ruleId, long version, SlotRecord record) {
+            this.ruleId = ruleId;
+            this.version = version;
+            this.record = record;
+            this.hash = 31 * (31 * ruleId.hashCode() + Long.hashCode(version)) + record.valuesHash();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return hash == key.hash && version == key.version && ruleId.equals(key.ruleId)
+                    && record.sameValues(key.record);
+        }
+    }
+}
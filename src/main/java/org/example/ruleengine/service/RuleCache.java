@@ -0,0 +1,111 @@
+package org.example.ruleengine.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.example.ruleengine.engine.CompiledRule;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RuleCache {
+
+    private final int maxSize;
+    private final Map<Long, CompiledRule> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public RuleCache(@Value("${ruleengine.cache.max-size:10000}") int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Rule cache size must be at least 1");
+        }
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CompiledRule> eldest) {
+                if (size() > RuleCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the rule compiled from the given version, compiling it on a miss. A reader still holding an
+     * older snapshot gets its own version compiled but never displaces a newer one from the cache.
+     */
+    public CompiledRule get(Long ruleId, long version, Function<Long, CompiledRule> loader) {
+        CompiledRule compiledRule;
+        synchronized (entries) {
+            compiledRule = entries.get(ruleId);
+        }
+        if (compiledRule != null && compiledRule.getVersion() == version) {
+            hits.increment();
+            return compiledRule;
+        }
+        misses.increment();
+        // Compile outside the lock so a large rule does not stall hits on other rules
+        compiledRule = loader.apply(ruleId);
+        synchronized (entries) {
+            CompiledRule cached = entries.get(ruleId);
+            if (cached == null || cached.getVersion() < version) {
+                entries.put(ruleId, compiledRule);
+            }
+        }
+        return compiledRule;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public CompiledRule getIfPresent(Long ruleId) {
+        synchronized (entries) {
+            return entries.get(ruleId);
+        }
+    }
+
+    public List<CompiledRule> values() {
+        synchronized (entries) {
+            return new ArrayList<>(entries.values());
+        }
+    }
+
+    public void invalidate(Long ruleId) {
+        synchronized (entries) {
+            entries.remove(ruleId);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hitCount / requests);
+        return stats;
+    }
+}
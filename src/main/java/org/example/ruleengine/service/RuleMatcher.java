@@ -0,0 +1,144 @@
+package org.example.ruleengine.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.example.ruleengine.engine.CompiledNode;
+import org.example.ruleengine.engine.ConditionNetwork;
+import org.example.ruleengine.engine.RuleCompiler;
+import org.example.ruleengine.model.Node;
+import org.example.ruleengine.model.Rule;
+import org.example.ruleengine.repository.RuleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps a {@link ConditionNetwork} of all stored rules. The network is built from the repository on the
+ * first match and then updated incrementally as rules are created, updated or combined. The network is
+ * published together with the rule set snapshot version it reflects.
+ */
+@Component
+public class RuleMatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuleMatcher.class);
+
+    private final RuleRepository ruleRepository;
+    private final RuleSnapshots ruleSnapshots;
+
+    // Written under the monitor, read without locking
+    private volatile ConditionNetwork network;
+    private volatile VersionedNetwork published;
+
+    @Autowired
+    public RuleMatcher(RuleRepository ruleRepository, RuleSnapshots ruleSnapshots) {
+        this.ruleRepository = ruleRepository;
+        this.ruleSnapshots = ruleSnapshots;
+    }
+
+    public MatchResult match(Map<String, Object> data) {
+        VersionedNetwork current = getPublished();
+        return new MatchResult(current.network.match(data), current.version);
+    }
+
+    public synchronized void ruleChanged(long version, Long ruleId, Node rootNode) {
+        if (network == null) {
+            return;
+        }
+        try {
+            network = network.withRule(ruleId, compileForMatching(ruleId, rootNode));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rule {} cannot be compiled and is excluded from matching: {}", ruleId, e.getMessage());
+            network = network.withoutRule(ruleId);
+        }
+        publish(version);
+    }
+
+    public synchronized void rulesChanged(long version, Map<Long, Node> rootNodes) {
+        if (network == null) {
+            return;
+        }
+        Map<Long, CompiledNode> roots = new LinkedHashMap<>();
+        rootNodes.forEach((ruleId, rootNode) -> {
+            try {
+                roots.put(ruleId, compileForMatching(ruleId, rootNode));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Rule {} cannot be compiled and is excluded from matching: {}", ruleId, e.getMessage());
+                roots.put(ruleId, null);
+            }
+        });
+        network = network.withRules(roots);
+        publish(version);
+    }
+
+    // Changes committed concurrently may arrive out of order, so the version only moves forward
+    private void publish(long version) {
+        VersionedNetwork previous = published;
+        published = new VersionedNetwork(network, previous == null ? version : Math.max(version, previous.version));
+    }
+
+    public Map<String, Object> getStats() {
+        ConditionNetwork current = getPublished().network;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("rules", current.getRuleCount());
+        stats.put("distinctConditions", current.getConditionCount());
+        stats.put("indexedAttributes", current.getIndexedAttributeCount());
+        return stats;
+    }
+
+    private VersionedNetwork getPublished() {
+        VersionedNetwork current = published;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (published == null) {
+                // Read before loading, so the network can only be newer than the version it claims
+                long version = ruleSnapshots.current().getVersion();
+                network = load();
+                publish(version);
+            }
+            return published;
+        }
+    }
+
+    // A complete snapshot holds every stored rule, so the database is only read without one
+    private ConditionNetwork load() {
+        Map<Long, CompiledNode> compiledRules = new LinkedHashMap<>();
+        if (ruleSnapshots.isComplete()) {
+            ruleSnapshots.current().forEach((ruleId, entry) -> compileInto(compiledRules, ruleId, entry.getRootNode()));
+        } else {
+            for (Rule rule : ruleRepository.findAll()) {
+                compileInto(compiledRules, rule.getId(), rule.getRootNode());
+            }
+        }
+        logger.info("Built condition network for {} rules", compiledRules.size());
+        return ConditionNetwork.of(compiledRules);
+    }
+
+    // Unoptimized, so a rule matches only through the conditions it is written with
+    private static CompiledNode compileForMatching(Long ruleId, Node rootNode) {
+        return RuleCompiler.compile(ruleId, rootNode, Collections.emptyMap(), false).getRoot();
+    }
+
+    private static void compileInto(Map<Long, CompiledNode> compiledRules, Long ruleId, Node rootNode) {
+        try {
+            compiledRules.put(ruleId, compileForMatching(ruleId, rootNode));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rule {} cannot be compiled and is excluded from matching: {}", ruleId, e.getMessage());
+        }
+    }
+
+    private static final class VersionedNetwork {
+
+        private final ConditionNetwork network;
+        private final long version;
+
+        VersionedNetwork(ConditionNetwork network, long version) {
+            this.network = network;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package org.example.ruleengine.service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Evaluation counts and latencies per rule, and timings of each request phase, published to Micrometer.
+ * Recording only increments {@link LongAdder}s, so it allocates nothing and threads rarely contend;
+ * meters read the adders when they are scraped.
+ * <p>
+ * Only the first {@code ruleengine.metrics.max-tagged-rules} rules seen get meters of their own. Later
+ * rules are recorded together under {@code rule="other"}, so the number of series stays bounded however
+ * many rules are stored.
+ */
+@Component
+public class RuleMetrics {
+
+    public enum Phase {
+        PARSE,
+        VALIDATE,
+        LOAD,
+        EVALUATE,
+        BATCH,
+        MATCH
+    }
+
+    private static final String OTHER = "other";
+
+    private final MeterRegistry registry;
+    private final int maxTaggedRules;
+    private final Map<Long, RuleStats> rules = new ConcurrentHashMap<>();
+    private final AtomicInteger taggedRules = new AtomicInteger();
+    private final RuleStats otherRules;
+    private final Map<Phase, Latency> phases = new EnumMap<>(Phase.class);
+
+    @Autowired
+    public RuleMetrics(MeterRegistry registry,
+            @Value("${ruleengine.metrics.max-tagged-rules:100}") int maxTaggedRules) {
+        if (maxTaggedRules < 0) {
+            throw new IllegalArgumentException("Tagged rule count cannot be negative");
+        }
+        this.registry = registry;
+        this.maxTaggedRules = maxTaggedRules;
+        this.otherRules = register(OTHER);
+        for (Phase phase : Phase.values()) {
+            Latency latency = new Latency();
+            latency.register(registry, "ruleengine.phase", Tags.of("phase", phase.name().toLowerCase()));
+            phases.put(phase, latency);
+        }
+    }
+
+    public void recordPhase(Phase phase, long nanos) {
+        phases.get(phase).record(nanos);
+    }
+
+    public void recordEvaluation(Long ruleId, boolean result, long nanos) {
+        RuleStats stats = statsOf(ruleId);
+        stats.record(result);
+        stats.latency.record(nanos);
+    }
+
+    // For batch paths, which time whole chunks rather than each record
+    public void recordResult(Long ruleId, boolean result) {
+        statsOf(ruleId).record(result);
+    }
+
+    public void recordResults(Long ruleId, long trues, long falses, long errors) {
+        RuleStats stats = statsOf(ruleId);
+        stats.trues.add(trues);
+        stats.falses.add(falses);
+        stats.errors.add(errors);
+    }
+
+    public void recordError(Long ruleId) {
+        statsOf(ruleId).errors.increment();
+    }
+
+    public Map<String, Object> describe(Long ruleId) {
+        RuleStats stats = rules.get(ruleId);
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("tagged", stats != null);
+        if (stats == null) {
+            stats = otherRules;
+        }
+        description.put("true", stats.trues.sum());
+        description.put("false", stats.falses.sum());
+        description.put("errors", stats.errors.sum());
+        description.put("latency", stats.latency.describe());
+        return description;
+    }
+
+    public Map<String, Object> getPhaseStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        phases.forEach((phase, latency) -> stats.put(phase.name().toLowerCase(), latency.describe()));
+        return stats;
+    }
+
+    private RuleStats statsOf(Long ruleId) {
+        RuleStats stats = rules.get(ruleId);
+        if (stats != null) {
+            return stats;
+        }
+        if (taggedRules.get() >= maxTaggedRules) {
+            return otherRules;
+        }
+        return rules.computeIfAbsent(ruleId, id -> taggedRules.getAndIncrement() < maxTaggedRules
+                ? register(id.toString()) : otherRules);
+    }
+
+    private RuleStats register(String rule) {
+        RuleStats stats = new RuleStats();
+        Tags tags = Tags.of("rule", rule);
+        FunctionCounter.builder("ruleengine.rule.evaluations", stats.trues, LongAdder::sum)
+                .tags(tags).tag("result", "true").register(registry);
+        FunctionCounter.builder("ruleengine.rule.evaluations", stats.falses, LongAdder::sum)
+                .tags(tags).tag("result", "false").register(registry);
+        FunctionCounter.builder("ruleengine.rule.evaluations", stats.errors, LongAdder::sum)
+                .tags(tags).tag("result", "error").register(registry);
+        stats.latency.register(registry, "ruleengine.rule.latency", tags);
+        return stats;
+    }
+
+    private static final class RuleStats {
+
+        private final LongAdder trues = new LongAdder();
+        private final LongAdder falses = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final Latency latency = new Latency();
+
+        void record(boolean result) {
+            (result ? trues : falses).increment();
+        }
+    }
+
+    /**
+     * A latency histogram with power-of-two nanosecond buckets, from under 128 ns to over 17 s.
+     */
+    static final class Latency {
+
+        private static final int MIN_BITS = 7;
+        private static final int BUCKETS = 29;
+        private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        Latency() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            int bucket = Math.min(Math.max(64 - Long.numberOfLeadingZeros(nanos) - MIN_BITS, 0), BUCKETS - 1);
+            buckets[bucket].increment();
+            count.increment();
+            totalNanos.add(nanos);
+        }
+
+        // Upper bound of the bucket holding the given fraction of recordings, in nanoseconds
+        long percentile(double fraction) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            long rank = (long) Math.ceil(fraction * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return upperBound(i);
+                }
+            }
+            return 0;
+        }
+
+        private static long upperBound(int bucket) {
+            return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << (bucket + MIN_BITS);
+        }
+
+        void register(MeterRegistry registry, String name, Tags tags) {
+            FunctionTimer.builder(name, this, latency -> latency.count.sum(),
+                    latency -> latency.totalNanos.sum(), TimeUnit.NANOSECONDS).tags(tags).register(registry);
+            for (double fraction : PERCENTILES) {
+                Gauge.builder(name + ".percentile", this, latency -> latency.percentile(fraction) / 1e9)
+                        .tags(tags).tag("quantile", Double.toString(fraction)).baseUnit("seconds")
+                        .register(registry);
+            }
+        }
+
+        Map<String, Object> describe() {
+            Map<String, Object> description = new LinkedHashMap<>();
+            long recorded = count.sum();
+            description.put("count", recorded);
+            description.put("averageNanos", recorded == 0 ? 0.0 : (double) totalNanos.sum() / recorded);
+            for (double fraction : PERCENTILES) {
+                description.put("p" + Math.round(fraction * 100) + "Nanos", percentile(fraction));
+            }
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < BUCKETS; i++) {
+                long bucketCount = buckets[i].sum();
+                if (bucketCount > 0) {
+                    histogram.put(i == BUCKETS - 1 ? "+Inf" : "le" + upperBound(i), bucketCount);
+                }
+            }
+            description.put("histogram", histogram);
+            return description;
+        }
+    }
+}
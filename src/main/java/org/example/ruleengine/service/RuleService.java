@@ -1,25 +1,43 @@
 package org.example.ruleengine.service;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.example.ruleengine.engine.AttributeType;
+import org.example.ruleengine.engine.ColumnBatch;
+import org.example.ruleengine.engine.ColumnarResult;
+import org.example.ruleengine.engine.CompiledRule;
+import org.example.ruleengine.engine.RuleCompiler;
+import org.example.ruleengine.engine.RuleProfile;
+import org.example.ruleengine.engine.RuleTrace;
+import org.example.ruleengine.engine.SlotRecord;
+import org.example.ruleengine.model.AttributeDefinition;
 import org.example.ruleengine.model.Node;
 import org.example.ruleengine.model.Rule;
 import org.example.ruleengine.repository.NodeRepository;
 import org.example.ruleengine.repository.RuleRepository;
+import org.example.ruleengine.serializer.AstCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @Transactional
@@ -27,48 +45,275 @@ public class RuleService {
 
     private final RuleRepository ruleRepository;
     private final NodeRepository nodeRepository;
+    private final RuleCache ruleCache;
+    private final RuleMatcher ruleMatcher;
+    private final AdaptiveReorderer adaptiveReorderer;
+    private final AttributeDictionary attributeDictionary;
+    private final HotRuleCompiler hotRuleCompiler;
+    private final RuleStorage ruleStorage;
+    private final ParseCache parseCache;
+    private final ResultCache resultCache;
+    private final RuleSnapshots ruleSnapshots;
+    private final RuleMetrics ruleMetrics;
+    private final RuleTraces ruleTraces;
+    private final EvaluationSessions evaluationSessions;
     private static final Logger logger = LoggerFactory.getLogger(RuleService.class);
 
-    private static final Pattern RULE_PATTERN = Pattern.compile("^(\\w+)\\s*(>|<|=|>=|<=|!=)\\s*([\\w'\"]+)$");
-    private static final Set<String> VALID_OPERATORS = new HashSet<>(Arrays.asList(">", "<", "=", ">=", "<=", "!="));
+    // Records of a parallel batch taken at a time by one thread
+    private static final int BATCH_PART_SIZE = 128;
+    private static final Pattern RULE_PATTERN = RuleCompiler.CONDITION_PATTERN;
+    private static final Pattern SET_RULE_PATTERN = RuleCompiler.SET_CONDITION_PATTERN;
+    private static final Set<String> VALID_OPERATORS = new HashSet<>(Arrays.asList(">", "<", "=", ">=", "<=", "!=",
+            "IN", "NOT IN"));
 
     @Autowired
-    public RuleService(RuleRepository ruleRepository, NodeRepository nodeRepository) {
+    public RuleService(RuleRepository ruleRepository, NodeRepository nodeRepository, RuleCache ruleCache,
+            RuleMatcher ruleMatcher, AdaptiveReorderer adaptiveReorderer, AttributeDictionary attributeDictionary,
+            HotRuleCompiler hotRuleCompiler, RuleStorage ruleStorage, ParseCache parseCache,
+            ResultCache resultCache, RuleSnapshots ruleSnapshots, RuleMetrics ruleMetrics,
+            RuleTraces ruleTraces, EvaluationSessions evaluationSessions) {
         this.ruleRepository = ruleRepository;
         this.nodeRepository = nodeRepository;
+        this.ruleCache = ruleCache;
+        this.ruleMatcher = ruleMatcher;
+        this.adaptiveReorderer = adaptiveReorderer;
+        this.attributeDictionary = attributeDictionary;
+        this.hotRuleCompiler = hotRuleCompiler;
+        this.ruleStorage = ruleStorage;
+        this.parseCache = parseCache;
+        this.resultCache = resultCache;
+        this.ruleSnapshots = ruleSnapshots;
+        this.ruleMetrics = ruleMetrics;
+        this.ruleTraces = ruleTraces;
+        this.evaluationSessions = evaluationSessions;
     }
 
     public Rule createRule(Rule rule) {
-        validateRule(rule);
-        if (rule.getRootNode() != null) {
+        String[] attributes = prepareNewRule(rule);
+        Rule savedRule = ruleRepository.save(rule);
+        attributeDictionary.registerAll(Arrays.asList(attributes));
+        publishRuleChange(savedRule);
+        return savedRule;
+    }
+
+    /**
+     * Imports rule definitions ({@code name} and {@code expression} strings). Definitions are parsed and
+     * validated in parallel on the evaluation lane's fork threads; the valid ones are persisted in JDBC
+     * batches within this transaction, and their attributes are registered in it once they are.
+     */
+    public ImportResult importRules(List<Map<String, Object>> definitions) {
+        Rule[] rules = new Rule[definitions.size()];
+        String[][] attributes = new String[definitions.size()][];
+        String[] errors = new String[definitions.size()];
+        EvaluationExecutor.forEachPart(definitions.size(), i -> {
+            EvaluationExecutor.checkDeadline();
+            try {
+                Rule rule = toImportedRule(definitions.get(i));
+                attributes[i] = prepareNewRule(rule);
+                rules[i] = rule;
+            } catch (IllegalArgumentException e) {
+                errors[i] = e.getMessage();
+            }
+        });
+
+        List<Rule> validRules = new ArrayList<>();
+        Set<String> attributeNames = new LinkedHashSet<>();
+        for (int i = 0; i < rules.length; i++) {
+            if (rules[i] != null) {
+                validRules.add(rules[i]);
+                attributeNames.addAll(Arrays.asList(attributes[i]));
+            }
+        }
+        ruleStorage.persistAll(validRules);
+        attributeDictionary.registerAll(attributeNames);
+        publishRuleChanges(validRules);
+
+        Long[] ids = new Long[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            ids[i] = rules[i] == null ? null : rules[i].getId();
+        }
+        return new ImportResult(ids, errors);
+    }
+
+    private Rule toImportedRule(Map<String, Object> definition) {
+        if (definition == null) {
+            throw new IllegalArgumentException("Rule definition cannot be null");
+        }
+        Object name = definition.get("name");
+        Object expression = definition.get("expression");
+        if (!(name instanceof String) || !(expression instanceof String)) {
+            throw new IllegalArgumentException("Rule name and expression are required");
+        }
+        Rule rule = new Rule();
+        rule.setName((String) name);
+        rule.setRootNode(parseRuleString((String) expression));
+        return rule;
+    }
+
+    // Returns the rule's attributes, to be registered once the rule is stored
+    private String[] prepareNewRule(Rule rule) {
+        String[] attributes = validate(rule);
+        if (storesBlobs()) {
+            rule.storeAst(rule.getRootNode());
+        } else if (rule.getRootNode() != null) {
             setupNodeRelationships(rule, rule.getRootNode());
         }
-        return ruleRepository.save(rule);
+        return attributes;
     }
 
     public Rule updateRule(Long id, Rule updatedRule) {
-        validateRule(updatedRule);
+        String[] attributes = validate(updatedRule);
         Rule existingRule = ruleRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Rule not found with id: " + id));
 
         existingRule.setName(updatedRule.getName());
-        if (updatedRule.getRootNode() != null) {
+        if (storesBlobs()) {
+            existingRule.storeAst(updatedRule.getRootNode());
+        } else if (updatedRule.getRootNode() != null) {
+            Node replacedRoot = existingRule.getRootNode();
+            // A blob written by a migration would otherwise still be read instead of the new nodes
+            existingRule.setAst(null);
+            existingRule.setRootNode(updatedRule.getRootNode());
             setupNodeRelationships(existingRule, updatedRule.getRootNode());
+            removeReplacedNodes(existingRule, replacedRoot);
         }
 
-        return ruleRepository.save(existingRule);
+        // Locks the row, so concurrent updates of the rule each get a revision of their own
+        ruleRepository.incrementRevision(id);
+        Rule savedRule = ruleRepository.save(existingRule);
+        attributeDictionary.registerAll(Arrays.asList(attributes));
+        savedRule.setRevision(ruleRepository.findRevision(id));
+        publishRuleChange(savedRule);
+        return savedRule;
     }
 
-    private void setupNodeRelationships(Rule rule, Node node) {
-        node.setRule(rule);
-        rule.getNodes().add(node);
-        
-        if (node.getLeft() != null) {
-            setupNodeRelationships(rule, node.getLeft());
+    /**
+     * Publishes a new rule set snapshot and refreshes the match network once the change is committed, so
+     * that concurrent readers can never evaluate or match against a version that was rolled back.
+     */
+    private void publishRuleChange(Rule rule) {
+        Long ruleId = rule.getId();
+        Node rootNode = rule.getRootNode();
+        Map<Long, byte[]> asts = new LinkedHashMap<>();
+        asts.put(ruleId, encode(rule));
+        Map<Long, Long> revisions = new LinkedHashMap<>();
+        revisions.put(ruleId, revisionOf(rule));
+        afterCommit(() -> {
+            long version = ruleSnapshots.publish(asts, revisions).getVersion();
+            ruleCache.invalidate(ruleId);
+            ruleMatcher.ruleChanged(version, ruleId, rootNode);
+        });
+    }
+
+    private void publishRuleChanges(List<Rule> rules) {
+        Map<Long, Node> rootNodes = new LinkedHashMap<>();
+        Map<Long, byte[]> asts = new LinkedHashMap<>();
+        for (Rule rule : rules) {
+            rootNodes.put(rule.getId(), rule.getRootNode());
+            asts.put(rule.getId(), encode(rule));
+        }
+        afterCommit(() -> {
+            long version = ruleSnapshots.publish(asts).getVersion();
+            rootNodes.keySet().forEach(ruleCache::invalidate);
+            ruleMatcher.rulesChanged(version, rootNodes);
+        });
+    }
+
+    private static long revisionOf(Rule rule) {
+        return rule.getRevision() == null ? 0 : rule.getRevision();
+    }
+
+    private static byte[] encode(Rule rule) {
+        return rule.getAst() != null ? rule.getAst() : AstCodec.encode(rule.getRootNode());
+    }
+
+    private static void afterCommit(Runnable publish) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish.run();
+                }
+            });
+        } else {
+            publish.run();
+        }
+    }
+
+    private boolean storesBlobs() {
+        return ruleStorage.getMode() == RuleStorage.Mode.BLOB;
+    }
+
+    private void setupNodeRelationships(Rule rule, Node rootNode) {
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(rootNode);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            node.setRule(rule);
+            rule.getNodes().add(node);
+
+            if (node.getRight() != null) {
+                pending.push(node.getRight());
+            }
+            if (node.getLeft() != null) {
+                pending.push(node.getLeft());
+            }
+        }
+    }
+
+    /**
+     * Deletes the node rows of a rule's replaced tree. Subtrees that another rule still links to, such as
+     * the rules combined from this one, are kept whole.
+     */
+    private void removeReplacedNodes(Rule rule, Node replacedRoot) {
+        if (replacedRoot == null || replacedRoot.getId() == null) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(replacedRoot);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            ids.add(node.getId());
+            if (node.getRight() != null) {
+                pending.push(node.getRight());
+            }
+            if (node.getLeft() != null) {
+                pending.push(node.getLeft());
+            }
+        }
+        Set<Long> shared = new HashSet<>(nodeRepository.findLinkedFromOutside(ids, rule.getId()));
+
+        Set<Node> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        pending.push(replacedRoot);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            if (shared.contains(node.getId())) {
+                continue;
+            }
+            removed.add(node);
+            if (node.getRight() != null) {
+                pending.push(node.getRight());
+            }
+            if (node.getLeft() != null) {
+                pending.push(node.getLeft());
+            }
         }
-        if (node.getRight() != null) {
-            setupNodeRelationships(rule, node.getRight());
+        // Unlinked first, so that deleting a node neither cascades into a kept subtree nor depends on order
+        for (Node node : removed) {
+            node.setLeft(null);
+            node.setRight(null);
         }
+        rule.getNodes().removeIf(removed::contains);
+        nodeRepository.deleteAll(removed);
+    }
+
+    private String[] validate(Rule rule) {
+        long start = System.nanoTime();
+        validateRule(rule);
+        String[] attributes = validateAttributes(rule.getRootNode());
+        ruleMetrics.recordPhase(RuleMetrics.Phase.VALIDATE, System.nanoTime() - start);
+        return attributes;
     }
 
     private void validateRule(Rule rule) {
@@ -81,35 +326,48 @@ public class RuleService {
         validateNode(rule.getRootNode());
     }
 
-    private void validateNode(Node node) {
-        if (node.getType() == null || node.getType().trim().isEmpty()) {
-            throw new IllegalArgumentException("Node type cannot be null or empty");
-        }
-        if (node.getNodeValue() == null || node.getNodeValue().trim().isEmpty()) {
-            throw new IllegalArgumentException("Node value cannot be null or empty");
-        }
-        if (node.getType().equals("condition")) {
-            validateCondition(node.getNodeValue());
-        } else if (node.getType().equals("operator")) {
-            if (!node.getNodeValue().equals("AND") && !node.getNodeValue().equals("OR")) {
-                throw new IllegalArgumentException("Invalid operator: " + node.getNodeValue());
+    // Reports comparisons that contradict a declared attribute type now instead of at evaluation time
+    private String[] validateAttributes(Node rootNode) {
+        return RuleCompiler.compile(null, rootNode, attributeDictionary.getDeclaredTypes()).getAttributes();
+    }
+
+    private void validateNode(Node rootNode) {
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(rootNode);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            if (node.getType() == null || node.getType().trim().isEmpty()) {
+                throw new IllegalArgumentException("Node type cannot be null or empty");
             }
-            if (node.getLeft() == null || node.getRight() == null) {
-                throw new IllegalArgumentException("Operator node must have both left and right child nodes");
+            if (node.getNodeValue() == null || node.getNodeValue().trim().isEmpty()) {
+                throw new IllegalArgumentException("Node value cannot be null or empty");
+            }
+            if (node.getType().equals("condition")) {
+                validateCondition(node.getNodeValue());
+            } else if (node.getType().equals("operator")) {
+                if (!node.getNodeValue().equals("AND") && !node.getNodeValue().equals("OR")) {
+                    throw new IllegalArgumentException("Invalid operator: " + node.getNodeValue());
+                }
+                if (node.getLeft() == null || node.getRight() == null) {
+                    throw new IllegalArgumentException("Operator node must have both left and right child nodes");
+                }
+                pending.push(node.getRight());
+                pending.push(node.getLeft());
+            } else {
+                throw new IllegalArgumentException("Invalid node type: " + node.getType());
             }
-            validateNode(node.getLeft());
-            validateNode(node.getRight());
-        } else {
-            throw new IllegalArgumentException("Invalid node type: " + node.getType());
         }
     }
 
     private void validateCondition(String condition) {
         Matcher matcher = RULE_PATTERN.matcher(condition);
+        if (!matcher.matches()) {
+            matcher = SET_RULE_PATTERN.matcher(condition);
+        }
         if (!matcher.matches()) {
             throw new IllegalArgumentException("Invalid condition format: " + condition);
         }
-        String operator = matcher.group(2);
+        String operator = matcher.group(2).replaceAll("\\s+", " ");
         if (!VALID_OPERATORS.contains(operator)) {
             throw new IllegalArgumentException("Invalid operator in condition: " + operator);
         }
@@ -135,169 +393,392 @@ public class RuleService {
                 newNode.setNodeValue("AND");
                 newNode.setLeft(combinedNode);
                 newNode.setRight(rulesToCombine.get(i).getRootNode());
-                combinedNode = nodeRepository.save(newNode);
+                combinedNode = storesBlobs() ? newNode : nodeRepository.save(newNode);
             }
 
             Rule combinedRule = new Rule();
             combinedRule.setName("Combined Rule");
-            combinedRule.setRootNode(combinedNode);
-            return ruleRepository.save(combinedRule);
+            if (storesBlobs()) {
+                combinedRule.storeAst(combinedNode);
+            } else {
+                combinedRule.setRootNode(combinedNode);
+            }
+            Rule savedRule = ruleRepository.save(combinedRule);
+            publishRuleChange(savedRule);
+            return savedRule;
         } catch (Exception e) {
             logger.error("Error occurred while combining rules: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to combine rules", e);
         }
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean evaluateRule(Long ruleId, Map<String, Object> data) {
+        return evaluateRule(getSnapshot(), ruleId, data);
+    }
+
+    /**
+     * Evaluates a rule as it is in the given snapshot, whatever changes are published meanwhile.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean evaluateRule(RuleSetSnapshot snapshot, Long ruleId, Map<String, Object> data) {
+        if (ruleId == null) {
+            throw new IllegalArgumentException("Rule ID cannot be null");
+        }
+        long start = System.nanoTime();
+        try {
+            validateData(data);
+            CompiledRule compiledRule = getCompiledRule(snapshot, ruleId);
+            EvaluationExecutor.checkDeadline();
+            SlotRecord slotRecord = compiledRule.newRecord();
+            compiledRule.load(data, slotRecord);
+            return evaluateLoaded(compiledRule, slotRecord, start);
+        } catch (IllegalArgumentException e) {
+            recordError(ruleId);
+            throw e;
+        }
+    }
+
+    /**
+     * Evaluates a rule on a record the loader fills in for it, so the data never has to be built as a map.
+     * The rule is resolved first, since the loader needs to know which attributes it reads.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean evaluateRule(RuleSetSnapshot snapshot, Long ruleId, RecordLoader loader) throws IOException {
+        if (ruleId == null) {
+            throw new IllegalArgumentException("Rule ID cannot be null");
+        }
+        long start = System.nanoTime();
+        CompiledRule compiledRule = getCompiledRule(snapshot, ruleId);
+        EvaluationExecutor.checkDeadline();
+        try {
+            SlotRecord slotRecord = compiledRule.newRecord();
+            loader.load(compiledRule, slotRecord);
+            return evaluateLoaded(compiledRule, slotRecord, start);
+        } catch (IllegalArgumentException e) {
+            recordError(ruleId);
+            throw e;
+        }
+    }
+
+    private boolean evaluateLoaded(CompiledRule compiledRule, SlotRecord slotRecord, long start) {
+        long loaded = System.nanoTime();
+        boolean result = resultCache.evaluate(compiledRule, slotRecord);
+        long end = System.nanoTime();
+        ruleMetrics.recordPhase(RuleMetrics.Phase.LOAD, loaded - start);
+        ruleMetrics.recordPhase(RuleMetrics.Phase.EVALUATE, end - loaded);
+        ruleMetrics.recordEvaluation(compiledRule.getRuleId(), result, end - start);
+        if (ruleTraces.shouldSample()) {
+            ruleTraces.add(compiledRule.getRuleId(), RuleTrace.of(compiledRule, slotRecord));
+        }
+        return result;
+    }
+
+    /**
+     * Evaluates a rule with tracing, reporting the same result or error as {@link #evaluateRule}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RuleTrace explainRule(RuleSetSnapshot snapshot, Long ruleId, Map<String, Object> data) {
         if (ruleId == null) {
             throw new IllegalArgumentException("Rule ID cannot be null");
         }
         validateData(data);
-        Rule rule = ruleRepository.findById(ruleId)
-                .orElseThrow(() -> new RuntimeException("Rule not found with ID: " + ruleId));
-        return evaluateNode(rule.getRootNode(), data);
+        CompiledRule compiledRule = getCompiledRule(snapshot, ruleId);
+        EvaluationExecutor.checkDeadline();
+        SlotRecord slotRecord = compiledRule.newRecord();
+        compiledRule.load(data, slotRecord);
+        return RuleTrace.of(compiledRule, slotRecord);
     }
 
-    private void validateData(Map<String, Object> data) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<Map<String, Object>> getSampledTraces(Long ruleId) {
+        getCompiledRule(ruleId);
+        return ruleTraces.getTraces(ruleId);
+    }
+
+    /**
+     * Opens an incremental evaluation session on a rule as it is now, optionally with the attributes known
+     * so far, and returns its ID and current result.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> openSession(Long ruleId, Map<String, Object> data) {
+        CompiledRule compiledRule = getCompiledRule(ruleId);
+        EvaluationExecutor.checkDeadline();
+        return evaluationSessions.open(compiledRule, data).describe();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> updateSession(long sessionId, Map<String, Object> data) {
         if (data == null || data.isEmpty()) {
             throw new IllegalArgumentException("Data map cannot be null or empty");
         }
-        for (Map.Entry<String, Object> entry : data.entrySet()) {
-            if (entry.getKey() == null || entry.getKey().trim().isEmpty()) {
-                throw new IllegalArgumentException("Data key cannot be null or empty");
-            }
-            if (entry.getValue() == null) {
-                throw new IllegalArgumentException("Data value cannot be null for key: " + entry.getKey());
-            }
-            if (!(entry.getValue() instanceof String || entry.getValue() instanceof Number)) {
-                throw new IllegalArgumentException("Data value must be a String or Number for key: " + entry.getKey());
-            }
+        EvaluationSessions.Session session = getSession(sessionId);
+        EvaluationExecutor.checkDeadline();
+        session.update(data);
+        return session.describe();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> describeSession(long sessionId) {
+        return getSession(sessionId).describe();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void closeSession(long sessionId) {
+        if (!evaluationSessions.close(sessionId)) {
+            throw new RuntimeException("Session not found with ID: " + sessionId);
         }
     }
 
-    public Node parseRuleString(String ruleString) {
-        if (ruleString == null || ruleString.trim().isEmpty()) {
-            throw new IllegalArgumentException("Rule expression cannot be null or empty");
-        }
-        ruleString = ruleString.replaceAll("\\s+", " ").trim();
-        Queue<String> tokens = tokenize(ruleString);
-        return parseExpression(tokens);
-    }
-
-    private Queue<String> tokenize(String ruleString) {
-        List<String> tokens = new ArrayList<>();
-        StringBuilder sb = new StringBuilder();
-        boolean inQuotes = false;
-
-        for (char c : ruleString.toCharArray()) {
-            if (c == '"' || c == '\'') {
-                inQuotes = !inQuotes;
-                sb.append(c);
-            } else if (!inQuotes && (c == '(' || c == ')' || c == ' ')) {
-                if (sb.length() > 0) {
-                    tokens.add(sb.toString());
-                    sb.setLength(0);
-                }
-                if (c != ' ') {
-                    tokens.add(String.valueOf(c));
-                }
-            } else {
-                sb.append(c);
-            }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> getSessionStats() {
+        return evaluationSessions.getStats();
+    }
+
+    private EvaluationSessions.Session getSession(long sessionId) {
+        EvaluationSessions.Session session = evaluationSessions.get(sessionId);
+        if (session == null) {
+            throw new RuntimeException("Session not found with ID: " + sessionId);
         }
+        return session;
+    }
 
-        if (sb.length() > 0) {
-            tokens.add(sb.toString());
+    // Only stored rules are counted, so requests for made-up IDs cannot add metric series
+    private void recordError(Long ruleId) {
+        if (ruleSnapshots.current().get(ruleId) != null) {
+            ruleMetrics.recordError(ruleId);
         }
+    }
 
-        return new LinkedList<>(tokens);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompiledRule getCompiledRule(Long ruleId) {
+        return getCompiledRule(getSnapshot(), ruleId);
     }
 
-    private Node parseExpression(Queue<String> tokens) {
-        if (tokens.isEmpty()) {
-            throw new IllegalArgumentException("Invalid rule expression: empty token list");
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompiledRule getCompiledRule(RuleSetSnapshot snapshot, Long ruleId) {
+        if (ruleId == null) {
+            throw new IllegalArgumentException("Rule ID cannot be null");
         }
-        Node left = parseTerm(tokens);
-        while (!tokens.isEmpty() && (tokens.peek().equals("AND") || tokens.peek().equals("OR"))) {
-            String operator = tokens.poll();
-            Node right = parseTerm(tokens);
-            Node newNode = new Node();
-            newNode.setType("operator");
-            newNode.setNodeValue(operator);
-            newNode.setLeft(left);
-            newNode.setRight(right);
-            left = newNode;
+        RuleSetSnapshot.Entry entry = snapshot.get(ruleId);
+        if (entry == null) {
+            entry = loadRule(ruleId);
         }
-        return left;
+        RuleSetSnapshot.Entry rule = entry;
+        return ruleCache.get(ruleId, rule.getVersion(), id -> compileRule(id, rule));
     }
 
-    private Node parseTerm(Queue<String> tokens) {
-        if (tokens.isEmpty()) {
-            throw new IllegalArgumentException("Unexpected end of expression");
-        }
-        if (tokens.peek().equals("(")) {
-            tokens.poll(); // Remove opening parenthesis
-            Node node = parseExpression(tokens);
-            if (tokens.isEmpty() || !tokens.poll().equals(")")) {
-                throw new IllegalArgumentException("Mismatched parentheses");
-            }
-            return node;
-        } else {
-            String attribute = tokens.poll();
-            if (tokens.isEmpty()) {
-                throw new IllegalArgumentException("Incomplete condition: missing operator and value");
+    public RuleSetSnapshot getSnapshot() {
+        return ruleSnapshots.current();
+    }
+
+    public Map<String, Object> getSnapshotStats() {
+        return ruleSnapshots.getStats();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchResult evaluateBatch(CompiledRule rule, List<Map<String, Object>> records, boolean parallel) {
+        long start = System.nanoTime();
+        Long ruleId = rule.getRuleId();
+        boolean[] matches = new boolean[records.size()];
+        String[] errors = new String[records.size()];
+        int partSize = parallel ? BATCH_PART_SIZE : Math.max(1, records.size());
+        EvaluationExecutor.forEachPart((records.size() + partSize - 1) / partSize, part -> {
+            // One slot record per part, reused for every record it evaluates
+            SlotRecord slotRecord = rule.newRecord();
+            int end = Math.min(records.size(), (part + 1) * partSize);
+            for (int i = part * partSize; i < end; i++) {
+                EvaluationExecutor.checkDeadline();
+                Map<String, Object> record = records.get(i);
+                try {
+                    validateData(record);
+                    rule.load(record, slotRecord);
+                    matches[i] = resultCache.evaluate(rule, slotRecord);
+                    ruleMetrics.recordResult(ruleId, matches[i]);
+                } catch (IllegalArgumentException e) {
+                    errors[i] = e.getMessage();
+                    ruleMetrics.recordError(ruleId);
+                }
             }
-            String operator = tokens.poll();
-            if (tokens.isEmpty()) {
-                throw new IllegalArgumentException("Incomplete condition: missing value");
+        });
+        ruleMetrics.recordPhase(RuleMetrics.Phase.BATCH, System.nanoTime() - start);
+        return new BatchResult(matches, errors);
+    }
+
+    /**
+     * Evaluates a rule over a columnar batch. Rows the vectorized pass leaves pending go through the
+     * per-record path, so every row gets the same result or error as {@link #evaluateRule}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ColumnarResult evaluateColumns(CompiledRule rule, ColumnBatch batch) {
+        long start = System.nanoTime();
+        EvaluationExecutor.checkDeadline();
+        ColumnarResult result = rule.evaluate(batch);
+        SlotRecord slotRecord = rule.newRecord();
+        for (int row = result.nextPendingRow(0); row >= 0; row = result.nextPendingRow(row + 1)) {
+            EvaluationExecutor.checkDeadline();
+            Map<String, Object> data = batch.getRow(row);
+            try {
+                validateData(data);
+                rule.load(data, slotRecord);
+                result.resolve(row, rule.evaluate(slotRecord));
+            } catch (IllegalArgumentException e) {
+                result.reject(row, e.getMessage());
             }
-            String value = tokens.poll();
-            
-            if (!VALID_OPERATORS.contains(operator)) {
-                throw new IllegalArgumentException("Invalid operator: " + operator);
+        }
+        int matched = result.getMatchCount();
+        int errors = result.getErrors().size();
+        ruleMetrics.recordResults(rule.getRuleId(), matched, result.size() - matched - errors, errors);
+        ruleMetrics.recordPhase(RuleMetrics.Phase.BATCH, System.nanoTime() - start);
+        return result;
+    }
+
+    // Only rules no snapshot holds yet are read from the database
+    private RuleSetSnapshot.Entry loadRule(Long ruleId) {
+        Rule rule = ruleRepository.findById(ruleId)
+                .orElseThrow(() -> new RuntimeException("Rule not found with ID: " + ruleId));
+        return ruleSnapshots.admit(ruleId, encode(rule), revisionOf(rule));
+    }
+
+    private CompiledRule compileRule(Long ruleId, RuleSetSnapshot.Entry entry) {
+        CompiledRule compiledRule = RuleCompiler.compile(ruleId, entry.getRootNode(),
+                attributeDictionary.getDeclaredTypes());
+        adaptiveReorderer.configure(compiledRule);
+        hotRuleCompiler.configure(compiledRule);
+        compiledRule.setVersion(entry.getVersion());
+        return compiledRule;
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> getRuleStats(Long ruleId) {
+        CompiledRule compiledRule = getCompiledRule(ruleId);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ruleId", ruleId);
+        stats.put("reordering", adaptiveReorderer.getMode(ruleId));
+        stats.put("generated", compiledRule.isGenerated());
+        stats.put("resultCache", resultCache.isEnabled(ruleId));
+        stats.put("evaluations", ruleMetrics.describe(ruleId));
+        RuleProfile profile = compiledRule.getProfile();
+        if (profile != null) {
+            stats.put("sampledEvaluations", profile.getSamples());
+            stats.put("reorders", profile.getReorders());
+            stats.put("root", profile.describe(compiledRule.getRoot()));
+        }
+        return stats;
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void setReorderingMode(Long ruleId, AdaptiveReorderer.Mode mode) {
+        getCompiledRule(ruleId);
+        adaptiveReorderer.setMode(ruleId, mode);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void setResultCaching(Long ruleId, boolean enabled) {
+        getCompiledRule(ruleId);
+        resultCache.setEnabled(ruleId, enabled);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public MatchResult matchRules(Map<String, Object> data) {
+        validateData(data);
+        EvaluationExecutor.checkDeadline();
+        long start = System.nanoTime();
+        MatchResult result = ruleMatcher.match(data);
+        ruleMetrics.recordPhase(RuleMetrics.Phase.MATCH, System.nanoTime() - start);
+        return result;
+    }
+
+    public Map<String, Object> getMatcherStats() {
+        return ruleMatcher.getStats();
+    }
+
+    public List<AttributeDefinition> getAttributes() {
+        return attributeDictionary.getAll();
+    }
+
+    /**
+     * Declares an attribute's type. Declaring it numeric is rejected while stored rules compare it with
+     * non-numeric literals, since every evaluation of those rules would then fail; the error names them.
+     */
+    public AttributeDefinition declareAttributeType(String name, AttributeType type) {
+        if (type == AttributeType.NUMERIC) {
+            List<Long> conflicting = findRulesConflictingWith(name, type);
+            if (!conflicting.isEmpty()) {
+                throw new IllegalArgumentException("Attribute " + name + " cannot be declared numeric: rules "
+                        + conflicting + " compare it with non-numeric literals");
             }
-            Node node = new Node();
-            node.setType("condition");
-            node.setNodeValue(attribute + " " + operator + " " + value);
-            return node;
         }
+        AttributeDefinition definition = attributeDictionary.declare(name, type);
+        // Compiled rules carry the types they were compiled against
+        ruleCache.invalidateAll();
+        return definition;
     }
 
-    private boolean evaluateNode(Node node, Map<String, Object> data) {
-        if (node.getType().equals("operator")) {
-            boolean leftResult = evaluateNode(node.getLeft(), data);
-            boolean rightResult = evaluateNode(node.getRight(), data);
-            return node.getNodeValue().equals("AND") ? leftResult && rightResult : leftResult || rightResult;
-        } else {
-            String[] parts = node.getNodeValue().split(" ", 3);
-            String attribute = parts[0];
-            String operator = parts[1];
-            String value = parts[2].replaceAll("^['\"]|['\"]$", ""); // Remove surrounding quotes if present
-            Object dataValue = data.get(attribute);
-            
-            if (dataValue == null) {
-                throw new IllegalArgumentException("Attribute not found in data: " + attribute);
+    // Compiling against the new type alone fails exactly for the rules it conflicts with
+    private List<Long> findRulesConflictingWith(String name, AttributeType type) {
+        Map<String, AttributeType> declaredTypes = Map.of(name, type);
+        List<Long> conflicting = new ArrayList<>();
+        for (Object[] row : ruleRepository.findStoredAsts()) {
+            if (conflictsWith(AstCodec.decode((byte[]) row[1]), declaredTypes)) {
+                conflicting.add((Long) row[0]);
+            }
+        }
+        for (Rule rule : ruleRepository.findRulesStoredAsNodes()) {
+            if (conflictsWith(rule.getRootNode(), declaredTypes)) {
+                conflicting.add(rule.getId());
             }
+        }
+        Collections.sort(conflicting);
+        return conflicting;
+    }
 
-            return switch (operator) {
-                case ">" -> compareValues(dataValue, value) > 0;
-                case "<" -> compareValues(dataValue, value) < 0;
-                case "=" -> compareValues(dataValue, value) == 0;
-                case ">=" -> compareValues(dataValue, value) >= 0;
-                case "<=" -> compareValues(dataValue, value) <= 0;
-                case "!=" -> compareValues(dataValue, value) != 0;
-                default -> throw new IllegalArgumentException("Unsupported operator: " + operator);
-            };
+    private static boolean conflictsWith(Node rootNode, Map<String, AttributeType> declaredTypes) {
+        try {
+            RuleCompiler.compile(null, rootNode, declaredTypes, false);
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
         }
     }
 
-    private int compareValues(Object value1, Object value2) {
-        if (value1 instanceof Number && value2 instanceof String) {
-            return Double.compare(((Number) value1).doubleValue(), Double.parseDouble((String) value2));
-        } else if (value1 instanceof String && value2 instanceof String) {
-            return ((String) value1).compareTo((String) value2);
-        } else {
-            throw new IllegalArgumentException("Unsupported value types for comparison");
+    public Map<String, Object> getCacheStats() {
+        return ruleCache.getStats();
+    }
+
+    private void validateData(Map<String, Object> data) {
+        if (data == null || data.isEmpty()) {
+            throw new IllegalArgumentException("Data map cannot be null or empty");
+        }
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            if (entry.getKey() == null || entry.getKey().trim().isEmpty()) {
+                throw new IllegalArgumentException("Data key cannot be null or empty");
+            }
+            if (entry.getValue() == null) {
+                throw new IllegalArgumentException("Data value cannot be null for key: " + entry.getKey());
+            }
+            if (!(entry.getValue() instanceof String || entry.getValue() instanceof Number)) {
+                throw new IllegalArgumentException("Data value must be a String or Number for key: " + entry.getKey());
+            }
         }
     }
+
+    public Node parseRuleString(String ruleString) {
+        long start = System.nanoTime();
+        Node rootNode = parseCache.parse(ruleString);
+        ruleMetrics.recordPhase(RuleMetrics.Phase.PARSE, System.nanoTime() - start);
+        return rootNode;
+    }
+
+    public Map<String, Object> getParseCacheStats() {
+        return parseCache.getStats();
+    }
+
+    public Map<String, Object> getResultCacheStats() {
+        return resultCache.getStats();
+    }
+
+    public Map<String, Object> getPhaseStats() {
+        return ruleMetrics.getPhaseStats();
+    }
 }
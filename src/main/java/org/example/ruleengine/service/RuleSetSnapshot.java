@@ -0,0 +1,209 @@
+package org.example.ruleengine.service;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.example.ruleengine.model.Node;
+import org.example.ruleengine.model.RuleSetFingerprint;
+import org.example.ruleengine.serializer.AstCodec;
+
+/**
+ * An immutable view of the stored rules at one version of the rule set. Each rule is kept as its encoded
+ * AST together with the version of the rule set that last changed it.
+ * <p>
+ * Rules are held in a persistent radix trie over their IDs, 32 ways per level, so a change copies only
+ * the few arrays on the path to each changed rule and shares the rest with the previous snapshot.
+ */
+public final class RuleSetSnapshot {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    static final RuleSetSnapshot EMPTY = new RuleSetSnapshot(0, new Object[WIDTH], 0, 0);
+
+    private final long version;
+    private final Object[] root;
+    // Bits of the rule ID consumed below the root level
+    private final int shift;
+    private final int size;
+
+    private RuleSetSnapshot(long version, Object[] root, int shift, int size) {
+        this.version = version;
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Entry get(Long ruleId) {
+        if (ruleId == null || ruleId < 0 || ruleId >>> shift >= WIDTH) {
+            return null;
+        }
+        Object[] level = root;
+        for (int levelShift = shift; levelShift > 0; levelShift -= BITS) {
+            level = (Object[]) level[(int) (ruleId >>> levelShift) & MASK];
+            if (level == null) {
+                return null;
+            }
+        }
+        return (Entry) level[(int) (long) ruleId & MASK];
+    }
+
+    /**
+     * The next version of the rule set, in which the given rules have the given ASTs. A rule already at a
+     * higher revision keeps its entry, since committed changes can be published out of order.
+     */
+    RuleSetSnapshot withRules(Map<Long, byte[]> asts, Map<Long, Long> revisions) {
+        long nextVersion = version + 1;
+        RuleSetSnapshot next = this;
+        for (Map.Entry<Long, byte[]> rule : asts.entrySet()) {
+            long revision = revisions.getOrDefault(rule.getKey(), 0L);
+            Entry current = next.get(rule.getKey());
+            if (current == null || current.revision <= revision) {
+                next = next.with(rule.getKey(), new Entry(rule.getValue(), nextVersion, revision), nextVersion);
+            }
+        }
+        return next.version == nextVersion ? next : new RuleSetSnapshot(nextVersion, root, shift, size);
+    }
+
+    /**
+     * The same version of the rule set, with a rule it did not hold yet filled in from storage.
+     */
+    RuleSetSnapshot withLoadedRule(Long ruleId, byte[] ast, long revision) {
+        return with(ruleId, new Entry(ast, version, revision), version);
+    }
+
+    /**
+     * A snapshot holding exactly the given rules, built in place rather than by a copy per rule.
+     */
+    static RuleSetSnapshot of(long version, Map<Long, Entry> entries) {
+        int shift = 0;
+        for (Long ruleId : entries.keySet()) {
+            if (ruleId < 0) {
+                throw new IllegalArgumentException("Rule ID cannot be negative: " + ruleId);
+            }
+            while (ruleId >>> shift >= WIDTH) {
+                shift += BITS;
+            }
+        }
+        Object[] root = new Object[WIDTH];
+        for (Map.Entry<Long, Entry> rule : entries.entrySet()) {
+            long ruleId = rule.getKey();
+            Object[] level = root;
+            for (int levelShift = shift; levelShift > 0; levelShift -= BITS) {
+                int index = (int) (ruleId >>> levelShift) & MASK;
+                if (level[index] == null) {
+                    level[index] = new Object[WIDTH];
+                }
+                level = (Object[]) level[index];
+            }
+            level[(int) ruleId & MASK] = rule.getValue();
+        }
+        return new RuleSetSnapshot(version, root, shift, entries.size());
+    }
+
+    /**
+     * Visits every rule in ascending ID order.
+     */
+    public void forEach(BiConsumer<Long, Entry> action) {
+        forEach(root, shift, 0, action);
+    }
+
+    private static void forEach(Object[] level, int levelShift, long prefix, BiConsumer<Long, Entry> action) {
+        for (int i = 0; i < WIDTH; i++) {
+            if (level[i] == null) {
+                continue;
+            }
+            long ruleId = prefix | ((long) i << levelShift);
+            if (levelShift == 0) {
+                action.accept(ruleId, (Entry) level[i]);
+            } else {
+                forEach((Object[]) level[i], levelShift - BITS, ruleId, action);
+            }
+        }
+    }
+
+    public RuleSetFingerprint fingerprint() {
+        long[] sums = new long[2];
+        forEach((ruleId, entry) -> {
+            sums[0] += ruleId;
+            sums[1] += entry.revision;
+        });
+        return new RuleSetFingerprint((long) size, sums[0], sums[1]);
+    }
+
+    private RuleSetSnapshot with(Long ruleId, Entry entry, long nextVersion) {
+        if (ruleId < 0) {
+            throw new IllegalArgumentException("Rule ID cannot be negative: " + ruleId);
+        }
+        Object[] nextRoot = root;
+        int nextShift = shift;
+        while (ruleId >>> nextShift >= WIDTH) {
+            Object[] parent = new Object[WIDTH];
+            parent[0] = nextRoot;
+            nextRoot = parent;
+            nextShift += BITS;
+        }
+
+        nextRoot = nextRoot.clone();
+        Object[] level = nextRoot;
+        for (int levelShift = nextShift; levelShift > 0; levelShift -= BITS) {
+            int index = (int) (ruleId >>> levelShift) & MASK;
+            Object[] child = (Object[]) level[index];
+            child = child == null ? new Object[WIDTH] : child.clone();
+            level[index] = child;
+            level = child;
+        }
+        int index = (int) (long) ruleId & MASK;
+        int nextSize = level[index] == null ? size + 1 : size;
+        level[index] = entry;
+        return new RuleSetSnapshot(nextVersion, nextRoot, nextShift, nextSize);
+    }
+
+    public static final class Entry {
+
+        private final byte[] ast;
+        private final long version;
+        private final long revision;
+
+        Entry(byte[] ast, long version, long revision) {
+            this.ast = ast;
+            this.version = version;
+            this.revision = revision;
+        }
+
+        /**
+         * Version of the rule set in which the rule last changed.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Revision of the stored rule, counting its updates.
+         */
+        public long getRevision() {
+            return revision;
+        }
+
+        // The encoded AST itself, for writing out; never handed to callers that could change it
+        byte[] encodedAst() {
+            return ast;
+        }
+
+        /**
+         * A fresh copy of the rule's AST; the snapshot's own copy stays encoded and is never shared.
+         */
+        public Node getRootNode() {
+            return AstCodec.decode(ast);
+        }
+    }
+}
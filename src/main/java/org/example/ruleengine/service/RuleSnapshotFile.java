@@ -0,0 +1,113 @@
+package org.example.ruleengine.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes a {@link RuleSetSnapshot} as a single file: a header, each rule's ID, version,
+ * revision and encoded AST, and a CRC-32 of everything before it. The file is read through a read-only
+ * mapping and written to a temporary file that is then moved over the old one, so a reader never sees a
+ * partly written snapshot.
+ */
+final class RuleSnapshotFile {
+
+    private static final int MAGIC = 0x52534E50;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+    private static final int ENTRY_HEADER_BYTES = 8 + 8 + 8 + 4;
+    private static final int TRAILER_BYTES = 8;
+
+    private RuleSnapshotFile() {
+    }
+
+    static void write(RuleSetSnapshot snapshot, Path file) throws IOException {
+        int[] length = {HEADER_BYTES + TRAILER_BYTES};
+        snapshot.forEach((ruleId, entry) -> length[0] += ENTRY_HEADER_BYTES + entry.encodedAst().length);
+        ByteBuffer buffer = ByteBuffer.allocate(length[0]);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(snapshot.getVersion()).putInt(snapshot.size());
+        snapshot.forEach((ruleId, entry) -> {
+            byte[] ast = entry.encodedAst();
+            buffer.putLong(ruleId).putLong(entry.getVersion()).putLong(entry.getRevision()).putInt(ast.length);
+            buffer.put(ast);
+        });
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads a snapshot written by {@link #write}, failing with an {@link IllegalArgumentException} when
+     * the file is truncated, corrupt or of another format.
+     */
+    static RuleSetSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + TRAILER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Snapshot file has an invalid length: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int end = (int) size - TRAILER_BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, end));
+            if (crc.getValue() != buffer.getLong(end)) {
+                throw new IllegalArgumentException("Snapshot file checksum does not match");
+            }
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Not a rule snapshot file of format " + FORMAT_VERSION);
+            }
+            long version = buffer.getLong();
+            int count = buffer.getInt();
+            if (count < 0 || (long) count * ENTRY_HEADER_BYTES > end - buffer.position()) {
+                throw new IllegalArgumentException("Snapshot file has an invalid rule count: " + count);
+            }
+            Map<Long, RuleSetSnapshot.Entry> entries = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                if (end - buffer.position() < ENTRY_HEADER_BYTES) {
+                    throw new IllegalArgumentException("Snapshot file is truncated");
+                }
+                long ruleId = buffer.getLong();
+                long ruleVersion = buffer.getLong();
+                long revision = buffer.getLong();
+                int length = buffer.getInt();
+                if (length < 0 || length > end - buffer.position()) {
+                    throw new IllegalArgumentException("Snapshot file is truncated");
+                }
+                byte[] ast = new byte[length];
+                buffer.get(ast);
+                if (entries.put(ruleId, new RuleSetSnapshot.Entry(ast, ruleVersion, revision)) != null) {
+                    throw new IllegalArgumentException("Snapshot file holds rule " + ruleId + " twice");
+                }
+            }
+            if (buffer.position() != end) {
+                throw new IllegalArgumentException("Snapshot file has trailing bytes");
+            }
+            return RuleSetSnapshot.of(version, entries);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.ruleengine.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the current {@link RuleSetSnapshot}. Readers take the current snapshot without locking and
+ * keep a consistent view for as long as they hold it; writers swap in a copy with their changes applied,
+ * so a change becomes visible to every later reader at once.
+ * <p>
+ * Rules are filled in from storage the first time they are read, so startup does not have to load the
+ * whole rule set, unless a complete one is restored at startup.
+ */
+@Component
+public class RuleSnapshots {
+
+    private final AtomicReference<RuleSetSnapshot> current = new AtomicReference<>(RuleSetSnapshot.EMPTY);
+    private volatile boolean complete;
+
+    public RuleSetSnapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Publishes committed rules as the next version of the rule set. Rules without an ID were never
+     * stored and are skipped.
+     */
+    public RuleSetSnapshot publish(Map<Long, byte[]> asts) {
+        return publish(asts, Map.of());
+    }
+
+    /**
+     * Publishes committed rules at the given revisions, those missing being at revision 0.
+     */
+    public RuleSetSnapshot publish(Map<Long, byte[]> asts, Map<Long, Long> revisions) {
+        Map<Long, byte[]> stored = new LinkedHashMap<>(asts);
+        stored.remove(null);
+        return current.updateAndGet(snapshot -> snapshot.withRules(stored, revisions));
+    }
+
+    public RuleSetSnapshot.Entry admit(Long ruleId, byte[] ast) {
+        return admit(ruleId, ast, 0);
+    }
+
+    /**
+     * Adds a rule read from storage and returns its entry. When a published change got there first, its
+     * entry wins, since what was read may predate it.
+     */
+    public RuleSetSnapshot.Entry admit(Long ruleId, byte[] ast, long revision) {
+        while (true) {
+            RuleSetSnapshot snapshot = current.get();
+            RuleSetSnapshot.Entry entry = snapshot.get(ruleId);
+            if (entry != null) {
+                return entry;
+            }
+            RuleSetSnapshot next = snapshot.withLoadedRule(ruleId, ast, revision);
+            if (current.compareAndSet(snapshot, next)) {
+                return next.get(ruleId);
+            }
+        }
+    }
+
+    /**
+     * Replaces the rule set with one holding every stored rule, loaded at startup. From then on the
+     * current snapshot stays complete, since every later change is published to it.
+     */
+    public void restore(RuleSetSnapshot snapshot) {
+        current.set(snapshot);
+        complete = true;
+    }
+
+    /**
+     * Whether the current snapshot holds every stored rule, rather than only those read so far.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public Map<String, Object> getStats() {
+        RuleSetSnapshot snapshot = current.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("version", snapshot.getVersion());
+        stats.put("rules", snapshot.size());
+        stats.put("complete", complete);
+        return stats;
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.ruleengine.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.example.ruleengine.model.Rule;
+import org.example.ruleengine.repository.NodeRepository;
+import org.example.ruleengine.repository.RuleRepository;
+import org.example.ruleengine.serializer.AstCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Chooses how rule ASTs are persisted: as one row per node ({@code NODES}, the default) or as a single
+ * compact blob on the rule ({@code BLOB}).
+ * <p>
+ * Rules stored as node rows are moved to blobs in two explicit steps. With
+ * {@code ruleengine.storage.migrate} their blobs are written at startup, keeping the node rows, so the
+ * application can still go back to node mode. With {@code ruleengine.storage.drop-node-rows} the node rows
+ * are dropped at startup, but only once every rule still linked to them has a blob matching them.
+ */
+@Component
+public class RuleStorage {
+
+    public enum Mode {
+        NODES,
+        BLOB
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(RuleStorage.class);
+    // Rules persisted between flushes; the persistence context is cleared after each flush
+    private static final int FLUSH_INTERVAL = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final RuleRepository ruleRepository;
+    private final NodeRepository nodeRepository;
+    private final Mode mode;
+    private final boolean migrate;
+    private final boolean dropNodeRows;
+
+    @Autowired
+    public RuleStorage(RuleRepository ruleRepository, NodeRepository nodeRepository,
+            @Value("${ruleengine.storage.mode:NODES}") Mode mode,
+            @Value("${ruleengine.storage.migrate:false}") boolean migrate,
+            @Value("${ruleengine.storage.drop-node-rows:false}") boolean dropNodeRows) {
+        this.ruleRepository = ruleRepository;
+        this.nodeRepository = nodeRepository;
+        this.mode = mode;
+        this.migrate = migrate;
+        this.dropNodeRows = dropNodeRows;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Inserts new rules in JDBC batches, flushing and clearing the persistence context periodically so
+     * that memory does not grow with the number of rules.
+     */
+    @Transactional
+    public void persistAll(List<Rule> rules) {
+        for (int i = 0; i < rules.size(); i++) {
+            entityManager.persist(rules.get(i));
+            if ((i + 1) % FLUSH_INTERVAL == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void migrateOnStartup() {
+        if (migrate) {
+            logger.info("Wrote AST blobs for {} rules stored as node rows", migrateToBlob());
+        }
+        if (dropNodeRows) {
+            try {
+                logger.info("Dropped {} node rows", dropNodeRows());
+            } catch (IllegalStateException e) {
+                logger.warn("Node rows are kept: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes the AST of every rule stored as node rows into its blob column. The node rows stay, and
+     * still hold the same tree, until {@link #dropNodeRows()} removes them.
+     */
+    @Transactional
+    public int migrateToBlob() {
+        List<Rule> rules = ruleRepository.findRulesStoredAsNodes();
+        for (Rule rule : rules) {
+            rule.setAst(AstCodec.encode(rule.getRootNode()));
+        }
+        ruleRepository.saveAllAndFlush(rules);
+        return rules.size();
+    }
+
+    /**
+     * Drops every node row once each rule still linked to them has a blob encoding the same tree, and
+     * fails with an {@link IllegalStateException} naming the rules that do not. Rules combined from others
+     * share their node rows, so nothing is dropped until all of them are verified.
+     */
+    @Transactional
+    public int dropNodeRows() {
+        List<Long> unverified = new ArrayList<>();
+        for (Rule rule : ruleRepository.findRulesWithNodeRows()) {
+            if (rule.getAst() == null || !Arrays.equals(rule.getAst(), AstCodec.encode(rule.getRootNode()))) {
+                unverified.add(rule.getId());
+            }
+        }
+        if (!unverified.isEmpty()) {
+            throw new IllegalStateException("Rules " + unverified + " have no AST blob matching their node rows");
+        }
+        long count = nodeRepository.count();
+        if (count > 0) {
+            ruleRepository.detachRootNodes();
+            nodeRepository.unlinkAll();
+            nodeRepository.deleteAllInBatch();
+        }
+        return (int) count;
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.ruleengine.service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.example.ruleengine.engine.RuleTrace;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps traces of a random sample of live evaluations, at {@code ruleengine.trace.sample-rate} (0, the
+ * default, traces nothing). Only the latest {@code ruleengine.trace.max-size} traces are kept, across all
+ * rules.
+ */
+@Component
+public class RuleTraces {
+
+    private final double sampleRate;
+    private final int maxSize;
+    private final Deque<Map<String, Object>> traces = new ArrayDeque<>();
+
+    @Autowired
+    public RuleTraces(@Value("${ruleengine.trace.sample-rate:0}") double sampleRate,
+            @Value("${ruleengine.trace.max-size:100}") int maxSize) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Trace sample rate must be between 0 and 1");
+        }
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Trace buffer size must be at least 1");
+        }
+        this.sampleRate = sampleRate;
+        this.maxSize = maxSize;
+    }
+
+    public boolean shouldSample() {
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    public void add(Long ruleId, RuleTrace trace) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("ruleId", ruleId);
+        entry.put("time", Instant.now().toString());
+        entry.put("result", trace.getResult());
+        entry.put("trace", trace.describe());
+        synchronized (traces) {
+            if (traces.size() == maxSize) {
+                traces.removeFirst();
+            }
+            traces.addLast(entry);
+        }
+    }
+
+    // Latest first
+    public List<Map<String, Object>> getTraces(Long ruleId) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        synchronized (traces) {
+            traces.descendingIterator().forEachRemaining(entry -> {
+                if (ruleId.equals(entry.get("ruleId"))) {
+                    result.add(entry);
+                }
+            });
+        }
+        return result;
+    }
+}
@@ -0,0 +1,161 @@
+package org.example.ruleengine.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.example.ruleengine.model.Rule;
+import org.example.ruleengine.model.RuleSetFingerprint;
+import org.example.ruleengine.repository.RuleRepository;
+import org.example.ruleengine.serializer.AstCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps the rule set snapshot in {@code ruleengine.snapshot.path}, so a restart starts from the whole
+ * rule set without reading every rule from the database. Persistence is off when no path is set.
+ * <p>
+ * At startup, before the server accepts requests, the file is restored when its fingerprint matches
+ * the one of the stored rules; otherwise the snapshot is rebuilt from the database and written out at
+ * once. With {@code ruleengine.snapshot.precompile} the restored rules are then compiled into the rule
+ * cache, up to its size. While running, the snapshot is written again every
+ * {@code ruleengine.snapshot.write-interval-ms} when it has changed, and once more on shutdown.
+ */
+@Component
+public class SnapshotPersistence implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotPersistence.class);
+
+    private final RuleRepository ruleRepository;
+    private final RuleSnapshots ruleSnapshots;
+    private final RuleService ruleService;
+    private final RuleCache ruleCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Path path;
+    private final boolean precompile;
+
+    // Guarded by this
+    private long writtenVersion = -1;
+
+    @Autowired
+    public SnapshotPersistence(RuleRepository ruleRepository, RuleSnapshots ruleSnapshots,
+            RuleService ruleService, RuleCache ruleCache, PlatformTransactionManager transactionManager,
+            @Value("${ruleengine.snapshot.path:}") String path,
+            @Value("${ruleengine.snapshot.precompile:true}") boolean precompile) {
+        this.ruleRepository = ruleRepository;
+        this.ruleSnapshots = ruleSnapshots;
+        this.ruleService = ruleService;
+        this.ruleCache = ruleCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.path = path.isBlank() ? null : Path.of(path);
+        this.precompile = precompile;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (path == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        RuleSetSnapshot snapshot = transactionTemplate.execute(status -> load());
+        ruleSnapshots.restore(snapshot);
+        logger.info("Rule set snapshot version {} with {} rules ready in {} ms", snapshot.getVersion(),
+                snapshot.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        if (precompile) {
+            precompile(snapshot);
+        }
+    }
+
+    // Reads the stored fingerprint in the same transaction as the rules it guards
+    private RuleSetSnapshot load() {
+        RuleSetFingerprint stored = ruleRepository.fingerprint();
+        long nextVersion = 1;
+        if (Files.exists(path)) {
+            try {
+                RuleSetSnapshot snapshot = RuleSnapshotFile.read(path);
+                if (snapshot.fingerprint().equals(stored)) {
+                    synchronized (this) {
+                        writtenVersion = snapshot.getVersion();
+                    }
+                    return snapshot;
+                }
+                logger.info("Rule set snapshot in {} is stale ({}, database has {}), rebuilding it", path,
+                        snapshot.fingerprint(), stored);
+                nextVersion = snapshot.getVersion() + 1;
+            } catch (IOException | IllegalArgumentException e) {
+                logger.warn("Rule set snapshot in {} cannot be read, rebuilding it: {}", path, e.getMessage());
+            }
+        }
+        RuleSetSnapshot snapshot = rebuild(nextVersion);
+        write(snapshot);
+        return snapshot;
+    }
+
+    private RuleSetSnapshot rebuild(long version) {
+        Map<Long, RuleSetSnapshot.Entry> entries = new HashMap<>();
+        for (Object[] row : ruleRepository.findStoredAsts()) {
+            entries.put((Long) row[0], new RuleSetSnapshot.Entry((byte[]) row[1], version, (Long) row[2]));
+        }
+        for (Rule rule : ruleRepository.findRulesStoredAsNodes()) {
+            long revision = rule.getRevision() == null ? 0 : rule.getRevision();
+            entries.put(rule.getId(), new RuleSetSnapshot.Entry(AstCodec.encode(rule.getRootNode()), version,
+                    revision));
+        }
+        return RuleSetSnapshot.of(version, entries);
+    }
+
+    private void precompile(RuleSetSnapshot snapshot) {
+        long start = System.nanoTime();
+        int[] compiled = {0};
+        snapshot.forEach((ruleId, entry) -> {
+            if (compiled[0] >= ruleCache.getMaxSize()) {
+                return;
+            }
+            try {
+                ruleService.getCompiledRule(snapshot, ruleId);
+                compiled[0]++;
+            } catch (IllegalArgumentException e) {
+                logger.warn("Rule {} cannot be compiled: {}", ruleId, e.getMessage());
+            }
+        });
+        logger.info("Precompiled {} rules in {} ms", compiled[0],
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Scheduled(fixedDelayString = "${ruleengine.snapshot.write-interval-ms:1000}")
+    public void writeIfChanged() {
+        if (path != null && ruleSnapshots.isComplete()) {
+            write(ruleSnapshots.current());
+        }
+    }
+
+    @PreDestroy
+    public void writeOnShutdown() {
+        writeIfChanged();
+    }
+
+    private synchronized void write(RuleSetSnapshot snapshot) {
+        if (snapshot.getVersion() == writtenVersion) {
+            return;
+        }
+        try {
+            RuleSnapshotFile.write(snapshot, path);
+            writtenVersion = snapshot.getVersion();
+        } catch (IOException e) {
+            logger.warn("Rule set snapshot cannot be written to {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.ruleengine.batch;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.example.ruleengine.engine.CompiledRule;
+import org.example.ruleengine.engine.RuleCompiler;
+import org.example.ruleengine.engine.RuleParser;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileScorerTest {
+
+    @TempDir
+    Path directory;
+
+    private static CompiledRule compile(long ruleId, String expression) {
+        return RuleCompiler.compile(ruleId, RuleParser.parse(expression));
+    }
+
+    private static String score(FileScorer scorer, Path input, ScoreSummary[] summary) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        summary[0] = scorer.score(input, Channels.newChannel(output));
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testNdjsonMatchesMapEvaluationAcrossChunks() throws Exception {
+        List<CompiledRule> rules = List.of(
+                compile(1L, "(age > 30 AND department = 'Sales') OR salary > 50000"),
+                compile(2L, "experience >= 5"));
+        Random random = new Random(7);
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder("1,2\n");
+        for (int i = 0; i < 500; i++) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("age", random.nextInt(60));
+            data.put("department", random.nextBoolean() ? "Sales" : "HR");
+            data.put("salary", random.nextInt(100000) + 0.5);
+            data.put("experience", random.nextInt(10));
+            input.append(String.format("{\"age\": %d, \"department\": \"%s\", \"ignored\": {\"a\": [1, \"}\"]},"
+                    + " \"salary\": %s, \"experience\": %d}%n", data.get("age"), data.get("department"),
+                    data.get("salary"), data.get("experience")));
+            expected.append(rules.get(0).evaluate(data) ? '1' : '0').append(',')
+                    .append(rules.get(1).evaluate(data) ? '1' : '0').append('\n');
+        }
+        Path file = Files.writeString(directory.resolve("records.ndjson"), input);
+
+        ScoreSummary[] summary = new ScoreSummary[1];
+        String output = score(new FileScorer(rules, FileScorer.Format.NDJSON, 4, 64), file, summary);
+        assertEquals(expected.toString(), output);
+        assertEquals(500, summary[0].getRecords());
+        assertEquals(output.lines().skip(1).filter(line -> line.startsWith("1")).count(),
+                summary[0].getMatched(0));
+    }
+
+    @Test
+    void testReportsRecordErrorsLikeTheApi() throws Exception {
+        List<CompiledRule> rules = List.of(compile(1L, "age > 30"), compile(2L, "name = 'Bob'"));
+        Path file = Files.writeString(directory.resolve("records.ndjson"), String.join("\n",
+                "{\"age\": 40, \"name\": \"Bob\"}",
+                "",
+                "{\"age\": null, \"name\": \"A\\\"l\"}",
+                "{\"age\": \"old\", \"name\": true}",
+                "{}",
+                "{\"age\": 31",
+                "{\"name\": \"Bob\"}") + "\n");
+
+        ScoreSummary[] summary = new ScoreSummary[1];
+        String output = score(new FileScorer(rules, FileScorer.Format.NDJSON, 2, 16), file, summary);
+        assertEquals("1,2\n1,1\nE,E\nE,E\nE,E\nE,E\nE,1\n", output);
+        assertEquals(6, summary[0].getRecords());
+        assertEquals("Record 1: Data value cannot be null for key: age", summary[0].getFirstError(0));
+        assertEquals("Record 1: Data value cannot be null for key: age", summary[0].getFirstError(1));
+        assertEquals(5, summary[0].getErrors(0));
+        assertEquals(2, summary[0].getMatched(1));
+    }
+
+    @Test
+    void testScoresCsvWithQuotedFields() throws Exception {
+        List<CompiledRule> rules = List.of(compile(3L, "department = 'Sales' AND salary > 1000"));
+        List<String> lines = new ArrayList<>(List.of("department,salary,notes",
+                "\"Sales\",1500,\"said \"\"hi\"\", then left\"",
+                "Sales,900,",
+                "HR,2000,\"a,b\"",
+                "Sales,,x"));
+        Path file = Files.writeString(directory.resolve("records.csv"), String.join("\r\n", lines) + "\r\n");
+
+        ScoreSummary[] summary = new ScoreSummary[1];
+        String output = score(new FileScorer(rules, FileScorer.Format.of(file), 3, 8), file, summary);
+        assertEquals("3\n1\n0\n0\nE\n", output);
+        assertEquals(4, summary[0].getRecords());
+        assertEquals(1, summary[0].getMatched(0));
+
+        FileScorer counting = new FileScorer(rules, FileScorer.Format.CSV, 1, 1 << 20);
+        assertEquals(1, counting.score(file, null).getMatched(0));
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.ruleengine.controller;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.example.ruleengine.engine.CompiledRule;
+import org.example.ruleengine.engine.RuleCompiler;
+import org.example.ruleengine.engine.RuleParser;
+import org.example.ruleengine.engine.SlotRecord;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+class SlotRecordReaderTest {
+
+    private static final CompiledRule RULE = RuleCompiler.compile(1L,
+            RuleParser.parse("(age > 30 AND department = 'Sales') OR salary > 50000"));
+
+    private static SlotRecord read(JsonFactory factory, byte[] body) throws IOException {
+        SlotRecord record = RULE.newRecord();
+        try (JsonParser parser = factory.createParser(body)) {
+            SlotRecordReader.read(parser, RULE, record);
+        }
+        return record;
+    }
+
+    private static String error(String json) {
+        return assertThrows(IllegalArgumentException.class,
+                () -> read(new JsonFactory(), json.getBytes())).getMessage();
+    }
+
+    @Test
+    void testReadsOnlyRuleAttributesFromJsonAndCbor() throws IOException {
+        Map<String, Object> data = Map.of("age", 35, "department", "Sales", "salary", 40000.5,
+                "notes", "ignored", "level", 3);
+        SlotRecord expected = RULE.newRecord();
+        RULE.load(data, expected);
+
+        SlotRecord json = read(new JsonFactory(), new ObjectMapper().writeValueAsBytes(data));
+        assertTrue(expected.sameValues(json));
+        assertEquals(RULE.evaluate(data), RULE.evaluate(json));
+
+        SlotRecord cbor = read(new CBORFactory(), new ObjectMapper(new CBORFactory()).writeValueAsBytes(data));
+        assertTrue(expected.sameValues(cbor));
+    }
+
+    @Test
+    void testRejectsDataLikeTheMapPath() {
+        assertEquals("Data map cannot be null or empty", error("{}"));
+        assertEquals("Data map cannot be null or empty", error(""));
+        assertEquals("Data value cannot be null for key: notes", error("{\"notes\": null, \"age\": 40}"));
+        assertEquals("Data value must be a String or Number for key: tags",
+                error("{\"age\": 40, \"tags\": [\"a\"]}"));
+        assertEquals("Data must be a JSON object", error("[1, 2]"));
+        // The rule's own check still reports missing and mistyped attributes
+        assertThrows(IllegalArgumentException.class, () -> read(new JsonFactory(), "{\"age\": 40}".getBytes()));
+    }
+}
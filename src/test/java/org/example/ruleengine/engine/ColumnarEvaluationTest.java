@@ -0,0 +1,84 @@
+package org.example.ruleengine.engine;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.example.ruleengine.engine.RuleTrees.condition;
+import static org.example.ruleengine.engine.RuleTrees.operator;
+import static org.example.ruleengine.engine.RuleTrees.randomTree;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class ColumnarEvaluationTest {
+
+    @Test
+    void testPrimitiveColumns() {
+        CompiledRule rule = RuleCompiler.compile(1L, operator("AND", condition("age > 30"),
+                condition("department = 'Sales'")));
+        ColumnBatch batch = new ColumnBatch(3)
+                .add("age", Column.ofNumbers(new double[] {35, 40, 20}))
+                .add("department", Column.ofStrings(new int[] {0, 1, 0}, new String[] {"Sales", "HR"}));
+
+        ColumnarResult result = rule.evaluate(batch);
+
+        assertEquals(-1, result.nextPendingRow(0));
+        assertTrue(result.isMatch(0));
+        assertFalse(result.isMatch(1));
+        assertFalse(result.isMatch(2));
+        assertEquals(1, result.getMatchCount());
+    }
+
+    @Test
+    void testMatchesPerRecordEvaluation() {
+        String[] attributes = {"x", "y"};
+        String[] operators = {">", "<", "=", ">=", "<=", "!="};
+        String[] literals = {"1", "2", "10", "20", "'10'", "'b'"};
+        Object[] values = {null, 0, 1, 1.5, 2, 10, 20, 150, "1", "10", "2", "b", "c", true};
+        Random random = new Random(11);
+
+        for (int n = 0; n < 300; n++) {
+            CompiledRule rule = RuleCompiler.compile(1L, randomTree(random, attributes, operators, literals, 3));
+            int size = 100 + random.nextInt(100);
+            Object[][] rows = new Object[size][attributes.length];
+            ColumnBatch batch = new ColumnBatch(size);
+            for (int a = 0; a < attributes.length; a++) {
+                Column.Builder builder = Column.builder();
+                for (int row = 0; row < size; row++) {
+                    rows[row][a] = values[random.nextInt(values.length)];
+                    builder.add(rows[row][a]);
+                }
+                batch.add(attributes[a], builder.build());
+            }
+
+            ColumnarResult result = rule.evaluate(batch);
+            for (int row = result.nextPendingRow(0); row >= 0; row = result.nextPendingRow(row + 1)) {
+                try {
+                    result.resolve(row, rule.evaluate(batch.getRow(row)));
+                } catch (IllegalArgumentException e) {
+                    result.reject(row, e.getMessage());
+                }
+            }
+
+            for (int row = 0; row < size; row++) {
+                Map<String, Object> data = new HashMap<>();
+                for (int a = 0; a < attributes.length; a++) {
+                    if (rows[row][a] != null) {
+                        data.put(attributes[a], rows[row][a]);
+                    }
+                }
+                String expectedError = null;
+                boolean expected = false;
+                try {
+                    expected = rule.evaluate(data);
+                } catch (IllegalArgumentException e) {
+                    expectedError = e.getMessage();
+                }
+                assertEquals(expectedError, result.getErrors().get(row), rule.getRoot() + " with " + data);
+                assertEquals(expected, result.isMatch(row), rule.getRoot() + " with " + data);
+            }
+        }
+    }
+}
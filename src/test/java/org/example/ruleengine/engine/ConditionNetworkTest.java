@@ -0,0 +1,140 @@
+package org.example.ruleengine.engine;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+class ConditionNetworkTest {
+
+    private static CompiledNode and(String left, String right) {
+        return new AndNode(RuleCompiler.compileCondition(left, 0), RuleCompiler.compileCondition(right, 0));
+    }
+
+    @Test
+    void testSharesIdenticalConditionsAcrossRules() {
+        Map<Long, CompiledNode> rules = new LinkedHashMap<>();
+        rules.put(1L, and("age > 30", "department = 'Sales'"));
+        rules.put(2L, and("age > 30", "salary > 50000"));
+        rules.put(3L, RuleCompiler.compileCondition("age < 25", 0));
+        ConditionNetwork network = ConditionNetwork.of(rules);
+
+        assertEquals(3, network.getRuleCount());
+        assertEquals(4, network.getConditionCount());
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("age", 35);
+        data.put("department", "Sales");
+        assertEquals(List.of(1L), network.match(data));
+
+        data.put("salary", 60000);
+        assertEquals(List.of(1L, 2L), network.match(data));
+    }
+
+    @Test
+    void testUpdatesIncrementally() {
+        ConditionNetwork network = ConditionNetwork.EMPTY
+                .withRule(1L, and("age > 30", "salary > 50000"))
+                .withRule(2L, RuleCompiler.compileCondition("age > 30", 0));
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("age", 35);
+        assertEquals(List.of(2L), network.match(data));
+
+        network = network.withRule(2L, RuleCompiler.compileCondition("age < 30", 0));
+        assertEquals(List.of(), network.match(data));
+        assertEquals(3, network.getConditionCount());
+
+        network = network.withoutRule(1L).withoutRule(2L);
+        assertEquals(0, network.getRuleCount());
+        assertEquals(0, network.getConditionCount());
+    }
+
+    @Test
+    void testIndexedMatchingAgreesWithConditionEvaluation() {
+        String[] operators = {">", "<", "=", ">=", "<=", "!="};
+        String[] literals = {"0", "5", "10", "15", "20", "'a'", "'m'", "'z'"};
+        String[] attributes = {"x", "y", "name"};
+        Random random = new Random(42);
+
+        Map<Long, CompiledNode> rules = new LinkedHashMap<>();
+        for (long id = 1; id <= 200; id++) {
+            CompiledNode[] children = new CompiledNode[1 + random.nextInt(3)];
+            for (int i = 0; i < children.length; i++) {
+                children[i] = RuleCompiler.compileCondition(attributes[random.nextInt(attributes.length)] + " "
+                        + operators[random.nextInt(operators.length)] + " " + literals[random.nextInt(literals.length)], 0);
+            }
+            rules.put(id, random.nextBoolean() ? new AndNode(children) : new OrNode(children));
+        }
+        ConditionNetwork network = ConditionNetwork.of(rules);
+
+        Object[] values = {-1, 0, 5, 7.5, 10, 20, 25, "a", "b", "m", "zz", "10"};
+        for (int n = 0; n < 500; n++) {
+            Map<String, Object> data = new HashMap<>();
+            for (String attribute : attributes) {
+                if (random.nextInt(4) > 0) {
+                    data.put(attribute, values[random.nextInt(values.length)]);
+                }
+            }
+            List<Long> expected = rules.entrySet().stream()
+                    .filter(rule -> matches(rule.getValue(), data))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            assertEquals(expected, network.match(data), "record " + data);
+        }
+    }
+
+    @Test
+    void testIncrementalUpdatesAgreeWithARebuiltNetwork() {
+        String[] conditions = {"x > 5", "x < 10", "x = 7", "y != 'a'", "y = 'b'", "x IN (1, 7)", "y NOT IN ('a')"};
+        Random random = new Random(7);
+        Map<Long, CompiledNode> rules = new LinkedHashMap<>();
+        ConditionNetwork network = ConditionNetwork.EMPTY;
+        for (int step = 0; step < 300; step++) {
+            Long ruleId = (long) random.nextInt(40);
+            if (random.nextInt(4) == 0) {
+                rules.remove(ruleId);
+                network = network.withoutRule(ruleId);
+            } else {
+                CompiledNode root = and(conditions[random.nextInt(conditions.length)],
+                        conditions[random.nextInt(conditions.length)]);
+                rules.put(ruleId, root);
+                network = network.withRule(ruleId, root);
+            }
+
+            ConditionNetwork rebuilt = ConditionNetwork.of(rules);
+            assertEquals(rebuilt.getRuleCount(), network.getRuleCount());
+            assertEquals(rebuilt.getConditionCount(), network.getConditionCount());
+            assertEquals(rebuilt.getIndexedAttributeCount(), network.getIndexedAttributeCount());
+            Map<String, Object> data = new HashMap<>();
+            data.put("x", random.nextInt(12));
+            data.put("y", random.nextBoolean() ? "a" : "b");
+            assertEquals(rebuilt.match(data), network.match(data), "step " + step + " record " + data);
+        }
+    }
+
+    private static boolean matches(CompiledNode node, Map<String, Object> data) {
+        if (node instanceof ConditionNode) {
+            ConditionNode condition = (ConditionNode) node;
+            return condition.matches(data.get(condition.getAttribute()));
+        }
+        if (node instanceof AndNode) {
+            for (CompiledNode child : ((AndNode) node).getChildren()) {
+                if (!matches(child, data)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (CompiledNode child : ((OrNode) node).getChildren()) {
+            if (matches(child, data)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.ruleengine.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class IncrementalEvaluationTest {
+
+    private static final String RULE = "((age > 30 AND department = 'Sales') OR (age < 25 AND department = 'Marketing'))"
+            + " AND (salary > 50000 OR experience > 5)";
+
+    @Test
+    void testReportsResultAsSoonAsItIsDecided() {
+        CompiledRule rule = RuleCompiler.compile(1L, RuleParser.parse(RULE));
+        IncrementalEvaluation evaluation = rule.incremental().newEvaluation();
+        assertEquals(IncrementalEvaluation.Outcome.UNKNOWN, evaluation.getOutcome());
+
+        assertEquals(IncrementalEvaluation.Outcome.UNKNOWN, evaluation.update(Map.of("salary", 90000)));
+        // Neither age branch can hold any more, whatever the department
+        assertEquals(IncrementalEvaluation.Outcome.FALSE, evaluation.update(Map.of("age", 28)));
+
+        // A later value for the same attribute re-evaluates its conditions
+        assertEquals(IncrementalEvaluation.Outcome.UNKNOWN, evaluation.update(Map.of("age", 35)));
+        assertEquals(IncrementalEvaluation.Outcome.TRUE, evaluation.update(Map.of("department", "Sales")));
+        assertEquals(IncrementalEvaluation.Outcome.TRUE, evaluation.update(Map.of("unrelated", "x")));
+    }
+
+    @Test
+    void testRejectedUpdatesChangeNothing() {
+        CompiledRule rule = RuleCompiler.compile(1L, RuleParser.parse("age > 30 AND department = 'Sales'"));
+        IncrementalEvaluation evaluation = rule.incremental().newEvaluation();
+        evaluation.update(Map.of("department", "Sales"));
+
+        Map<String, Object> update = new HashMap<>();
+        update.put("age", 40);
+        update.put("department", null);
+        assertThrows(IllegalArgumentException.class, () -> evaluation.update(update));
+        assertThrows(IllegalArgumentException.class, () -> evaluation.update(Map.of("age", List.of(1))));
+        assertEquals(IncrementalEvaluation.Outcome.UNKNOWN, evaluation.getOutcome());
+
+        assertEquals(IncrementalEvaluation.Outcome.TRUE, evaluation.update(Map.of("age", 40)));
+    }
+
+    @Test
+    void testAgreesWithFullEvaluationInAnyArrivalOrder() {
+        CompiledRule rule = RuleCompiler.compile(1L, RuleParser.parse(RULE));
+        Random random = new Random(11);
+        String[] departments = {"Sales", "Marketing", "HR"};
+        for (int i = 0; i < 500; i++) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("age", random.nextInt(50) + 15);
+            data.put("department", departments[random.nextInt(departments.length)]);
+            data.put("salary", random.nextInt(100000));
+            data.put("experience", random.nextInt(10));
+            boolean expected = rule.evaluate(data);
+
+            List<String> order = new ArrayList<>(data.keySet());
+            Collections.shuffle(order, random);
+            IncrementalEvaluation evaluation = rule.incremental().newEvaluation();
+            for (String attribute : order) {
+                IncrementalEvaluation.Outcome outcome = evaluation.update(Map.of(attribute, data.get(attribute)));
+                // Once decided, the result never changes as the rest arrives
+                if (outcome != IncrementalEvaluation.Outcome.UNKNOWN) {
+                    assertEquals(expected, outcome == IncrementalEvaluation.Outcome.TRUE);
+                }
+            }
+            assertEquals(expected ? IncrementalEvaluation.Outcome.TRUE : IncrementalEvaluation.Outcome.FALSE,
+                    evaluation.getOutcome());
+        }
+    }
+}
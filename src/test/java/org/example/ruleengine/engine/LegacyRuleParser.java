@@ -0,0 +1,108 @@
+package org.example.ruleengine.engine;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+import org.example.ruleengine.model.Node;
+
+/**
+ * The tokenizer and parser {@code RuleService} used before {@link RuleParser}, kept as a baseline for
+ * equivalence tests and benchmarks. AND and OR have equal precedence here.
+ */
+final class LegacyRuleParser {
+
+    private static final List<String> VALID_OPERATORS = List.of(">", "<", "=", ">=", "<=", "!=");
+
+    private LegacyRuleParser() {
+    }
+
+    static Node parse(String ruleString) {
+        if (ruleString == null || ruleString.trim().isEmpty()) {
+            throw new IllegalArgumentException("Rule expression cannot be null or empty");
+        }
+        ruleString = ruleString.replaceAll("\\s+", " ").trim();
+        Queue<String> tokens = tokenize(ruleString);
+        return parseExpression(tokens);
+    }
+
+    private static Queue<String> tokenize(String ruleString) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean inQuotes = false;
+
+        for (char c : ruleString.toCharArray()) {
+            if (c == '"' || c == '\'') {
+                inQuotes = !inQuotes;
+                sb.append(c);
+            } else if (!inQuotes && (c == '(' || c == ')' || c == ' ')) {
+                if (sb.length() > 0) {
+                    tokens.add(sb.toString());
+                    sb.setLength(0);
+                }
+                if (c != ' ') {
+                    tokens.add(String.valueOf(c));
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+
+        if (sb.length() > 0) {
+            tokens.add(sb.toString());
+        }
+
+        return new LinkedList<>(tokens);
+    }
+
+    private static Node parseExpression(Queue<String> tokens) {
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Invalid rule expression: empty token list");
+        }
+        Node left = parseTerm(tokens);
+        while (!tokens.isEmpty() && (tokens.peek().equals("AND") || tokens.peek().equals("OR"))) {
+            String operator = tokens.poll();
+            Node right = parseTerm(tokens);
+            Node newNode = new Node();
+            newNode.setType("operator");
+            newNode.setNodeValue(operator);
+            newNode.setLeft(left);
+            newNode.setRight(right);
+            left = newNode;
+        }
+        return left;
+    }
+
+    private static Node parseTerm(Queue<String> tokens) {
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Unexpected end of expression");
+        }
+        if (tokens.peek().equals("(")) {
+            tokens.poll();
+            Node node = parseExpression(tokens);
+            if (tokens.isEmpty() || !tokens.poll().equals(")")) {
+                throw new IllegalArgumentException("Mismatched parentheses");
+            }
+            return node;
+        } else {
+            String attribute = tokens.poll();
+            if (tokens.isEmpty()) {
+                throw new IllegalArgumentException("Incomplete condition: missing operator and value");
+            }
+            String operator = tokens.poll();
+            if (tokens.isEmpty()) {
+                throw new IllegalArgumentException("Incomplete condition: missing value");
+            }
+            String value = tokens.poll();
+
+            if (!VALID_OPERATORS.contains(operator)) {
+                throw new IllegalArgumentException("Invalid operator: " + operator);
+            }
+            Node node = new Node();
+            node.setType("condition");
+            node.setNodeValue(attribute + " " + operator + " " + value);
+            return node;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.ruleengine.engine;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+
+class PersistentMapTest {
+
+    @Test
+    void testChangedCopiesLeaveTheOriginalUntouched() {
+        PersistentMap<String, Integer> original = PersistentMap.<String, Integer>empty().with("a", 1);
+        PersistentMap<String, Integer> changed = original.with("a", 2).with("b", 3);
+
+        assertEquals(1, original.get("a"));
+        assertNull(original.get("b"));
+        assertEquals(1, original.size());
+        assertEquals(2, changed.get("a"));
+        assertEquals(3, changed.get("b"));
+        assertEquals(2, changed.size());
+        assertEquals(1, changed.without("b").size());
+        assertEquals(2, changed.size());
+    }
+
+    @Test
+    void testKeysWithEqualHashesShareAChain() {
+        // "Aa" and "BB" have the same hash code
+        PersistentMap<String, Integer> map = PersistentMap.<String, Integer>empty().with("Aa", 1).with("BB", 2);
+
+        assertEquals(1, map.get("Aa"));
+        assertEquals(2, map.get("BB"));
+        map = map.without("Aa");
+        assertNull(map.get("Aa"));
+        assertEquals(2, map.get("BB"));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void testAgreesWithAHashMap() {
+        Random random = new Random(3);
+        Map<Long, Integer> expected = new HashMap<>();
+        PersistentMap<Long, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 20000; i++) {
+            Long key = (long) random.nextInt(5000) << random.nextInt(40);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.without(key);
+            } else {
+                expected.put(key, i);
+                map = map.with(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        Map<Long, Integer> contents = new HashMap<>();
+        map.forEach(contents::put);
+        assertEquals(expected, contents);
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.ruleengine.engine;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.example.ruleengine.engine.RuleTrees.condition;
+import static org.example.ruleengine.engine.RuleTrees.operator;
+import static org.example.ruleengine.engine.RuleTrees.randomTree;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class RuleBytecodeGeneratorTest {
+
+    @Test
+    void testSwitchesToGeneratedCodeAfterThreshold() {
+        CompiledRule rule = RuleCompiler.compile(1L, operator("AND", condition("age > 30"),
+                condition("department = 'Sales'")));
+        rule.enableCodeGeneration(3);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("age", 35);
+        data.put("department", "Sales");
+        for (int i = 0; i < 3; i++) {
+            assertFalse(rule.isGenerated());
+            assertTrue(rule.evaluate(data));
+        }
+        assertTrue(rule.isGenerated());
+        assertTrue(rule.evaluate(data));
+
+        data.put("age", 25);
+        assertFalse(rule.evaluate(data));
+        data.remove("age");
+        assertThrows(IllegalArgumentException.class, () -> rule.evaluate(data));
+
+        rule.enableCodeGeneration(0);
+        assertFalse(rule.isGenerated());
+    }
+
+    @Test
+    void testGeneratedCodeEvaluatesLikeTheTree() throws ReflectiveOperationException {
+        String[] attributes = {"x", "y"};
+        String[] operators = {">", "<", "=", ">=", "<=", "!="};
+        String[] literals = {"1", "2", "10", "20", "'b'"};
+        Object[] values = {0, 1, 1.5, 2, 10, 20, 150, "1", "10", "2", "b", "c"};
+        Random random = new Random(5);
+
+        for (int n = 0; n < 500; n++) {
+            CompiledRule rule = RuleCompiler.compile(1L, randomTree(random, attributes, operators, literals, 4));
+            CompiledNode generated = RuleBytecodeGenerator.generate(rule.getRoot(),
+                    new AttributeType[] {AttributeType.ANY, AttributeType.ANY});
+            for (Object x : values) {
+                for (Object y : values) {
+                    Map<String, Object> data = new HashMap<>();
+                    data.put("x", x);
+                    data.put("y", y);
+                    SlotRecord record = rule.newRecord();
+                    try {
+                        rule.load(data, record);
+                    } catch (IllegalArgumentException e) {
+                        continue;
+                    }
+                    assertEquals(rule.getRoot().evaluate(record), generated.evaluate(record),
+                            rule.getRoot() + " with " + data);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.example.ruleengine.engine;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.example.ruleengine.engine.RuleTrees.condition;
+import static org.example.ruleengine.engine.RuleTrees.operator;
+import org.example.ruleengine.model.Node;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class RuleCompilerTest {
+
+    @Test
+    void testEvaluatesNumericAndStringConditions() {
+        Node root = operator("AND", condition("age > 30"), condition("department = 'Sales'"));
+        CompiledRule rule = RuleCompiler.compile(1L, root);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("age", 35);
+        data.put("department", "Sales");
+        assertTrue(rule.evaluate(data));
+
+        data.put("department", "Marketing");
+        assertFalse(rule.evaluate(data));
+    }
+
+    @Test
+    void testMissingAttributeIsReportedEvenWhenShortCircuited() {
+        Node root = operator("AND", condition("age > 30"), condition("salary >= 50000"));
+        CompiledRule rule = RuleCompiler.compile(1L, root);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("age", 20);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> rule.evaluate(data));
+        assertEquals("Attribute not found in data: salary", e.getMessage());
+    }
+
+    @Test
+    void testFirstFailingLeafWins() {
+        Node root = operator("OR", condition("age > abc"), condition("salary > 10"));
+        CompiledRule rule = RuleCompiler.compile(1L, root);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("age", 20);
+
+        assertThrows(NumberFormatException.class, () -> rule.evaluate(data));
+    }
+
+    @Test
+    void testRejectsInvalidCondition() {
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile(1L, condition("age >")));
+    }
+
+    @Test
+    void testDeclaredTypesAreEnforced() {
+        Node root = operator("AND", condition("age > 30"), condition("department = 'Sales'"));
+        CompiledRule rule = RuleCompiler.compile(1L, root,
+                Map.of("age", AttributeType.NUMERIC, "department", AttributeType.STRING));
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("age", "35");
+        data.put("department", "Sales");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> rule.evaluate(data));
+        assertEquals("Data value must be a Number for key: age", e.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> RuleCompiler.compile(1L,
+                condition("department = 'Sales'"), Map.of("department", AttributeType.NUMERIC)));
+    }
+
+    @Test
+    void testFlattensLongChainsOfOneOperator() {
+        Node root = condition("age >= 0");
+        for (int i = 1; i < 100_000; i++) {
+            root = operator("AND", root, condition("age >= " + i % 50));
+        }
+        CompiledRule rule = RuleCompiler.compile(1L, root, Map.of(), false);
+
+        assertEquals(100_000, ((AndNode) rule.getRoot()).getChildren().length);
+        assertTrue(rule.evaluate(Map.of("age", 60)));
+        assertFalse(rule.evaluate(Map.of("age", 10)));
+    }
+
+    @Test
+    void testEvaluatesDeeplyAlternatingRulesWithoutRecursion() {
+        int depth = 50_000;
+        Node root = condition("age = " + depth);
+        for (int i = depth - 1; i >= 0; i--) {
+            root = operator(i % 2 == 0 ? "AND" : "OR", condition("age = " + i % 7), root);
+        }
+        CompiledRule rule = RuleCompiler.compile(1L, root);
+        assertTrue(rule.getRoot() instanceof FlatNode);
+        assertEquals(2 * depth + 1, ((FlatNode) rule.getRoot()).size());
+
+        double[] ages = {0, 1, 2, 3, 6, 7, depth, depth + 1};
+        ColumnarResult columns = rule.evaluate(new ColumnBatch(ages.length).add("age", Column.ofNumbers(ages)));
+        ConditionNetwork network = ConditionNetwork.EMPTY.withRule(1L, rule.getRoot());
+        for (int row = 0; row < ages.length; row++) {
+            double age = ages[row];
+            boolean expected = age == depth;
+            for (int i = depth - 1; i >= 0; i--) {
+                boolean condition = age == i % 7;
+                expected = i % 2 == 0 ? condition && expected : condition || expected;
+            }
+            assertEquals(expected, rule.evaluate(Map.of("age", age)), "age " + age);
+            assertEquals(expected, columns.getMatches().get(row), "age " + age);
+            assertEquals(expected, network.match(Map.of("age", age)).contains(1L), "age " + age);
+        }
+    }
+
+    @Test
+    void testValueListsEvaluateLikeChainsOfComparisons() throws ReflectiveOperationException {
+        String[][] lists = {{"1", "02", "10", "20"}, {"1", "02", "'b'", "c"}};
+        Object[] values = {0, 1, 1.0, 2, 10, 15.5, "1", "02", "2", "b", "c", "d", null};
+        for (String[] list : lists) {
+            for (boolean member : new boolean[] {true, false}) {
+                Node chain = condition("x " + (member ? "=" : "!=") + " " + list[0]);
+                for (int i = 1; i < list.length; i++) {
+                    chain = operator(member ? "OR" : "AND", chain,
+                            condition("x " + (member ? "=" : "!=") + " " + list[i]));
+                }
+                CompiledRule expected = RuleCompiler.compile(1L, chain, Map.of(), false);
+                CompiledRule rule = RuleCompiler.compile(1L,
+                        condition("x " + (member ? "IN" : "NOT IN") + " (" + String.join(", ", list) + ")"));
+                CompiledNode generated = RuleBytecodeGenerator.generate(rule.getRoot(),
+                        new AttributeType[] {AttributeType.ANY});
+                ConditionNetwork expectedNetwork = ConditionNetwork.EMPTY.withRule(1L, expected.getRoot());
+                ConditionNetwork network = ConditionNetwork.EMPTY.withRule(1L, rule.getRoot());
+                Column.Builder column = Column.builder();
+                for (Object value : values) {
+                    column.add(value);
+                }
+                ColumnarResult columns = rule.evaluate(new ColumnBatch(values.length).add("x", column.build()));
+
+                for (int row = 0; row < values.length; row++) {
+                    Map<String, Object> data = new HashMap<>();
+                    data.put("x", values[row]);
+                    String message = rule + " on " + values[row];
+                    assertEquals(expectedNetwork.match(data), network.match(data), message);
+                    Object outcome = outcome(expected, data);
+                    assertEquals(outcome, outcome(rule, data), message);
+                    if (outcome instanceof Boolean) {
+                        SlotRecord record = rule.newRecord();
+                        rule.load(data, record);
+                        assertEquals(outcome, generated.evaluate(record), message);
+                    }
+                    if (columns.nextPendingRow(row) != row) {
+                        assertEquals(outcome, columns.isMatch(row), message);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Object outcome(CompiledRule rule, Map<String, Object> data) {
+        try {
+            return rule.evaluate(data);
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+}
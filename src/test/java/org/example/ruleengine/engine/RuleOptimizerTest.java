@@ -0,0 +1,125 @@
+package org.example.ruleengine.engine;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.example.ruleengine.model.Node;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class RuleOptimizerTest {
+
+    private static ConditionNode condition(String value) {
+        return RuleCompiler.compileCondition(value, value.startsWith("y") ? 1 : 0);
+    }
+
+    @Test
+    void testFlattensAndFoldsSubsumedRanges() {
+        CompiledNode root = new AndNode(new AndNode(condition("age > 30"), condition("age > 20")),
+                new AndNode(condition("salary >= 100"), condition("age > 30")));
+
+        CompiledNode optimized = RuleOptimizer.optimize(root, Set.of("age", "salary"));
+
+        assertTrue(optimized instanceof AndNode);
+        CompiledNode[] children = ((AndNode) optimized).getChildren();
+        assertEquals(2, children.length);
+        assertEquals("age > 30", children[0].toString());
+        assertEquals("salary >= 100", children[1].toString());
+    }
+
+    @Test
+    void testOrKeepsWiderRange() {
+        CompiledNode optimized = RuleOptimizer.optimize(
+                new OrNode(condition("age > 30"), condition("age > 20")), Set.of("age"));
+
+        assertEquals("age > 20", optimized.toString());
+    }
+
+    @Test
+    void testDetectsContradictionsAndTautologies() {
+        assertSame(ConstantNode.FALSE, RuleOptimizer.optimize(
+                new AndNode(condition("x = 1"), condition("x = 2")), Set.of("x")));
+        assertSame(ConstantNode.TRUE, RuleOptimizer.optimize(
+                new OrNode(condition("x > 5"), condition("x <= 5")), Set.of("x")));
+        assertSame(ConstantNode.FALSE, RuleOptimizer.optimize(
+                new AndNode(condition("x > 50"), condition("x < 10")), Set.of("x")));
+    }
+
+    @Test
+    void testDoesNotFoldWhenStringAndNumericOrdersDisagree() {
+        // "100" sorts before "20" as a string, so neither condition implies the other for all values
+        CompiledNode optimized = RuleOptimizer.optimize(
+                new AndNode(condition("age > 100"), condition("age > 20")), Set.of("age"));
+
+        assertTrue(optimized instanceof AndNode);
+        assertEquals(2, ((AndNode) optimized).getChildren().length);
+    }
+
+    @Test
+    void testOptimizedRuleKeepsMissingAttributeError() {
+        Node root = RuleTrees.operator("AND", RuleTrees.condition("x = 1"), RuleTrees.condition("x = 2"));
+
+        CompiledRule rule = RuleCompiler.compile(1L, root);
+        assertSame(ConstantNode.FALSE, rule.getRoot());
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("y", 1);
+        assertThrows(IllegalArgumentException.class, () -> rule.evaluate(data));
+    }
+
+    @Test
+    void testOptimizedTreesEvaluateLikeTheOriginal() {
+        String[] operators = {">", "<", "=", ">=", "<=", "!="};
+        String[] literals = {"1", "2", "10", "20", "100"};
+        Object[] values = {0, 1, 1.5, 2, 10, 15, 20, 100, 150, "1", "10", "15", "2", "3"};
+        Random random = new Random(7);
+
+        for (int n = 0; n < 2000; n++) {
+            CompiledNode root = randomTree(random, operators, literals, 3);
+            CompiledNode optimized = RuleOptimizer.optimize(root, Set.of("x", "y"));
+            for (Object x : values) {
+                for (Object y : values) {
+                    SlotRecord record = new SlotRecord(2);
+                    record.set(0, x);
+                    record.set(1, y);
+                    assertEquals(root.evaluate(record), optimized.evaluate(record), root + " with " + x + ", " + y);
+                }
+            }
+        }
+    }
+
+    private static CompiledNode randomTree(Random random, String[] operators, String[] literals, int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            return condition((random.nextBoolean() ? "x" : "y") + " " + operators[random.nextInt(operators.length)]
+                    + " " + literals[random.nextInt(literals.length)]);
+        }
+        CompiledNode[] children = new CompiledNode[2 + random.nextInt(3)];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = randomTree(random, operators, literals, depth - 1);
+        }
+        return random.nextBoolean() ? new AndNode(children) : new OrNode(children);
+    }
+
+    @Test
+    void testRewritesRunsOfEqualitiesIntoValueLists() {
+        CompiledNode optimized = RuleOptimizer.optimize(new OrNode(condition("age = 1"), condition("salary > 3"),
+                condition("age = 2"), condition("age = 'a'"), condition("age = 3")), Set.of("salary"));
+
+        CompiledNode[] children = ((OrNode) optimized).getChildren();
+        assertEquals(2, children.length);
+        assertEquals("age IN (1, 2, a, 3)", children[0].toString());
+        assertEquals("salary > 3", children[1].toString());
+
+        optimized = RuleOptimizer.optimize(new AndNode(condition("age != 1"), condition("age != 2"),
+                condition("age != 3")), Set.of("age"));
+        assertEquals(3, ((AndNode) optimized).getChildren().length);
+        optimized = RuleOptimizer.optimize(new AndNode(condition("age != 1"), condition("age != 2"),
+                condition("age != 3"), condition("age != 4")), Set.of("age"));
+        assertEquals("age NOT IN (1, 2, 3, 4)", optimized.toString());
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.ruleengine.engine;
+
+import java.util.Random;
+
+import org.example.ruleengine.model.Node;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class RuleParserTest {
+
+    static String render(Node node) {
+        if ("operator".equals(node.getType())) {
+            return "(" + render(node.getLeft()) + " " + node.getNodeValue() + " " + render(node.getRight()) + ")";
+        }
+        return node.getNodeValue();
+    }
+
+    @Test
+    void testAndBindsTighterThanOr() {
+        assertEquals("((a > 1 AND b < 2) OR (c = 'x' AND d >= 4))",
+                render(RuleParser.parse("a > 1 AND b < 2 OR c = 'x' AND d >= 4")));
+        assertEquals("((a > 1 AND (b < 2 OR c = 'x')) AND d != 4)",
+                render(RuleParser.parse("a > 1 AND (b < 2 OR c = 'x') AND d != 4")));
+    }
+
+    @Test
+    void testTokensNeedNoSurroundingWhitespace() {
+        assertEquals("(age > 30 AND department = 'Sales Team')",
+                render(RuleParser.parse("(age>30)AND department='Sales Team'")));
+    }
+
+    @Test
+    void testErrorsReportPositions() {
+        assertEquals("Incomplete condition: missing value at position 16",
+                assertThrows(IllegalArgumentException.class, () -> RuleParser.parse("age > 30 AND x >")).getMessage());
+        assertEquals("Invalid operator: => at position 4",
+                assertThrows(IllegalArgumentException.class, () -> RuleParser.parse("age => 30")).getMessage());
+        assertEquals("Mismatched parentheses: '(' at position 0 is not closed at position 9",
+                assertThrows(IllegalArgumentException.class, () -> RuleParser.parse("(age > 30")).getMessage());
+        assertEquals("Unexpected ')' at position 8",
+                assertThrows(IllegalArgumentException.class, () -> RuleParser.parse("age > 30)")).getMessage());
+        assertEquals("Unterminated quote at position 13",
+                assertThrows(IllegalArgumentException.class, () -> RuleParser.parse("department = 'Sales")).getMessage());
+    }
+
+    @Test
+    void testNormalizeCollapsesWhitespaceOutsideQuotes() {
+        assertEquals("age > 30 AND name = 'a  b'", RuleParser.normalize("  age  >\t30\nAND name = 'a  b' "));
+    }
+
+    @Test
+    void testMatchesLegacyParserWithoutMixedOperators() {
+        Random random = new Random(3);
+        for (int n = 0; n < 1000; n++) {
+            String expression = randomExpression(random, 4);
+            assertEquals(render(LegacyRuleParser.parse(expression)), render(RuleParser.parse(expression)), expression);
+        }
+    }
+
+    // Every group uses a single connective, so the legacy left-to-right parse agrees with precedence
+    static String randomExpression(Random random, int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            String[] operators = {">", "<", "=", ">=", "<=", "!="};
+            return "attr" + random.nextInt(10) + " " + operators[random.nextInt(operators.length)] + " "
+                    + (random.nextBoolean() ? String.valueOf(random.nextInt(100)) : "'v" + random.nextInt(10) + "'");
+        }
+        String connective = random.nextBoolean() ? " AND " : " OR ";
+        StringBuilder expression = new StringBuilder();
+        int terms = 2 + random.nextInt(3);
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                expression.append(connective);
+            }
+            String term = randomExpression(random, depth - 1);
+            expression.append(term.contains(" AND ") || term.contains(" OR ") ? "(" + term + ")" : term);
+        }
+        return expression.toString();
+    }
+
+    @Test
+    void testParsesDeeplyNestedParentheses() {
+        int depth = 100_000;
+        StringBuilder expression = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            expression.append("(age > ").append(i).append(i % 2 == 0 ? " AND " : " OR ");
+        }
+        expression.append("age > ").append(depth).append(")".repeat(depth));
+
+        Node node = RuleParser.parse(expression.toString());
+        for (int i = 0; i < depth; i++) {
+            assertEquals(i % 2 == 0 ? "AND" : "OR", node.getNodeValue());
+            assertEquals("age > " + i, node.getLeft().getNodeValue());
+            node = node.getRight();
+        }
+        assertEquals("age > " + depth, node.getNodeValue());
+
+        assertThrows(IllegalArgumentException.class, () -> RuleParser.parse("(".repeat(depth) + "age > 1"));
+    }
+
+    @Test
+    void testParsesValueLists() {
+        assertEquals("(country IN ('US', 'CA', \"MX\") AND (age NOT IN (1, 2) OR age IN (3)))",
+                render(RuleParser.parse("country IN('US','CA' , \"MX\") AND (age NOT  IN (1,2) OR age IN (3))")));
+
+        assertThrows(IllegalArgumentException.class, () -> RuleParser.parse("country IN 'US'"));
+        assertThrows(IllegalArgumentException.class, () -> RuleParser.parse("country IN ('US',)"));
+        assertThrows(IllegalArgumentException.class, () -> RuleParser.parse("country IN ('US' 'CA')"));
+        assertThrows(IllegalArgumentException.class, () -> RuleParser.parse("country NOT ('US')"));
+        assertThrows(IllegalArgumentException.class, () -> RuleParser.parse("age > 1, 2"));
+    }
+}
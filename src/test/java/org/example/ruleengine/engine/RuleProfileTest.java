@@ -0,0 +1,46 @@
+package org.example.ruleengine.engine;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.example.ruleengine.engine.RuleTrees.condition;
+import static org.example.ruleengine.engine.RuleTrees.operator;
+import org.example.ruleengine.model.Node;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class RuleProfileTest {
+
+    @Test
+    void testMovesConditionThatUsuallyFailsToTheFrontOfAnAnd() {
+        Node root = operator("AND", condition("age > 0"), condition("department = 'Sales'"));
+        CompiledRule rule = RuleCompiler.compile(1L, root);
+        rule.enableProfiling(1);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("age", 35);
+        data.put("department", "Marketing");
+        for (int i = 0; i < 200; i++) {
+            assertFalse(rule.evaluate(data));
+        }
+
+        assertTrue(rule.reorder(100));
+        CompiledNode[] children = ((AndNode) rule.getRoot()).getChildren();
+        assertEquals("department = Sales", children[0].toString());
+        assertFalse(rule.reorder(100));
+
+        data.put("department", "Sales");
+        assertTrue(rule.evaluate(data));
+
+        // The missing attribute is still reported although the reordered AND would stop early
+        data.remove("age");
+        data.put("department", "Marketing");
+        assertThrows(IllegalArgumentException.class, () -> rule.evaluate(data));
+
+        rule.disableProfiling();
+        assertEquals("age > 0", ((AndNode) rule.getRoot()).getChildren()[0].toString());
+    }
+}
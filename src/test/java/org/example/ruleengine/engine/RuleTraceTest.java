@@ -0,0 +1,62 @@
+package org.example.ruleengine.engine;
+
+import java.util.List;
+import java.util.Map;
+
+import org.example.ruleengine.model.Node;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class RuleTraceTest {
+
+    private static RuleTrace trace(CompiledRule rule, Map<String, Object> data) {
+        SlotRecord record = rule.newRecord();
+        rule.load(data, record);
+        return RuleTrace.of(rule, record);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecordsValuesResultsAndSkippedBranches() {
+        Node root = RuleParser.parse("(age > 30 AND department = 'Sales') OR salary > 50000");
+        CompiledRule rule = RuleCompiler.compile(1L, root, Map.of(), false);
+
+        RuleTrace trace = trace(rule, Map.of("age", 25, "department", "Sales", "salary", 60000));
+        assertTrue(trace.getResult());
+        Map<String, Object> or = trace.describe();
+        assertEquals("OR", or.get("node"));
+        assertEquals(true, or.get("result"));
+        List<Map<String, Object>> branches = (List<Map<String, Object>>) or.get("children");
+        Map<String, Object> and = branches.get(0);
+        assertEquals(false, and.get("result"));
+        List<Map<String, Object>> conditions = (List<Map<String, Object>>) and.get("children");
+        assertEquals("age > 30", conditions.get(0).get("node"));
+        assertEquals(25.0, conditions.get(0).get("value"));
+        assertEquals(false, conditions.get(0).get("result"));
+        assertEquals(true, conditions.get(1).get("skipped"));
+        assertEquals(60000.0, branches.get(1).get("value"));
+        assertTrue((Long) or.get("nanos") >= (Long) and.get("nanos"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTracesFlattenedRulesAsTheConditionsEvaluated() {
+        // age = 999 OR (age = 998 AND (age = 997 OR (... age = 0)))
+        StringBuilder expression = new StringBuilder();
+        for (int i = 999; i >= 1; i--) {
+            expression.append("age = ").append(i).append(i % 2 == 0 ? " AND (" : " OR (");
+        }
+        expression.append("age = 0").append(")".repeat(999));
+        CompiledRule rule = RuleCompiler.compile(1L, RuleParser.parse(expression.toString()));
+        assertTrue(rule.getRoot() instanceof FlatNode);
+
+        RuleTrace trace = trace(rule, Map.of("age", 998));
+        assertEquals(rule.evaluate(Map.of("age", 998)), trace.getResult());
+        List<Map<String, Object>> conditions = (List<Map<String, Object>>) trace.describe().get("conditions");
+        assertEquals("age = 999", conditions.get(0).get("node"));
+        assertEquals(1, conditions.get(0).get("position"));
+        assertFalse(conditions.isEmpty());
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.ruleengine.engine;
+
+import java.util.Random;
+
+import org.example.ruleengine.model.Node;
+
+/**
+ * Rule ASTs for tests. Trees of a given expression come from {@link RuleParser}; these helpers assemble
+ * the nodes directly for tests that need a shape or size the expression does not spell out.
+ */
+public final class RuleTrees {
+
+    private RuleTrees() {
+    }
+
+    public static Node condition(String value) {
+        Node node = new Node();
+        node.setType("condition");
+        node.setNodeValue(value);
+        return node;
+    }
+
+    public static Node operator(String value, Node left, Node right) {
+        Node node = new Node();
+        node.setType("operator");
+        node.setNodeValue(value);
+        node.setLeft(left);
+        node.setRight(right);
+        return node;
+    }
+
+    /**
+     * Random AND/OR tree of at most {@code depth} operator levels over conditions combining the given
+     * attributes, operators and literals.
+     */
+    public static Node randomTree(Random random, String[] attributes, String[] operators, String[] literals,
+            int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            return condition(attributes[random.nextInt(attributes.length)] + " "
+                    + operators[random.nextInt(operators.length)] + " " + literals[random.nextInt(literals.length)]);
+        }
+        return operator(random.nextBoolean() ? "AND" : "OR", randomTree(random, attributes, operators, literals,
+                depth - 1), randomTree(random, attributes, operators, literals, depth - 1));
+    }
+}
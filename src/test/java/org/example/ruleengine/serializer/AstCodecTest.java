@@ -0,0 +1,58 @@
+package org.example.ruleengine.serializer;
+
+import java.util.Arrays;
+
+import static org.example.ruleengine.engine.RuleTrees.condition;
+import static org.example.ruleengine.engine.RuleTrees.operator;
+import org.example.ruleengine.model.Node;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class AstCodecTest {
+
+    private static String render(Node node) {
+        if ("operator".equals(node.getType())) {
+            return "(" + render(node.getLeft()) + " " + node.getNodeValue() + " " + render(node.getRight()) + ")";
+        }
+        return node.getNodeValue();
+    }
+
+    @Test
+    void testRoundTrip() {
+        Node root = operator("OR", operator("AND", condition("age > 30"), condition("department = 'Sales'")),
+                condition("name = 'Zoë'"));
+
+        byte[] bytes = AstCodec.encode(root);
+
+        assertEquals(AstCodec.FORMAT_VERSION, bytes[0]);
+        assertEquals(render(root), render(AstCodec.decode(bytes)));
+        assertArrayEquals(bytes, AstCodec.encode(AstCodec.decode(bytes)));
+    }
+
+    @Test
+    void testRejectsUnknownVersionAndCorruptBlobs() {
+        byte[] bytes = AstCodec.encode(condition("age > 30"));
+
+        byte[] future = bytes.clone();
+        future[0] = 99;
+        assertThrows(IllegalArgumentException.class, () -> AstCodec.decode(future));
+
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        assertThrows(IllegalArgumentException.class, () -> AstCodec.decode(truncated));
+    }
+
+    @Test
+    void testRoundTripsDeepTrees() {
+        Node root = condition("age > 0");
+        for (int i = 1; i < 100_000; i++) {
+            root = i % 2 == 0 ? operator("AND", root, condition("age > " + i))
+                    : operator("OR", condition("age > " + i), root);
+        }
+
+        byte[] bytes = AstCodec.encode(root);
+
+        assertArrayEquals(bytes, AstCodec.encode(AstCodec.decode(bytes)));
+    }
+}
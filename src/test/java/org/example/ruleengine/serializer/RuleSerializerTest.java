@@ -0,0 +1,47 @@
+package org.example.ruleengine.serializer;
+
+import org.example.ruleengine.engine.RuleParser;
+import org.example.ruleengine.model.Rule;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.StreamWriteConstraints;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class RuleSerializerTest {
+
+    @Test
+    void testWritesRootNodeLikeBeanSerialization() throws Exception {
+        Rule rule = new Rule();
+        rule.setId(1L);
+        rule.setName("Rule 1");
+        rule.setRootNode(RuleParser.parse("age > 30 AND department = 'Sales'"));
+
+        assertEquals("{\"id\":1,\"name\":\"Rule 1\",\"rootNode\":{\"id\":null,\"type\":\"operator\","
+                + "\"nodeValue\":\"AND\",\"left\":{\"id\":null,\"type\":\"condition\",\"nodeValue\":\"age > 30\","
+                + "\"left\":null,\"right\":null},\"right\":{\"id\":null,\"type\":\"condition\","
+                + "\"nodeValue\":\"department = 'Sales'\",\"left\":null,\"right\":null}}}",
+                new ObjectMapper().writeValueAsString(rule));
+    }
+
+    @Test
+    void testWritesDeepTrees() throws Exception {
+        StringBuilder expression = new StringBuilder("age > 0");
+        for (int i = 1; i < 100_000; i++) {
+            expression.append(" AND age > ").append(i);
+        }
+        Rule rule = new Rule();
+        rule.setId(1L);
+        rule.setName("Deep");
+        rule.setRootNode(RuleParser.parse(expression.toString()));
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.getFactory().setStreamWriteConstraints(
+                StreamWriteConstraints.builder().maxNestingDepth(Integer.MAX_VALUE).build());
+        String json = mapper.writeValueAsString(rule);
+
+        assertEquals(99_999, json.split("\"operator\"", -1).length - 1);
+        assertEquals("{\"id\":1,\"name\":\"Deep\",\"rootNode\":{\"id\":null,\"type\":\"operator\",\"nodeValue\":\"AND\"",
+                json.substring(0, json.indexOf(",\"left\"")));
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.ruleengine.service;
+
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.example.ruleengine.service.EvaluationExecutor.Lane;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class EvaluationExecutorTest {
+
+    @Test
+    void testRejectsBeyondQueueCapacityWithoutBlockingTheOtherLane() throws Exception {
+        EvaluationExecutor executor = new EvaluationExecutor(1, 1, 60000, 1, 1, 60000, 0);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<Boolean> running = executor.submit(Lane.BULK, () -> release.await(10, TimeUnit.SECONDS));
+            CompletableFuture<Boolean> queued = executor.submit(Lane.BULK, () -> true);
+            CompletableFuture<Boolean> rejected = executor.submit(Lane.BULK, () -> true);
+
+            ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+            assertInstanceOf(RejectedExecutionException.class, e.getCause());
+            assertTrue(executor.submit(Lane.SINGLE, () -> true).get(10, TimeUnit.SECONDS));
+
+            release.countDown();
+            assertTrue(running.get(10, TimeUnit.SECONDS));
+            assertTrue(queued.get(10, TimeUnit.SECONDS));
+            assertEquals(1L, executor.getStats(Lane.BULK).get("rejected"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testTasksPastTheirDeadlineExpire() throws Exception {
+        EvaluationExecutor executor = new EvaluationExecutor(1, 4, 50, 1, 4, 50, 0);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicBoolean ran = new AtomicBoolean();
+            CompletableFuture<Boolean> running = executor.submit(Lane.SINGLE, () -> release.await(10, TimeUnit.SECONDS));
+            CompletableFuture<Boolean> queued = executor.submit(Lane.SINGLE, () -> ran.getAndSet(true));
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> running.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+            e = assertThrows(ExecutionException.class, () -> queued.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+            release.countDown();
+
+            // A started streaming task is left to stop at its deadline by itself
+            CompletableFuture<Long> streaming = executor.submitStreaming(Lane.BULK, deadline -> {
+                while (System.nanoTime() - deadline <= 0) {
+                    Thread.sleep(5);
+                }
+                return deadline;
+            });
+            streaming.get(10, TimeUnit.SECONDS);
+            Thread.sleep(50);
+            assertFalse(ran.get());
+            assertEquals(2L, executor.getStats(Lane.SINGLE).get("expired"));
+            assertEquals(0, executor.getStats(Lane.SINGLE).get("queued"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testRunningTasksStopAtTheirDeadlineCheck() throws Exception {
+        EvaluationExecutor executor = new EvaluationExecutor(1, 4, 50, 1, 4, 50, 0);
+        try {
+            CompletableFuture<Throwable> stopped = new CompletableFuture<>();
+            CompletableFuture<Boolean> running = executor.submit(Lane.SINGLE, () -> {
+                try {
+                    while (true) {
+                        EvaluationExecutor.checkDeadline();
+                        Thread.sleep(5);
+                    }
+                } catch (RuntimeException e) {
+                    stopped.complete(e);
+                    throw e;
+                }
+            });
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> running.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+            assertInstanceOf(CancellationException.class, stopped.get(10, TimeUnit.SECONDS));
+            // The lane's thread is free again, and outside the lanes there is no deadline to check
+            assertTrue(executor.submit(Lane.SINGLE, () -> true).get(10, TimeUnit.SECONDS));
+            EvaluationExecutor.checkDeadline();
+            assertEquals(1L, executor.getStats(Lane.SINGLE).get("expired"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testPartsRunOnTheLaneForkThreadsAndSeeTheTaskDeadline() throws Exception {
+        EvaluationExecutor executor = new EvaluationExecutor(1, 4, 60000, 1, 4, 100, 2);
+        try {
+            AtomicIntegerArray runs = new AtomicIntegerArray(64);
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+            executor.submit(Lane.BULK, () -> {
+                EvaluationExecutor.forEachPart(runs.length(), i -> {
+                    threads.add(Thread.currentThread().getName());
+                    runs.incrementAndGet(i);
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                });
+                return true;
+            }).get(10, TimeUnit.SECONDS);
+            for (int i = 0; i < runs.length(); i++) {
+                assertEquals(1, runs.get(i));
+            }
+            assertTrue(threads.size() <= 3);
+            assertTrue(threads.stream().allMatch(name -> name.startsWith("evaluation-bulk-")));
+
+            CompletableFuture<Boolean> stopped = executor.submitStreaming(Lane.BULK, deadline -> {
+                try {
+                    EvaluationExecutor.forEachPart(4, i -> {
+                        while (true) {
+                            EvaluationExecutor.checkDeadline();
+                            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+                        }
+                    });
+                    return false;
+                } catch (CancellationException e) {
+                    return true;
+                }
+            });
+            assertTrue(stopped.get(10, TimeUnit.SECONDS));
+
+            // Outside the lanes the parts run on the calling thread
+            threads.clear();
+            EvaluationExecutor.forEachPart(3, i -> threads.add(Thread.currentThread().getName()));
+            assertEquals(Set.of(Thread.currentThread().getName()), threads);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
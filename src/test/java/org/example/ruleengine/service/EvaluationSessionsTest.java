@@ -0,0 +1,48 @@
+package org.example.ruleengine.service;
+
+import java.util.Map;
+
+import org.example.ruleengine.engine.CompiledRule;
+import org.example.ruleengine.engine.RuleCompiler;
+import org.example.ruleengine.engine.RuleParser;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class EvaluationSessionsTest {
+
+    private static final CompiledRule RULE = RuleCompiler.compile(1L, RuleParser.parse("age > 30"));
+
+    @Test
+    void testEvictsLeastRecentlyUsedBeyondLimit() {
+        EvaluationSessions sessions = new EvaluationSessions(16, 60000);
+        // Every 16th ID falls in the same segment, which holds a single session
+        EvaluationSessions.Session first = sessions.open(RULE, null);
+        for (int i = 0; i < 15; i++) {
+            sessions.open(RULE, null);
+        }
+        assertNotNull(sessions.get(first.getId()));
+        sessions.open(RULE, Map.of("age", 40));
+        assertNull(sessions.get(first.getId()));
+        assertEquals(1L, sessions.getStats().get("evictions"));
+
+        assertThrows(IllegalArgumentException.class, () -> sessions.open(RULE, Map.of("age", true)));
+        assertEquals(17L, sessions.getStats().get("opened"));
+    }
+
+    @Test
+    void testExpiresIdleSessions() throws InterruptedException {
+        EvaluationSessions sessions = new EvaluationSessions(1000, 1);
+        long idle = sessions.open(RULE, null).getId();
+        long closed = sessions.open(RULE, null).getId();
+        assertEquals(true, sessions.close(closed));
+        Thread.sleep(5);
+        sessions.expireIdleSessions();
+        assertNull(sessions.get(idle));
+        assertEquals(0, sessions.getStats().get("size"));
+        assertEquals(1L, sessions.getStats().get("expirations"));
+        assertEquals(1L, sessions.getStats().get("closed"));
+    }
+}
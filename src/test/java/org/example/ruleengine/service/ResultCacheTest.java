@@ -0,0 +1,92 @@
+package org.example.ruleengine.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.example.ruleengine.engine.CompiledRule;
+import org.example.ruleengine.engine.RuleCompiler;
+import org.example.ruleengine.engine.RuleParser;
+import org.example.ruleengine.engine.SlotRecord;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class ResultCacheTest {
+
+    private static CompiledRule compile(String expression) {
+        return RuleCompiler.compile(1L, RuleParser.parse(expression));
+    }
+
+    private static boolean evaluate(ResultCache cache, CompiledRule rule, Map<String, Object> data) {
+        SlotRecord record = rule.newRecord();
+        rule.load(data, record);
+        return cache.evaluate(rule, record);
+    }
+
+    @Test
+    void testRecordsAgreeingOnTheRuleAttributesShareAnEntry() {
+        ResultCache cache = new ResultCache(1000, 60000, false);
+        CompiledRule rule = compile("age > 30");
+        Map<String, Object> data = new HashMap<>();
+        data.put("age", 35);
+        data.put("name", "a");
+
+        assertTrue(evaluate(cache, rule, data));
+        assertEquals(0L, cache.getStats().get("misses"));
+
+        cache.setEnabled(1L, true);
+        assertTrue(evaluate(cache, rule, data));
+        data.put("name", "b");
+        assertTrue(evaluate(cache, rule, data));
+        data.put("age", 20);
+        assertFalse(evaluate(cache, rule, data));
+        assertFalse(evaluate(cache, rule, data));
+
+        Map<String, Object> stats = cache.getStats();
+        assertEquals(2L, stats.get("hits"));
+        assertEquals(2L, stats.get("misses"));
+        assertEquals(0.5, stats.get("hitRate"));
+    }
+
+    @Test
+    void testSwitchingBackToTheDefaultForgetsTheRule() {
+        ResultCache cache = new ResultCache(1000, 60000, false);
+        cache.setEnabled(1L, true);
+        cache.setEnabled(2L, false);
+        assertTrue(cache.isEnabled(1L));
+        assertEquals(1, cache.getStats().get("switchedRules"));
+
+        cache.setEnabled(1L, false);
+        assertFalse(cache.isEnabled(1L));
+        assertEquals(0, cache.getStats().get("switchedRules"));
+    }
+
+    @Test
+    void testUpdatedRulesMissOldResults() {
+        ResultCache cache = new ResultCache(1000, 60000, true);
+        CompiledRule rule = compile("age > 30");
+        rule.setVersion(1);
+        assertTrue(evaluate(cache, rule, Map.of("age", 35)));
+
+        CompiledRule updated = compile("age > 40");
+        updated.setVersion(2);
+        assertFalse(evaluate(cache, updated, Map.of("age", 35)));
+        assertEquals(0L, cache.getStats().get("hits"));
+    }
+
+    @Test
+    void testEntriesExpireAndAreBounded() throws InterruptedException {
+        ResultCache cache = new ResultCache(16, 1, true);
+        CompiledRule rule = compile("age > 30");
+        for (int age = 0; age < 100; age++) {
+            evaluate(cache, rule, Map.of("age", age));
+        }
+        assertTrue((int) cache.getStats().get("size") <= 16);
+
+        evaluate(cache, rule, Map.of("age", 99));
+        Thread.sleep(5);
+        evaluate(cache, rule, Map.of("age", 99));
+        assertEquals(1L, cache.getStats().get("expirations"));
+    }
+}
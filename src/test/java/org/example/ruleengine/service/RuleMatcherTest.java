@@ -0,0 +1,29 @@
+package org.example.ruleengine.service;
+
+import java.util.List;
+import java.util.Map;
+
+import org.example.ruleengine.engine.RuleParser;
+import org.example.ruleengine.model.Rule;
+import org.example.ruleengine.repository.RuleRepository;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RuleMatcherTest {
+
+    @Test
+    void testTautologyDoesNotMatchRecordsLackingItsAttribute() {
+        Rule rule = new Rule();
+        rule.setId(1L);
+        rule.setRootNode(RuleParser.parse("x > 5 OR x <= 5"));
+        RuleRepository ruleRepository = mock(RuleRepository.class);
+        when(ruleRepository.findAll()).thenReturn(List.of(rule));
+        RuleMatcher matcher = new RuleMatcher(ruleRepository, new RuleSnapshots());
+
+        assertEquals(List.of(), matcher.match(Map.of("y", 1)).getRuleIds());
+        assertEquals(List.of(1L), matcher.match(Map.of("x", 3)).getRuleIds());
+        assertEquals(List.of(1L), matcher.match(Map.of("x", 9)).getRuleIds());
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.ruleengine.service;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RuleMetricsTest {
+
+    @Test
+    void testRulesBeyondTheTagLimitShareOneSeries() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RuleMetrics metrics = new RuleMetrics(registry, 2);
+        for (long ruleId = 1; ruleId <= 5; ruleId++) {
+            metrics.recordEvaluation(ruleId, true, 1000);
+        }
+        metrics.recordEvaluation(1L, false, 1000);
+        metrics.recordError(5L);
+
+        assertEquals(3, registry.find("ruleengine.rule.latency").functionTimers().size());
+        assertEquals(2.0, registry.get("ruleengine.rule.evaluations").tags("rule", "1", "result", "true")
+                .functionCounter().count() + registry.get("ruleengine.rule.evaluations")
+                .tags("rule", "1", "result", "false").functionCounter().count());
+        assertEquals(3.0, registry.get("ruleengine.rule.evaluations").tags("rule", "other", "result", "true")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("ruleengine.rule.evaluations").tags("rule", "other", "result", "error")
+                .functionCounter().count());
+        assertTrue((Boolean) metrics.describe(2L).get("tagged"));
+        assertFalse((Boolean) metrics.describe(3L).get("tagged"));
+    }
+
+    @Test
+    void testLatencyHistogramReportsBucketBounds() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RuleMetrics metrics = new RuleMetrics(registry, 10);
+        for (int i = 0; i < 99; i++) {
+            metrics.recordEvaluation(1L, true, 100);
+        }
+        metrics.recordEvaluation(1L, true, 5000);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> latency = (Map<String, Object>) metrics.describe(1L).get("latency");
+        assertEquals(100L, latency.get("count"));
+        assertEquals(128L, latency.get("p50Nanos"));
+        assertEquals(128L, latency.get("p99Nanos"));
+        assertEquals(Map.of("le128", 99L, "le8192", 1L), latency.get("histogram"));
+        FunctionTimer timer = registry.get("ruleengine.rule.latency").tag("rule", "1").functionTimer();
+        assertEquals(100.0, timer.count());
+    }
+}
@@ -1,25 +1,37 @@
 package org.example.ruleengine.service;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import org.example.ruleengine.engine.AttributeType;
 import org.example.ruleengine.model.Node;
 import org.example.ruleengine.model.Rule;
 import org.example.ruleengine.repository.NodeRepository;
 import org.example.ruleengine.repository.RuleRepository;
+import org.example.ruleengine.serializer.AstCodec;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 class RuleServiceTest {
 
@@ -29,12 +41,49 @@ class RuleServiceTest {
     @Mock
     private NodeRepository nodeRepository;
 
+    @Mock
+    private RuleMatcher ruleMatcher;
+
+    @Mock
+    private AdaptiveReorderer adaptiveReorderer;
+
+    @Mock
+    private AttributeDictionary attributeDictionary;
+
+    @Mock
+    private HotRuleCompiler hotRuleCompiler;
+
+    @Mock
+    private RuleStorage ruleStorage;
+
+    @Spy
+    private RuleCache ruleCache = new RuleCache(100);
+
+    @Spy
+    private ParseCache parseCache = new ParseCache(1 << 20);
+
+    @Spy
+    private ResultCache resultCache = new ResultCache(1000, 60000, false);
+
+    @Spy
+    private RuleSnapshots ruleSnapshots = new RuleSnapshots();
+
+    @Spy
+    private RuleMetrics ruleMetrics = new RuleMetrics(new SimpleMeterRegistry(), 100);
+
+    @Spy
+    private RuleTraces ruleTraces = new RuleTraces(0, 100);
+
+    @Spy
+    private EvaluationSessions evaluationSessions = new EvaluationSessions(1000, 60000);
+
     @InjectMocks
     private RuleService ruleService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(attributeDictionary.getDeclaredTypes()).thenReturn(Collections.emptyMap());
     }
 
     @Test
@@ -84,4 +133,90 @@ class RuleServiceTest {
         assertTrue(result);
         verify(ruleRepository, times(1)).findById(ruleId);
     }
+
+    @Test
+    void testEvaluateRuleServesRepeatedCallsFromCache() {
+        Long ruleId = 1L;
+        Rule rule = new Rule();
+        rule.setId(ruleId);
+
+        Node rootNode = new Node();
+        rootNode.setType("condition");
+        rootNode.setNodeValue("age > 30");
+        rule.setRootNode(rootNode);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("age", 35);
+
+        when(ruleRepository.findById(ruleId)).thenReturn(Optional.of(rule));
+
+        assertTrue(ruleService.evaluateRule(ruleId, data));
+        assertTrue(ruleService.evaluateRule(ruleId, data));
+
+        verify(ruleRepository, times(1)).findById(ruleId);
+        assertEquals(1L, ruleService.getCacheStats().get("hits"));
+        assertEquals(1L, ruleService.getCacheStats().get("misses"));
+    }
+
+    @Test
+    void testEvaluationSeesOneSnapshotWhileRulesChange() {
+        when(ruleStorage.getMode()).thenReturn(RuleStorage.Mode.BLOB);
+        Rule rule = new Rule();
+        rule.setId(1L);
+        rule.setName("adults");
+        rule.storeAst(ruleService.parseRuleString("age > 30"));
+        when(ruleRepository.findById(1L)).thenReturn(Optional.of(rule));
+        when(ruleRepository.save(any(Rule.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertTrue(ruleService.evaluateRule(1L, Map.of("age", 35)));
+        RuleSetSnapshot before = ruleService.getSnapshot();
+
+        Rule updated = new Rule();
+        updated.setName("seniors");
+        updated.setRootNode(ruleService.parseRuleString("age > 40"));
+        ruleService.updateRule(1L, updated);
+
+        assertTrue(ruleService.evaluateRule(before, 1L, Map.of("age", 35)));
+        assertFalse(ruleService.evaluateRule(1L, Map.of("age", 35)));
+        assertEquals(before.getVersion() + 1, ruleService.getSnapshot().getVersion());
+        verify(ruleRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testImportRulesReportsErrorsPerDefinition() {
+        when(ruleStorage.getMode()).thenReturn(RuleStorage.Mode.BLOB);
+
+        ImportResult result = ruleService.importRules(List.of(
+                Map.of("name", "adults", "expression", "age > 30 AND department = 'Sales'"),
+                Map.of("name", "broken", "expression", "age >"),
+                Map.of("expression", "age > 30")));
+
+        assertEquals(3, result.size());
+        assertNull(result.getError(0));
+        assertEquals("Incomplete condition: missing value at position 5", result.getError(1));
+        assertEquals("Rule name and expression are required", result.getError(2));
+        verify(ruleStorage, times(1)).persistAll(argThat(rules -> rules.size() == 1
+                && rules.get(0).getAst() != null && rules.get(0).getNodes().isEmpty()));
+    }
+
+    @Test
+    void testDeclaringATypeStoredRulesConflictWithIsRejected() {
+        Rule rule = new Rule();
+        rule.setId(2L);
+        rule.setRootNode(ruleService.parseRuleString("tier = 'gold' OR age > 30"));
+        List<Object[]> storedAsts = List.of(
+                new Object[] {1L, AstCodec.encode(ruleService.parseRuleString("tier > 2")), 0L},
+                new Object[] {3L, AstCodec.encode(ruleService.parseRuleString("age > 30 AND tier != 'basic'")), 0L});
+        when(ruleRepository.findStoredAsts()).thenReturn(storedAsts);
+        when(ruleRepository.findRulesStoredAsNodes()).thenReturn(List.of(rule));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ruleService.declareAttributeType("tier", AttributeType.NUMERIC));
+        assertEquals("Attribute tier cannot be declared numeric: rules [2, 3] compare it with non-numeric literals",
+                e.getMessage());
+        verify(attributeDictionary, never()).declare(any(), any());
+
+        ruleService.declareAttributeType("age", AttributeType.NUMERIC);
+        verify(attributeDictionary).declare("age", AttributeType.NUMERIC);
+    }
 }
@@ -0,0 +1,63 @@
+package org.example.ruleengine.service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.example.ruleengine.engine.RuleParser;
+import org.example.ruleengine.model.RuleSetFingerprint;
+import org.example.ruleengine.serializer.AstCodec;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RuleSnapshotFileTest {
+
+    @TempDir
+    Path directory;
+
+    private static byte[] ast(String condition) {
+        return AstCodec.encode(RuleParser.parse(condition));
+    }
+
+    private static RuleSetSnapshot snapshot() {
+        Map<Long, RuleSetSnapshot.Entry> entries = new HashMap<>();
+        for (long id = 1; id <= 3000; id += 3) {
+            entries.put(id, new RuleSetSnapshot.Entry(ast("age > " + id), id % 5, id % 2));
+        }
+        entries.put(1L << 33, new RuleSetSnapshot.Entry(ast("salary > 0"), 7, 4));
+        return RuleSetSnapshot.of(7, entries);
+    }
+
+    @Test
+    void testSnapshotSurvivesARoundTrip() throws Exception {
+        RuleSetSnapshot written = snapshot();
+        Path file = directory.resolve("rules.snapshot");
+        RuleSnapshotFile.write(written, file);
+        RuleSetSnapshot read = RuleSnapshotFile.read(file);
+
+        assertEquals(7, read.getVersion());
+        assertEquals(written.size(), read.size());
+        assertEquals(written.fingerprint(), read.fingerprint());
+        assertEquals("age > 301", read.get(301L).getRootNode().getNodeValue());
+        assertEquals(1, read.get(301L).getVersion());
+        assertEquals(1, read.get(301L).getRevision());
+        assertEquals("salary > 0", read.get(1L << 33).getRootNode().getNodeValue());
+        assertEquals(new RuleSetFingerprint(1001L, 1499500L + (1L << 33), 504L), read.fingerprint());
+    }
+
+    @Test
+    void testCorruptedSnapshotIsRejected() throws Exception {
+        Path file = directory.resolve("rules.snapshot");
+        RuleSnapshotFile.write(snapshot(), file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        assertThrows(IllegalArgumentException.class, () -> RuleSnapshotFile.read(file));
+
+        Files.write(file, new byte[] {1, 2, 3});
+        assertThrows(IllegalArgumentException.class, () -> RuleSnapshotFile.read(file));
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.ruleengine.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.example.ruleengine.engine.RuleParser;
+import org.example.ruleengine.serializer.AstCodec;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+
+class RuleSnapshotsTest {
+
+    private static byte[] ast(String condition) {
+        return AstCodec.encode(RuleParser.parse(condition));
+    }
+
+    private static String condition(RuleSetSnapshot snapshot, long ruleId) {
+        return snapshot.get(ruleId).getRootNode().getNodeValue();
+    }
+
+    @Test
+    void testPublishingLeavesEarlierSnapshotsUntouched() {
+        RuleSnapshots snapshots = new RuleSnapshots();
+        Map<Long, byte[]> rules = new LinkedHashMap<>();
+        for (long id = 1; id <= 5000; id += 7) {
+            rules.put(id, ast("age > " + id));
+        }
+        RuleSetSnapshot first = snapshots.publish(rules);
+        RuleSetSnapshot second = snapshots.publish(Map.of(8L, ast("age > 99"), 1L << 40, ast("age > 0")));
+
+        assertEquals(1, first.getVersion());
+        assertEquals(2, second.getVersion());
+        assertEquals(rules.size(), first.size());
+        assertEquals(rules.size() + 1, second.size());
+        assertEquals("age > 8", condition(first, 8));
+        assertEquals("age > 99", condition(second, 8));
+        assertEquals("age > 4999", condition(second, 4999));
+        assertEquals(2, second.get(8L).getVersion());
+        assertEquals(1, second.get(15L).getVersion());
+        assertNull(first.get(1L << 40));
+        assertNull(second.get(2L));
+        assertSame(second, snapshots.current());
+    }
+
+    @Test
+    void testPublishedRulesWinOverRulesReadBeforeThem() {
+        RuleSnapshots snapshots = new RuleSnapshots();
+        RuleSetSnapshot.Entry loaded = snapshots.admit(3L, ast("age > 30"));
+        assertEquals(0, loaded.getVersion());
+        assertEquals(0, snapshots.current().getVersion());
+
+        snapshots.publish(Map.of(3L, ast("age > 40")));
+        RuleSetSnapshot.Entry stale = snapshots.admit(3L, ast("age > 30"));
+        assertEquals(1, stale.getVersion());
+        assertEquals("age > 40", stale.getRootNode().getNodeValue());
+    }
+
+    @Test
+    void testChangesPublishedOutOfOrderKeepTheLatestRevision() {
+        RuleSnapshots snapshots = new RuleSnapshots();
+        snapshots.publish(Map.of(3L, ast("age > 50")), Map.of(3L, 2L));
+        RuleSetSnapshot late = snapshots.publish(Map.of(3L, ast("age > 40")), Map.of(3L, 1L));
+
+        assertEquals(2, late.getVersion());
+        assertEquals("age > 50", condition(late, 3));
+        assertEquals(2, late.get(3L).getRevision());
+    }
+}
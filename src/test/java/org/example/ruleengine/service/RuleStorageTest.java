@@ -0,0 +1,100 @@
+package org.example.ruleengine.service;
+
+import java.util.List;
+import java.util.Map;
+
+import org.example.ruleengine.model.Rule;
+import org.example.ruleengine.repository.NodeRepository;
+import org.example.ruleengine.repository.RuleRepository;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = "ruleengine.storage.mode=NODES")
+class RuleStorageTest {
+
+    @Autowired
+    private RuleService ruleService;
+
+    @Autowired
+    private RuleStorage ruleStorage;
+
+    @Autowired
+    private RuleRepository ruleRepository;
+
+    @Autowired
+    private NodeRepository nodeRepository;
+
+    private Rule create(String name, String expression) {
+        Rule rule = new Rule();
+        rule.setName(name);
+        rule.setRootNode(ruleService.parseRuleString(expression));
+        return ruleService.createRule(rule);
+    }
+
+    @Test
+    void testUpdatesReplaceTheNodeRowsOfARule() {
+        Rule first = create("first", "age > 30 AND department = 'Sales'");
+        Rule second = create("second", "salary > 50000");
+        Rule combined = ruleService.combineRules(List.of(first.getId(), second.getId()));
+        long nodeRows = nodeRepository.count();
+        Map<String, Object> data = Map.of("age", 35, "department", "Sales", "salary", 60000);
+        assertTrue(ruleService.evaluateRule(first.getId(), data));
+
+        Rule updated = new Rule();
+        updated.setName("first");
+        updated.setRootNode(ruleService.parseRuleString("age < 30"));
+        ruleService.updateRule(first.getId(), updated);
+
+        assertFalse(ruleService.evaluateRule(first.getId(), data));
+        assertTrue(ruleService.evaluateRule(first.getId(), Map.of("age", 20)));
+        assertEquals("age < 30", ruleRepository.findById(first.getId()).orElseThrow().getRootNode().getNodeValue());
+        // The combined rule still links to the replaced tree, so its rows stay
+        assertEquals(nodeRows + 1, nodeRepository.count());
+        assertTrue(ruleService.evaluateRule(combined.getId(), data));
+
+        updated.setRootNode(ruleService.parseRuleString("age < 25"));
+        ruleService.updateRule(first.getId(), updated);
+        assertEquals(nodeRows + 1, nodeRepository.count());
+        assertFalse(ruleService.evaluateRule(first.getId(), Map.of("age", 27)));
+    }
+
+    @Test
+    void testMigratesNodeRowsToBlobsBeforeDroppingThem() {
+        Rule first = create("first", "age > 30 AND department = 'Sales'");
+        Rule second = create("second", "salary > 50000 OR experience > 5");
+        Rule combined = ruleService.combineRules(List.of(first.getId(), second.getId()));
+        long nodeRows = nodeRepository.count();
+        assertTrue(nodeRows > 0);
+
+        // Other tests of this class may have left rules of their own
+        assertEquals(ruleRepository.findRulesStoredAsNodes().size(), ruleStorage.migrateToBlob());
+        assertEquals(nodeRows, nodeRepository.count());
+        assertNotNull(ruleRepository.findById(combined.getId()).orElseThrow().getAst());
+
+        // Node rows are only dropped once every rule linked to them has a matching blob
+        Rule unmigrated = create("unmigrated", "age < 18");
+        IllegalStateException e = assertThrows(IllegalStateException.class, ruleStorage::dropNodeRows);
+        assertTrue(e.getMessage().contains("[" + unmigrated.getId() + "]"));
+        assertTrue(nodeRepository.count() > nodeRows);
+
+        assertEquals(1, ruleStorage.migrateToBlob());
+        assertTrue(ruleStorage.dropNodeRows() > 0);
+        assertEquals(0, nodeRepository.count());
+        Rule migrated = ruleRepository.findById(combined.getId()).orElseThrow();
+        assertEquals("operator", migrated.getRootNode().getType());
+        assertNull(migrated.getRootNode().getId());
+
+        Map<String, Object> data = Map.of("age", 35, "department", "Sales", "salary", 60000, "experience", 3);
+        assertTrue(ruleService.evaluateRule(combined.getId(), data));
+        assertFalse(ruleService.evaluateRule(first.getId(), Map.of("age", 20, "department", "Sales")));
+        assertTrue(ruleService.evaluateRule(unmigrated.getId(), Map.of("age", 12)));
+        assertEquals(0, ruleStorage.migrateToBlob());
+    }
+}